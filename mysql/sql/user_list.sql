@@ -1,9 +1,10 @@
-  DROP TABLE IF EXISTS users, schedules;
+  DROP TABLE IF EXISTS users, schedules, cache_versions, daily_manpower, replica_heartbeat;
 
   CREATE TABLE users (
     user_id INT NOT NULL AUTO_INCREMENT,
     company_name VARCHAR(256) NOT NULL,
     user_name VARCHAR(256) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     PRIMARY KEY(user_id)
   );
 
@@ -23,7 +24,24 @@
       place VARCHAR(256) NOT NULL,
       work_content VARCHAR(256) NOT NULL,
       number_of_people VARCHAR(256) NOT NULL,
+      version BIGINT NOT NULL DEFAULT 0,
       PRIMARY KEY(schedule_id),
+      -- InnoDB のセカンダリインデックスは主キーを含むので (working_date, schedule_id) 順のキーセットページングに使える
+      INDEX idx_schedules_working_date (working_date),
+      -- 絞り込み検索用。等価条件の列を先頭に、working_date を最後に置いて日付の範囲をレンジスキャンにする。
+      -- (user_id, working_date) は外部キー user_id のインデックスも兼ねる
+      INDEX idx_schedules_user_id_working_date (user_id, working_date),
+      -- 同じ日に同じ階の同じ場所へ入れる作業予定は1件だけ。アプリのメモリ上の索引で先に弾き、ここは最後の砦。
+      -- メモリ上の索引（ScheduleSlot）は文字列をそのまま比べるので、ここも utf8mb4_bin で比べる。
+      -- 既定の utf8mb4_0900_ai_ci のままだと大文字と小文字・全角と半角・アクセントの違いを同じとみなし、
+      -- アプリが通した予定が DB で重複になってしまう。place は FULLTEXT インデックスで work_content と
+      -- 照合順序をそろえる必要があるので、列ではなくインデックスのキーで照合順序を指定する
+      UNIQUE INDEX uk_schedules_place_floors_working_date (
+          (CAST(place AS CHAR(256)) COLLATE utf8mb4_bin),
+          (CAST(number_of_floors AS CHAR(256)) COLLATE utf8mb4_bin),
+          working_date),
+      -- GET /schedules/search 用。ngram パーサーは既定の ngram_token_size=2 で2文字ずつに分けるので、分かち書きのない日本語も引ける
+      FULLTEXT INDEX ft_schedules_place_work_content (place, work_content) WITH PARSER ngram,
       FOREIGN KEY (user_id) REFERENCES users (user_id)  ON DELETE CASCADE
   );
 
@@ -35,3 +53,44 @@
     values (3, 2, '2022-12-10', '3階', 'トイレ２', 'BOX取り付け', '2人');
     INSERT INTO schedules (schedule_id, user_id, working_date, number_of_floors, place, work_content, number_of_people)
     values (4, 3, '2022-12-09', '4階', '洋室', '配管', '4人');
+
+
+  -- 日付・ユーザー・階ごとの人数の集計。schedules を書き換えるトランザクションの中で差分を足し込む。
+  -- total_people は number_of_people（'3人' など）の数字部分の合計
+  CREATE TABLE daily_manpower
+  (
+      working_date DATE NOT NULL,
+      user_id INT NOT NULL,
+      number_of_floors VARCHAR(256) NOT NULL,
+      total_people INT NOT NULL,
+      schedule_count INT NOT NULL,
+      PRIMARY KEY(working_date, number_of_floors, user_id),
+      INDEX idx_daily_manpower_user_id_working_date (user_id, working_date),
+      FOREIGN KEY (user_id) REFERENCES users (user_id)  ON DELETE CASCADE
+  );
+
+    INSERT INTO daily_manpower (working_date, user_id, number_of_floors, total_people, schedule_count)
+    values ('2022-12-06', 1, '4階', 3, 1), ('2022-12-07', 2, '3階', 5, 1),
+           ('2022-12-10', 2, '3階', 2, 1), ('2022-12-09', 3, '4階', 4, 1);
+
+
+  -- アプリのローカルキャッシュを複数ノード間で無効化するためのバージョン行。
+  -- 書き込み時に同じトランザクションで version を上げ、各ノードはこれをポーリングする。
+  CREATE TABLE cache_versions
+  (
+      cache_name VARCHAR(64) NOT NULL,
+      version BIGINT NOT NULL,
+      PRIMARY KEY(cache_name)
+  );
+
+    INSERT INTO cache_versions (cache_name, version) values ('users', 0), ('schedules', 0);
+
+
+  -- レプリカの遅れを測るための行。アプリの各ノードがプライマリの自分の行の beat に時刻（エポックミリ秒）を書き、
+  -- レプリカに届いた値との差を見る。行は最初に書いたときに作る
+  CREATE TABLE replica_heartbeat
+  (
+      node_id VARCHAR(255) NOT NULL,
+      beat BIGINT NOT NULL,
+      PRIMARY KEY(node_id)
+  );
@@ -0,0 +1,50 @@
+package com.example.businessmanagement2.benchmark;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleController;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleDTO;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Entity から DTO への詰め替え。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  int rows;
+
+  ScheduleEntity entity;
+
+  List<ScheduleEntity> entities;
+
+  @Setup
+  public void setUp() {
+    entity = Fixtures.schedule(1);
+    entities = Fixtures.schedules(rows);
+  }
+
+  @Benchmark
+  public ScheduleDTO toScheduleDTO() {
+    return ScheduleController.toScheduleDTO(entity);
+  }
+
+  @Benchmark
+  public List<ScheduleDTO> toScheduleDTOList() {
+    return entities.stream()
+        .map(ScheduleController::toScheduleDTO)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,88 @@
+package com.example.businessmanagement2.benchmark;
+
+import com.example.businessmanagement2.restcontroller.fields.FieldSelection;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleController;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleListDTO;
+import com.example.businessmanagement2.restcontroller.user.UserDTO;
+import com.example.businessmanagement2.restcontroller.user.UserListDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 一覧レスポンスを JSON / Smile / CBOR で書き、gzip をかけた場合も含めて比べる。
+ * 時間は JMH の結果に、大きさは Setup で標準出力に書く（JMH のログに残る）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncodingBenchmark {
+
+  @Param({"100", "1000"})
+  int rows;
+
+  @Param({"json", "smile", "cbor"})
+  String format;
+
+  @Param({"false", "true"})
+  boolean gzip;
+
+  ObjectMapper objectMapper;
+
+  ScheduleListDTO scheduleList;
+
+  UserListDTO userList;
+
+  @Setup
+  public void setUp() throws IOException {
+    var builder = switch (format) {
+      case "smile" -> Jackson2ObjectMapperBuilder.smile();
+      case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+      default -> Jackson2ObjectMapperBuilder.json();
+    };
+    objectMapper = builder.filters(FieldSelection.allFields()).build();
+    scheduleList = new ScheduleListDTO();
+    scheduleList.setResults(Fixtures.schedules(rows).stream()
+        .map(ScheduleController::toScheduleDTO)
+        .collect(Collectors.toList()));
+    userList = new UserListDTO();
+    userList.setResults(Fixtures.users(rows).stream()
+        .map(user -> new UserDTO(user.getUserid(), user.getCompanyname(), user.getUsername()))
+        .collect(Collectors.toList()));
+    System.out.printf("%n[size] rows=%d format=%s gzip=%s scheduleList=%d userList=%d%n",
+        rows, format, gzip, scheduleList().length, userList().length);
+  }
+
+  @Benchmark
+  public byte[] scheduleList() throws IOException {
+    return encode(scheduleList);
+  }
+
+  @Benchmark
+  public byte[] userList() throws IOException {
+    return encode(userList);
+  }
+
+  private byte[] encode(Object value) throws IOException {
+    if (!gzip) {
+      return objectMapper.writeValueAsBytes(value);
+    }
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new GZIPOutputStream(bytes)) {
+      objectMapper.writeValue(out, value);
+    }
+    return bytes.toByteArray();
+  }
+}
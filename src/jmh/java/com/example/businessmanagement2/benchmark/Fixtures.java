@@ -0,0 +1,54 @@
+package com.example.businessmanagement2.benchmark;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import com.example.businessmanagement2.repository.user.UserEntity;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ベンチマーク用のデータ。毎回同じ内容になるよう乱数は使わない。
+ */
+final class Fixtures {
+
+  static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+  private static final String[] PLACES = {"トイレ", "和室", "洋室", "キッチン", "廊下"};
+
+  private static final int FLOORS = 10;
+
+  private static final int SLOTS_PER_DAY = FLOORS * PLACES.length;
+
+  private Fixtures() {
+  }
+
+  /**
+   * 作業日は 1000 日に散らし、同じ日に入る id（1000 違い）には別の階・場所を割り当てる。
+   * 場所・階・作業日は schedules の一意制約と同じく id ごとに重ならない。
+   */
+  static ScheduleEntity schedule(long id) {
+    var round = id / 1000;
+    var day = FIRST_DAY.plusDays(id % 1000 + 1000 * (round / SLOTS_PER_DAY));
+    var slot = (int) ((id % 1000 + round) % SLOTS_PER_DAY);
+    return new ScheduleEntity(id, (int) (id % 100) + 1,
+        WorkingDates.toDate(day),
+        (slot % FLOORS + 1) + "階", PLACES[slot / FLOORS], "墨出し", "3人");
+  }
+
+  static List<ScheduleEntity> schedules(int size) {
+    var list = new ArrayList<ScheduleEntity>(size);
+    for (long id = 1; id <= size; id++) {
+      list.add(schedule(id));
+    }
+    return list;
+  }
+
+  static List<UserEntity> users(int size) {
+    var list = new ArrayList<UserEntity>(size);
+    for (long id = 1; id <= size; id++) {
+      list.add(new UserEntity(id, "○○○会社" + id, "瀬川" + id));
+    }
+    return list;
+  }
+}
@@ -0,0 +1,138 @@
+package com.example.businessmanagement2.benchmark;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleCriteria;
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import com.example.businessmanagement2.repository.user.UserEntity;
+import com.example.businessmanagement2.repository.user.UserRepository;
+import com.example.businessmanagement2.repository.userschedule.UserSchedule;
+import com.example.businessmanagement2.repository.userschedule.UserScheduleRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * MyBatis のマッパーを組み込みの H2 (MODE=MySQL) に対して1回ずつ呼ぶ往復時間。
+ * 本番と同じ XML マッパーを読み込み、リクエストと同じく呼び出しごとに SqlSession を開く。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+  private static final int USERS = 100;
+
+  @Param({"10000"})
+  int schedules;
+
+  PooledDataSource dataSource;
+
+  SqlSessionFactory sqlSessionFactory;
+
+  ScheduleCriteria weekForUser;
+
+  ScheduleCriteria weekForPlace;
+
+  @Setup
+  public void setUp() throws IOException {
+    dataSource = new PooledDataSource("org.h2.Driver",
+        "jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    var configuration = new Configuration(
+        new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(UserRepository.class);
+    configuration.addMapper(ScheduleRepository.class);
+    configuration.addMapper(UserScheduleRepository.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    try (var session = sqlSessionFactory.openSession(true);
+        var reader = Resources.getResourceAsReader("h2/schema.sql")) {
+      var runner = new ScriptRunner(session.getConnection());
+      runner.setLogWriter(null);
+      runner.runScript(reader);
+    }
+    try (var session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      var userRepository = session.getMapper(UserRepository.class);
+      Fixtures.users(USERS).forEach(user ->
+          userRepository.create(new UserEntity(null, user.getCompanyname(), user.getUsername())));
+      var scheduleRepository = session.getMapper(ScheduleRepository.class);
+      Fixtures.schedules(schedules).forEach(schedule -> scheduleRepository.create(
+          new ScheduleEntity(null, schedule.getUserid(), schedule.getWorkingdate(),
+              schedule.getNumberoffloors(), schedule.getPlace(), schedule.getWorkcontent(),
+              schedule.getNumberofpeople())));
+      session.commit();
+    }
+
+    var from = Fixtures.FIRST_DAY.plusDays(100);
+    weekForUser = new ScheduleCriteria(from, from.plusDays(6), 7, null, null);
+    weekForPlace = new ScheduleCriteria(from, from.plusDays(6), null, "和室", "3階");
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.forceCloseAll();
+  }
+
+  @Benchmark
+  public Optional<UserEntity> userFindById() {
+    try (var session = sqlSessionFactory.openSession()) {
+      return session.getMapper(UserRepository.class).findById(42);
+    }
+  }
+
+  @Benchmark
+  public Optional<ScheduleEntity> scheduleFindById() {
+    try (var session = sqlSessionFactory.openSession()) {
+      return session.getMapper(ScheduleRepository.class).findById(4242L);
+    }
+  }
+
+  @Benchmark
+  public List<ScheduleEntity> searchOneWeekForUser() {
+    try (var session = sqlSessionFactory.openSession()) {
+      return session.getMapper(ScheduleRepository.class)
+          .searchSchedules(weekForUser, null, null, 101);
+    }
+  }
+
+  @Benchmark
+  public List<ScheduleEntity> searchOneWeekForPlace() {
+    try (var session = sqlSessionFactory.openSession()) {
+      return session.getMapper(ScheduleRepository.class)
+          .searchSchedules(weekForPlace, null, null, 101);
+    }
+  }
+
+  @Benchmark
+  public List<ScheduleEntity> firstPage() {
+    try (var session = sqlSessionFactory.openSession()) {
+      return session.getMapper(ScheduleRepository.class)
+          .searchSchedules(ScheduleCriteria.none(), null, null, 101);
+    }
+  }
+
+  @Benchmark
+  public Optional<UserSchedule> userWithSchedules() {
+    try (var session = sqlSessionFactory.openSession()) {
+      return session.getMapper(UserScheduleRepository.class).findById(7L, null, null);
+    }
+  }
+}
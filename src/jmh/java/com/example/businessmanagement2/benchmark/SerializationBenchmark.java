@@ -0,0 +1,61 @@
+package com.example.businessmanagement2.benchmark;
+
+import com.example.businessmanagement2.restcontroller.fields.FieldSelection;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleController;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleListDTO;
+import com.example.businessmanagement2.restcontroller.user.UserDTO;
+import com.example.businessmanagement2.restcontroller.user.UserListDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 一覧レスポンスの JSON シリアライズ。ObjectMapper は Spring MVC と同じビルダーで作る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  int rows;
+
+  ObjectMapper objectMapper;
+
+  ScheduleListDTO scheduleList;
+
+  UserListDTO userList;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().filters(FieldSelection.allFields()).build();
+    scheduleList = new ScheduleListDTO();
+    scheduleList.setResults(Fixtures.schedules(rows).stream()
+        .map(ScheduleController::toScheduleDTO)
+        .collect(Collectors.toList()));
+    userList = new UserListDTO();
+    userList.setResults(Fixtures.users(rows).stream()
+        .map(user -> new UserDTO(user.getUserid(), user.getCompanyname(), user.getUsername()))
+        .collect(Collectors.toList()));
+  }
+
+  @Benchmark
+  public byte[] scheduleList() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(scheduleList);
+  }
+
+  @Benchmark
+  public byte[] userList() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(userList);
+  }
+}
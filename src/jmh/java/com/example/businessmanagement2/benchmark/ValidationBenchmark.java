@@ -0,0 +1,94 @@
+package com.example.businessmanagement2.benchmark;
+
+import com.example.businessmanagement2.restcontroller.advice.BadRequestError;
+import com.example.businessmanagement2.restcontroller.advice.BadRequestErrorCreator;
+import com.example.businessmanagement2.restcontroller.advice.InvalidParam;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleForm;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+/**
+ * ScheduleForm の Bean Validation と、違反を BadRequestError の形に変換する処理。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+  ValidatorFactory validatorFactory;
+
+  Validator validator;
+
+  ScheduleForm validForm;
+
+  ScheduleForm invalidForm;
+
+  Set<ConstraintViolation<ScheduleForm>> violations;
+
+  MethodArgumentNotValidException notValidException;
+
+  /**
+   * MethodArgumentNotValidException に渡す MethodParameter のためだけのメソッド。
+   */
+  public static void updateSchedule(ScheduleForm form) {
+  }
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    var tomorrow = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+    validForm = new ScheduleForm(1, tomorrow, "4階", "トイレ", "墨出し", "3人");
+    invalidForm = new ScheduleForm(1, new Date(0), "4階", "トイレ", "", "1000人");
+    violations = validator.validate(invalidForm);
+
+    var bindingResult = new BeanPropertyBindingResult(invalidForm, "scheduleForm");
+    new SpringValidatorAdapter(validator).validate(invalidForm, bindingResult);
+    var parameter = new MethodParameter(
+        ValidationBenchmark.class.getMethod("updateSchedule", ScheduleForm.class), 0);
+    notValidException = new MethodArgumentNotValidException(parameter, bindingResult);
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<ScheduleForm>> validateValidForm() {
+    return validator.validate(validForm);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<ScheduleForm>> validateInvalidForm() {
+    return validator.validate(invalidForm);
+  }
+
+  @Benchmark
+  public List<InvalidParam> createInvalidParamsFromViolations() {
+    return BadRequestErrorCreator.from(violations);
+  }
+
+  @Benchmark
+  public BadRequestError createBadRequestError() {
+    return BadRequestErrorCreator.from(notValidException);
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.businessmanagement2.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 全操作の遅延を、送るはずだった時刻で WINDOW ごとに分けて持つ。
+ * 起動直後のノードに負荷をかけたとき、p99 が落ち着くまでに何秒かかったかを求めるのに使う。
+ */
+class LatencyTimeline {
+
+  static final Duration WINDOW = Duration.ofSeconds(5);
+
+  /**
+   * 窓の p99 が、後半の p99 のこの倍以内なら落ち着いたとみなす。
+   */
+  static final double STEADY_TOLERANCE = 1.5;
+
+  private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+  private final Histogram[] windows;
+
+  LatencyTimeline(Duration duration) {
+    var count = (int) ((duration.toNanos() + WINDOW.toNanos() - 1) / WINDOW.toNanos());
+    windows = new Histogram[Math.max(1, count)];
+    for (int i = 0; i < windows.length; i++) {
+      windows[i] = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    }
+  }
+
+  void record(long offsetNanos, long latencyNanos) {
+    var index = (int) Math.min(windows.length - 1, Math.max(0, offsetNanos / WINDOW.toNanos()));
+    windows[index].recordValue(
+        Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+  }
+
+  /**
+   * 窓ごとの p99（マイクロ秒）。1件もない窓は 0。
+   */
+  long[] p99ByWindow() {
+    var p99 = new long[windows.length];
+    for (int i = 0; i < windows.length; i++) {
+      p99[i] = windows[i].getValueAtPercentile(99);
+    }
+    return p99;
+  }
+
+  /**
+   * 後半の窓をまとめた p99 を落ち着いた値とする。
+   */
+  long steadyP99() {
+    var merged = new Histogram(3);
+    for (int i = windows.length / 2; i < windows.length; i++) {
+      merged.add(windows[i]);
+    }
+    return merged.getValueAtPercentile(99);
+  }
+
+  /**
+   * その窓から後がすべて steadyP99 の STEADY_TOLERANCE 倍以内に収まる、最初の窓の開始時刻。
+   */
+  Duration timeToSteadyP99() {
+    var threshold = steadyP99() * STEADY_TOLERANCE;
+    var p99 = p99ByWindow();
+    var first = p99.length;
+    while (first > 0 && p99[first - 1] <= threshold) {
+      first--;
+    }
+    return WINDOW.multipliedBy(first);
+  }
+}
@@ -0,0 +1,150 @@
+package com.example.businessmanagement2.loadtest;
+
+import com.example.businessmanagement2.BusinessManagement2Application;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * ./gradlew loadTest から起動する。--target がなければ組み込みの H2 でアプリを起動し、
+ * loadtest/data.sql の 100 ユーザー・10,000 件の作業予定に対して負荷をかける。
+ * ウォームアップの結果は捨て、その後の duration の間の結果だけを報告する。
+ * 起動直後の遅さを測るときは、起動したばかりのノードに --await-ready=PT2M --warmup=PT0S で向ける。
+ */
+public class LoadTest {
+
+  /**
+   * 同じ名前の引数を2回渡すと Spring はカンマでつないで1つの値にするので、上書きはここで済ませてから渡す。
+   */
+  private static final List<String> EMBEDDED_DEFAULTS = List.of(
+      "--spring.datasource.url="
+          + "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+      "--spring.datasource.username=sa",
+      "--spring.datasource.password=",
+      "--spring.sql.init.mode=always",
+      "--spring.sql.init.encoding=UTF-8",
+      "--spring.sql.init.schema-locations=classpath:loadtest/schema.sql",
+      "--spring.sql.init.data-locations=classpath:loadtest/data.sql",
+      "--spring.main.banner-mode=off",
+      "--server.port=0",
+      "--app.search.engine=memory",
+      "--logging.level.root=WARN");
+
+  private static final List<String> STARTUP_METRICS = List.of("application.started.time",
+      "application.ready.time", "application.jvm-ready.time", "application.warm-up.time");
+
+  public static void main(String[] args) throws Exception {
+    var options = LoadTestOptions.parse(args);
+    ConfigurableApplicationContext context = null;
+    var target = options.getTarget();
+    if (target == null) {
+      context = startEmbedded(options.getApplicationArgs());
+      var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      target = URI.create("http://localhost:" + port);
+    }
+    var executor = Executors.newCachedThreadPool();
+    var client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(executor)
+        .build();
+    try {
+      if (!options.getAwaitReady().isZero()) {
+        awaitReady(client, target, options.getAwaitReady());
+      }
+      var driver = new OpenModelDriver(client, new Workload(target, options), options);
+      if (!options.getWarmup().isZero()) {
+        System.out.printf("Warming up %s at %.0f rps for %s%n", target, options.getRps(),
+            options.getWarmup());
+        driver.run(options.getWarmup());
+      }
+      System.out.printf("Measuring %s at %.0f rps for %s%n", target, options.getRps(),
+          options.getDuration());
+      var startedAt = Instant.now();
+      var result = driver.run(options.getDuration());
+      var report = new LoadTestReport(options, target, startedAt, Instant.now(), result,
+          readStartupMetrics(client, target));
+      report.write(options.getOut());
+      report.print(System.out);
+      if (options.getBaseline() != null) {
+        report.compare(options.getBaseline(), System.out);
+      }
+      System.out.printf("Report written to %s%n", options.getOut().toAbsolutePath());
+    } finally {
+      executor.shutdown();
+      if (context != null) {
+        context.close();
+      }
+    }
+  }
+
+  private static void awaitReady(HttpClient client, URI target, Duration timeout)
+      throws InterruptedException {
+    var request = HttpRequest.newBuilder(target.resolve("/actuator/health/readiness"))
+        .timeout(Duration.ofSeconds(2))
+        .build();
+    var deadline = System.nanoTime() + timeout.toNanos();
+    while (deadline - System.nanoTime() > 0) {
+      try {
+        if (client.send(request, BodyHandlers.discarding()).statusCode() == 200) {
+          return;
+        }
+      } catch (IOException e) {
+        // まだ起動していない
+      }
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    throw new IllegalStateException(target + " did not become ready within " + timeout);
+  }
+
+  /**
+   * 起動にかかった時間を /actuator/metrics から読む。TimeGauge の値は秒で返る。
+   */
+  private static Map<String, Double> readStartupMetrics(HttpClient client, URI target)
+      throws InterruptedException {
+    var objectMapper = new ObjectMapper();
+    var metrics = new LinkedHashMap<String, Double>();
+    for (var name : STARTUP_METRICS) {
+      var request = HttpRequest.newBuilder(target.resolve("/actuator/metrics/" + name))
+          .timeout(Duration.ofSeconds(5))
+          .build();
+      try {
+        var response = client.send(request, BodyHandlers.ofByteArray());
+        if (response.statusCode() == 200) {
+          var value = objectMapper.readTree(response.body()).path("measurements").path(0)
+              .path("value");
+          if (value.isNumber()) {
+            metrics.put(name, value.asDouble());
+          }
+        }
+      } catch (IOException e) {
+        // actuator を公開していない対象では起動時間を報告しない
+      }
+    }
+    return metrics;
+  }
+
+  private static ConfigurableApplicationContext startEmbedded(List<String> overrides) {
+    var args = new LinkedHashMap<String, String>();
+    for (var arg : EMBEDDED_DEFAULTS) {
+      args.put(arg.substring(0, arg.indexOf('=')), arg);
+    }
+    for (var arg : overrides) {
+      args.put(arg.substring(0, arg.indexOf('=')), arg);
+    }
+    return new SpringApplicationBuilder(BusinessManagement2Application.class)
+        .run(args.values().toArray(String[]::new));
+  }
+}
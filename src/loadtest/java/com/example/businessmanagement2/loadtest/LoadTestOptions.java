@@ -0,0 +1,127 @@
+package com.example.businessmanagement2.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * --name=value 形式の引数。--spring. / --app. / --server. / --logging. で始まるものは、
+ * 組み込みで起動するアプリにそのまま渡す。
+ */
+@Value
+class LoadTestOptions {
+
+  private static final List<String> APPLICATION_PREFIXES =
+      List.of("spring.", "app.", "server.", "logging.", "management.");
+
+  /**
+   * 読み取りを多めにした、画面から使われる割合に近い組み合わせ。
+   */
+  private static final String DEFAULT_MIX = "show-user=25,list-users=5,show-schedule=25,"
+      + "list-schedules=20,search-schedules=10,create-schedule=10,update-schedule=5";
+
+  /**
+   * 空なら組み込みの H2 でアプリを起動して、そこに負荷をかける。
+   */
+  URI target;
+
+  double rps;
+
+  Duration duration;
+
+  Duration warmup;
+
+  Map<Operation, Integer> mix;
+
+  /**
+   * 読み取りで使う ID の範囲。組み込みで起動したときは loadtest/data.sql の件数と同じ。
+   */
+  int users;
+
+  int schedules;
+
+  /**
+   * 応答待ちがこれを超えたら送らずに skipped として数える。負荷をかける側のメモリを守るため。
+   */
+  int maxInFlight;
+
+  Duration timeout;
+
+  /**
+   * 0 より長ければ、負荷をかける前に対象の /actuator/health/readiness が 200 を返すまで待つ。
+   * 起動したばかりのノードに向けて、準備完了の直後からの p99 を測るときに使う。
+   */
+  Duration awaitReady;
+
+  Path out;
+
+  Path baseline;
+
+  List<String> applicationArgs;
+
+  static LoadTestOptions parse(String[] args) {
+    var values = new LinkedHashMap<String, String>();
+    var applicationArgs = new ArrayList<String>();
+    for (var arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but was " + arg);
+      }
+      var name = arg.substring(2, arg.indexOf('='));
+      var value = arg.substring(arg.indexOf('=') + 1);
+      if (APPLICATION_PREFIXES.stream().anyMatch(name::startsWith)) {
+        applicationArgs.add(arg);
+      } else {
+        values.put(name, value);
+      }
+    }
+    var options = new LoadTestOptions(
+        values.containsKey("target") ? URI.create(values.get("target")) : null,
+        Double.parseDouble(values.getOrDefault("rps", "100")),
+        Duration.parse(values.getOrDefault("duration", "PT60S")),
+        Duration.parse(values.getOrDefault("warmup", "PT15S")),
+        parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+        Integer.parseInt(values.getOrDefault("users", "100")),
+        Integer.parseInt(values.getOrDefault("schedules", "10000")),
+        Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+        Duration.parse(values.getOrDefault("timeout", "PT10S")),
+        Duration.parse(values.getOrDefault("await-ready", "PT0S")),
+        Path.of(values.getOrDefault("out", "build/results/loadtest")),
+        values.containsKey("baseline") ? Path.of(values.get("baseline")) : null,
+        List.copyOf(applicationArgs));
+    values.keySet().removeAll(List.of("target", "rps", "duration", "warmup", "mix", "users",
+        "schedules", "max-in-flight", "timeout", "await-ready", "out", "baseline"));
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options " + values.keySet());
+    }
+    if (options.rps <= 0) {
+      throw new IllegalArgumentException("rps must be positive.");
+    }
+    return options;
+  }
+
+  /**
+   * show-user=25,list-users=5 のような操作名と重みの並び。
+   */
+  static Map<Operation, Integer> parseMix(String mix) {
+    var weights = new LinkedHashMap<Operation, Integer>();
+    for (var entry : mix.split(",")) {
+      var pair = entry.trim().split("=");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Expected operation=weight but was " + entry);
+      }
+      var weight = Integer.parseInt(pair[1].trim());
+      if (weight > 0) {
+        weights.put(Operation.fromLabel(pair[0].trim()), weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("mix must contain at least one operation.");
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,177 @@
+package com.example.businessmanagement2.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * report.json には操作ごとの件数と分位点（ミリ秒）を、latency.hlog には補正した遅延のヒストグラムをそのまま書く。
+ * report.json はビルド間の比較（--baseline）に、latency.hlog は HdrHistogram の HistogramLogProcessor などで
+ * 分布を描くのに使う。
+ */
+class LoadTestReport {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final LoadTestOptions options;
+
+  private final URI target;
+
+  private final Instant startedAt;
+
+  private final Instant endedAt;
+
+  private final Map<Operation, OperationStats> stats;
+
+  private final LatencyTimeline timeline;
+
+  /**
+   * 対象のアプリの /actuator/metrics から読んだ起動時間（秒）。読めなかったものは入っていない。
+   */
+  private final Map<String, Double> startup;
+
+  LoadTestReport(LoadTestOptions options, URI target, Instant startedAt, Instant endedAt,
+      OpenModelDriver.Result result, Map<String, Double> startup) {
+    this.options = options;
+    this.target = target;
+    this.startedAt = startedAt;
+    this.endedAt = endedAt;
+    this.stats = result.stats();
+    this.timeline = result.timeline();
+    this.startup = startup;
+  }
+
+  void write(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    objectMapper.writerWithDefaultPrettyPrinter()
+        .writeValue(directory.resolve("report.json").toFile(), toJson());
+    try (var out = new PrintStream(directory.resolve("latency.hlog").toFile())) {
+      var writer = new HistogramLogWriter(out);
+      writer.outputLogFormatVersion();
+      writer.outputStartTime(startedAt.toEpochMilli());
+      writer.setBaseTime(startedAt.toEpochMilli());
+      writer.outputLegend();
+      stats.forEach((operation, operationStats) -> {
+        var histogram = operationStats.latency().copy();
+        histogram.setTag(operation.label());
+        histogram.setStartTimeStamp(startedAt.toEpochMilli());
+        histogram.setEndTimeStamp(endedAt.toEpochMilli());
+        writer.outputIntervalHistogram(histogram);
+      });
+    }
+  }
+
+  ObjectNode toJson() {
+    var root = objectMapper.createObjectNode();
+    root.put("startedAt", startedAt.toString());
+    root.put("target", target.toString());
+    root.put("rps", options.getRps());
+    root.put("durationSeconds", options.getDuration().toSeconds());
+    var operations = root.putObject("operations");
+    var total = new Histogram(3);
+    stats.forEach((operation, operationStats) -> {
+      var node = operations.putObject(operation.label());
+      node.put("count", operationStats.count());
+      node.put("errors", operationStats.errors());
+      node.put("rejected", operationStats.rejected());
+      node.put("failed", operationStats.failed());
+      node.put("skipped", operationStats.skipped());
+      node.set("latencyMillis", percentiles(operationStats.latency()));
+      node.set("serviceTimeMillis", percentiles(operationStats.serviceTime()));
+      total.add(operationStats.latency());
+    });
+    var seconds = Math.max(1, endedAt.toEpochMilli() - startedAt.toEpochMilli()) / 1000.0;
+    root.put("achievedRps", round(total.getTotalCount() / seconds));
+    root.set("latencyMillis", percentiles(total));
+    root.put("steadyP99Millis", round(millis(timeline.steadyP99())));
+    root.put("timeToSteadyP99Seconds", timeline.timeToSteadyP99().toSeconds());
+    root.put("windowSeconds", LatencyTimeline.WINDOW.toSeconds());
+    var series = root.putArray("p99MillisByWindow");
+    for (var p99 : timeline.p99ByWindow()) {
+      series.add(round(millis(p99)));
+    }
+    var startupNode = root.putObject("startupSeconds");
+    startup.forEach((name, value) -> startupNode.put(name, round(value)));
+    return root;
+  }
+
+  void print(PrintStream out) {
+    out.printf("%-18s %8s %6s %6s %6s %6s %9s %9s %9s %9s %9s%n", "operation", "count", "err",
+        "503", "fail", "skip", "p50", "p90", "p99", "p99.9", "max");
+    stats.forEach((operation, operationStats) -> {
+      var latency = operationStats.latency();
+      out.printf("%-18s %8d %6d %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation.label(),
+          operationStats.count(), operationStats.errors(), operationStats.rejected(),
+          operationStats.failed(), operationStats.skipped(),
+          millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+          millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+          millis(latency.getMaxValue()));
+    });
+    out.printf("%np99 settled at %.2f ms after %d s%n", millis(timeline.steadyP99()),
+        timeline.timeToSteadyP99().toSeconds());
+    startup.forEach((name, seconds) -> out.printf("%s: %.3f s%n", name, seconds));
+  }
+
+  /**
+   * 前回の report.json と p50 / p99 を操作ごとに比べる。
+   */
+  void compare(Path baseline, PrintStream out) throws IOException {
+    var baselineJson = objectMapper.readTree(baseline.toFile());
+    var previous = baselineJson.path("operations");
+    var current = toJson().path("operations");
+    out.printf("%nCompared with %s%n", baseline);
+    out.printf("%-18s %21s %21s%n", "operation", "p50 (ms)", "p99 (ms)");
+    current.fieldNames().forEachRemaining(name -> {
+      var before = previous.path(name).path("latencyMillis");
+      if (before.isMissingNode()) {
+        return;
+      }
+      var after = current.path(name).path("latencyMillis");
+      out.printf("%-18s %21s %21s%n", name, change(before, after, "p50"),
+          change(before, after, "p99"));
+    });
+    var previousSteady = baselineJson.path("timeToSteadyP99Seconds");
+    if (!previousSteady.isMissingNode()) {
+      out.printf("time to steady p99: %d s -> %d s%n", previousSteady.asLong(),
+          timeline.timeToSteadyP99().toSeconds());
+    }
+  }
+
+  private static String change(JsonNode before, JsonNode after, String field) {
+    var a = before.path(field).asDouble();
+    var b = after.path(field).asDouble();
+    var ratio = a == 0 ? 0 : (b - a) / a * 100;
+    return String.format("%.2f -> %.2f (%+.0f%%)", a, b, ratio);
+  }
+
+  private ObjectNode percentiles(Histogram histogram) {
+    var node = objectMapper.createObjectNode();
+    for (var percentile : PERCENTILES) {
+      var name = "p" + (percentile == Math.rint(percentile)
+          ? String.valueOf((int) percentile) : String.valueOf(percentile));
+      node.put(name, round(millis(histogram.getValueAtPercentile(percentile))));
+    }
+    node.put("max", round(millis(histogram.getMaxValue())));
+    node.put("mean", round(histogram.getMean() / 1000));
+    return node;
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 1000) / 1000.0;
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.businessmanagement2.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 開いたモデルの負荷。応答を待たずに、決まった間隔（1 / rps 秒）でリクエストを送り続ける。
+ * 応答が遅れても送る間隔は変わらないので、閉じたモデル（前の応答を待ってから次を送る）のように
+ * サーバーが詰まったときに送る数まで減って、遅延が小さく見えることがない。
+ */
+class OpenModelDriver {
+
+  private final HttpClient client;
+
+  private final Workload workload;
+
+  private final LoadTestOptions options;
+
+  private final Operation[] operations;
+
+  private final int[] cumulativeWeights;
+
+  private final SplittableRandom random = new SplittableRandom(42L);
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  OpenModelDriver(HttpClient client, Workload workload, LoadTestOptions options) {
+    this.client = client;
+    this.workload = workload;
+    this.options = options;
+    var mix = options.getMix();
+    this.operations = mix.keySet().toArray(Operation[]::new);
+    this.cumulativeWeights = new int[operations.length];
+    var total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += mix.get(operations[i]);
+      cumulativeWeights[i] = total;
+    }
+  }
+
+  /**
+   * duration の間送り続け、送ったものの応答がそろうか timeout が過ぎるまで待って結果を返す。
+   */
+  Result run(Duration duration) throws InterruptedException {
+    var stats = new EnumMap<Operation, OperationStats>(Operation.class);
+    for (var operation : operations) {
+      stats.put(operation, new OperationStats());
+    }
+    var timeline = new LatencyTimeline(duration);
+    var intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRps();
+    var start = System.nanoTime();
+    var end = start + duration.toNanos();
+    for (long i = 0; ; i++) {
+      var intended = start + (long) (i * intervalNanos);
+      if (intended - end >= 0) {
+        break;
+      }
+      waitUntil(intended);
+      var operation = nextOperation();
+      var operationStats = stats.get(operation);
+      // 送らずに済ませると遅延の記録から抜け落ちるので、数だけは残して報告に出す
+      if (inFlight.get() >= options.getMaxInFlight()) {
+        operationStats.recordSkipped();
+        continue;
+      }
+      var request = operation.request(workload).build();
+      inFlight.incrementAndGet();
+      var sent = System.nanoTime();
+      client.sendAsync(request, BodyHandlers.discarding())
+          .whenComplete((response, error) -> {
+            var now = System.nanoTime();
+            operationStats.record(now - intended, now - sent,
+                response == null ? 0 : response.statusCode());
+            timeline.record(intended - start, now - intended);
+            inFlight.decrementAndGet();
+          });
+    }
+    awaitInFlight();
+    return new Result(stats, timeline);
+  }
+
+  private Operation nextOperation() {
+    var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private static void waitUntil(long deadline) throws InterruptedException {
+    while (true) {
+      var remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return;
+      }
+      LockSupport.parkNanos(remaining);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  private void awaitInFlight() throws InterruptedException {
+    var deadline = System.nanoTime() + options.getTimeout().plusSeconds(5).toNanos();
+    while (inFlight.get() > 0 && deadline - System.nanoTime() > 0) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  record Result(Map<Operation, OperationStats> stats, LatencyTimeline timeline) {
+
+  }
+}
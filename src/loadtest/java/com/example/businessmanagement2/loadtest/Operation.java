@@ -0,0 +1,90 @@
+package com.example.businessmanagement2.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+
+/**
+ * 負荷に混ぜる操作。docs/api-schema.yml のエンドポイントのうち、画面から普段使われるもの。
+ */
+enum Operation {
+
+  SHOW_USER("show-user") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      return workload.get("/users/" + workload.randomUserId());
+    }
+  },
+
+  LIST_USERS("list-users") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      return workload.get("/users");
+    }
+  },
+
+  SHOW_SCHEDULE("show-schedule") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      return workload.get("/schedules/" + workload.randomScheduleId());
+    }
+  },
+
+  /**
+   * 1人分の1週間の予定。画面の週表示と同じ絞り込み。
+   */
+  LIST_SCHEDULES("list-schedules") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      var from = workload.randomSeededDate();
+      return workload.get("/schedules?userId=" + workload.randomUserId()
+          + "&from=" + from + "&to=" + from.plusDays(6));
+    }
+  },
+
+  SEARCH_SCHEDULES("search-schedules") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      return workload.get("/schedules/search?limit=20&q=" + workload.randomKeyword());
+    }
+  },
+
+  CREATE_SCHEDULE("create-schedule") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      return workload.json("/schedules")
+          .POST(BodyPublishers.ofString(workload.newScheduleJson()));
+    }
+  },
+
+  /**
+   * 既存の予定を、ほかと重ならない場所と日付に移す。If-Match は付けない。
+   */
+  UPDATE_SCHEDULE("update-schedule") {
+    @Override
+    HttpRequest.Builder request(Workload workload) {
+      return workload.json("/schedules/" + workload.randomScheduleId())
+          .method("PATCH", BodyPublishers.ofString(workload.newScheduleJson()));
+    }
+  };
+
+  private final String label;
+
+  Operation(String label) {
+    this.label = label;
+  }
+
+  String label() {
+    return label;
+  }
+
+  abstract HttpRequest.Builder request(Workload workload);
+
+  static Operation fromLabel(String label) {
+    for (var operation : values()) {
+      if (operation.label.equals(label)) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation " + label);
+  }
+}
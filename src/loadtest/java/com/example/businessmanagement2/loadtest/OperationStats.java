@@ -0,0 +1,85 @@
+package com.example.businessmanagement2.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 1つの操作の結果。値はマイクロ秒で持つ。
+ * latency は送るはずだった時刻から応答を受け取り終えるまでで、送るのが遅れた分も含む（coordinated omission の補正）。
+ * serviceTime は実際に送ってからの時間で、サーバーが詰まって待たせた分は含まない。両方を比べると待ちの大きさが分かる。
+ */
+class OperationStats {
+
+  private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+  private final Histogram latency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+  private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+  private final LongAdder errors = new LongAdder();
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder skipped = new LongAdder();
+
+  /**
+   * statusCode が 0 のときは応答が返らなかった（タイムアウトや接続の失敗）。
+   */
+  void record(long latencyNanos, long serviceTimeNanos, int statusCode) {
+    latency.recordValue(toMicros(latencyNanos));
+    serviceTime.recordValue(toMicros(serviceTimeNanos));
+    if (statusCode == 0) {
+      failed.increment();
+    } else if (statusCode == 503) {
+      rejected.increment();
+    } else if (statusCode >= 400) {
+      errors.increment();
+    }
+  }
+
+  void recordSkipped() {
+    skipped.increment();
+  }
+
+  Histogram latency() {
+    return latency;
+  }
+
+  Histogram serviceTime() {
+    return serviceTime;
+  }
+
+  long count() {
+    return latency.getTotalCount();
+  }
+
+  /**
+   * 4xx と 503 以外の 5xx。
+   */
+  long errors() {
+    return errors.sum();
+  }
+
+  /**
+   * 503。混んでいるときに同時実行数の上限や bulkhead で断られた分。
+   */
+  long rejected() {
+    return rejected.sum();
+  }
+
+  long failed() {
+    return failed.sum();
+  }
+
+  long skipped() {
+    return skipped.sum();
+  }
+
+  private static long toMicros(long nanos) {
+    return Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+  }
+}
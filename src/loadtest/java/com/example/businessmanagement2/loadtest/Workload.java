@@ -0,0 +1,114 @@
+package com.example.businessmanagement2.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 各操作のリクエストの中身を作る。送る順番を決めるスレッドからだけ使うので、乱数も連番も共有しない。
+ * 乱数の種を固定しているので、同じ引数なら毎回同じ順番で同じリクエストを送る。
+ */
+class Workload {
+
+  /**
+   * loadtest/data.sql が作業予定を入れている日付の範囲。
+   */
+  static final LocalDate FIRST_SEEDED_DAY = LocalDate.of(2022, 1, 1);
+
+  static final int SEEDED_DAYS = 200;
+
+  private static final List<String> KEYWORDS = List.of("トイレ", "和室", "墨出し", "配線", "配管");
+
+  /**
+   * ScheduleForm はコンストラクタで組み立てるので @JsonFormat の yyyy/MM/dd は効かず、ISO 形式しか受け付けない。
+   */
+  private static final DateTimeFormatter WORKING_DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+  private final URI target;
+
+  private final int users;
+
+  private final int schedules;
+
+  private final Duration timeout;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final SplittableRandom random = new SplittableRandom(20221206L);
+
+  /**
+   * 作る予定の place に付けて、前回の実行やほかのノードと重ならないようにする。
+   */
+  private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+  private long sequence;
+
+  Workload(URI target, LoadTestOptions options) {
+    this.target = target;
+    this.users = options.getUsers();
+    this.schedules = options.getSchedules();
+    this.timeout = options.getTimeout();
+  }
+
+  HttpRequest.Builder get(String pathAndQuery) {
+    return HttpRequest.newBuilder(target.resolve(pathAndQuery))
+        .timeout(timeout)
+        .header("Accept", "application/json")
+        .header("Accept-Encoding", "gzip")
+        .GET();
+  }
+
+  HttpRequest.Builder json(String path) {
+    return HttpRequest.newBuilder(target.resolve(path))
+        .timeout(timeout)
+        .header("Accept", "application/json")
+        .header("Content-Type", "application/json");
+  }
+
+  int randomUserId() {
+    return random.nextInt(users) + 1;
+  }
+
+  int randomScheduleId() {
+    return random.nextInt(schedules) + 1;
+  }
+
+  LocalDate randomSeededDate() {
+    return FIRST_SEEDED_DAY.plusDays(random.nextInt(SEEDED_DAYS));
+  }
+
+  String randomKeyword() {
+    return URLEncoder.encode(KEYWORDS.get(random.nextInt(KEYWORDS.size())),
+        StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 場所・階・日付の組み合わせが既存の予定と重なると 409 になるので、場所を実行ごとの連番にする。
+   * 日付は @FutureOrPresent を満たすよう明日以降にする。
+   */
+  String newScheduleJson() {
+    var n = ++sequence;
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("userid", randomUserId());
+    body.put("workingdate", LocalDate.now().plusDays(1 + n % 365).format(WORKING_DATE));
+    body.put("numberoffloors", (n % 10 + 1) + "階");
+    body.put("place", "負荷試験" + runId + "-" + n);
+    body.put("workcontent", "墨出し");
+    body.put("numberofpeople", "3人");
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
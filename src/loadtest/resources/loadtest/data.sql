@@ -0,0 +1,27 @@
+-- 負荷試験のデータ。ユーザー 100 人と、2022-01-01 から 200 日分に1日 50 件ずつの作業予定 10,000 件。
+-- 1日の中では階（X % 10）と場所（X / 10 % 5）の組み合わせが重ならない
+-- DATABASE_TO_LOWER=TRUE では SYSTEM_RANGE の列 X を小文字の x で参照できないので、r(x) と名前を付け直す
+INSERT INTO users (user_id, company_name, user_name)
+SELECT X, CONCAT('○○○会社', X), CONCAT('瀬川', X) FROM SYSTEM_RANGE(1, 100) AS r(x);
+
+INSERT INTO schedules
+  (schedule_id, user_id, working_date, number_of_floors, place, work_content, number_of_people)
+SELECT X,
+  MOD(X, 100) + 1,
+  DATEADD(DAY, X / 50, DATE '2022-01-01'),
+  CONCAT(MOD(X, 10) + 1, '階'),
+  CASE MOD(X / 10, 5) WHEN 0 THEN 'トイレ' WHEN 1 THEN '和室' WHEN 2 THEN '洋室'
+    WHEN 3 THEN 'キッチン' ELSE '廊下' END,
+  CASE MOD(X, 3) WHEN 0 THEN '墨出し' WHEN 1 THEN '配線' ELSE '配管' END,
+  '3人'
+FROM SYSTEM_RANGE(1, 10000) AS r(x);
+
+ALTER TABLE users ALTER COLUMN user_id RESTART WITH 101;
+ALTER TABLE schedules ALTER COLUMN schedule_id RESTART WITH 10001;
+
+INSERT INTO daily_manpower (working_date, user_id, number_of_floors, total_people, schedule_count)
+SELECT working_date, user_id, number_of_floors, 3 * COUNT(*), COUNT(*)
+FROM schedules
+GROUP BY working_date, user_id, number_of_floors;
+
+INSERT INTO cache_versions (cache_name, version) VALUES ('users', 0), ('schedules', 0);
@@ -0,0 +1,56 @@
+-- mysql/sql/user_list.sql と同じテーブルを H2 (MODE=MySQL) 向けに書いたもの。
+-- FULLTEXT インデックスは作れないので、検索は app.search.engine=memory で動かす
+DROP TABLE IF EXISTS schedules;
+DROP TABLE IF EXISTS daily_manpower;
+DROP TABLE IF EXISTS cache_versions;
+DROP TABLE IF EXISTS replica_heartbeat;
+DROP TABLE IF EXISTS users;
+
+CREATE TABLE users (
+  user_id INT NOT NULL AUTO_INCREMENT,
+  company_name VARCHAR(256) NOT NULL,
+  user_name VARCHAR(256) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY(user_id)
+);
+
+CREATE TABLE schedules (
+  schedule_id INT NOT NULL AUTO_INCREMENT,
+  user_id INT NOT NULL,
+  working_date DATE NOT NULL,
+  number_of_floors VARCHAR(256) NOT NULL,
+  place VARCHAR(256) NOT NULL,
+  work_content VARCHAR(256) NOT NULL,
+  number_of_people VARCHAR(256) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY(schedule_id),
+  FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_schedules_working_date ON schedules (working_date);
+CREATE INDEX idx_schedules_user_id_working_date ON schedules (user_id, working_date);
+CREATE UNIQUE INDEX uk_schedules_place_floors_working_date ON schedules (place, number_of_floors, working_date);
+
+CREATE TABLE daily_manpower (
+  working_date DATE NOT NULL,
+  user_id INT NOT NULL,
+  number_of_floors VARCHAR(256) NOT NULL,
+  total_people INT NOT NULL,
+  schedule_count INT NOT NULL,
+  PRIMARY KEY(working_date, number_of_floors, user_id),
+  FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_daily_manpower_user_id_working_date ON daily_manpower (user_id, working_date);
+
+CREATE TABLE cache_versions (
+  cache_name VARCHAR(64) NOT NULL,
+  version BIGINT NOT NULL,
+  PRIMARY KEY(cache_name)
+);
+
+CREATE TABLE replica_heartbeat (
+  node_id VARCHAR(255) NOT NULL,
+  beat BIGINT NOT NULL,
+  PRIMARY KEY(node_id)
+);
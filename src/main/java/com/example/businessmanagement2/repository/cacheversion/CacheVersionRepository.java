@@ -0,0 +1,17 @@
+package com.example.businessmanagement2.repository.cacheversion;
+
+import java.util.Optional;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface CacheVersionRepository {
+
+  @Select("SELECT version FROM cache_versions WHERE cache_name = #{cacheName}")
+  Optional<Long> findVersion(String cacheName);
+
+  @Update("UPDATE cache_versions SET version = version + 1 WHERE cache_name = #{cacheName}")
+  void increment(String cacheName);
+
+}
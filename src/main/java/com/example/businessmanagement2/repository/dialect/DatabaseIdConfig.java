@@ -0,0 +1,24 @@
+package com.example.businessmanagement2.repository.dialect;
+
+import java.util.Properties;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MySQL 専用の構文を H2 で書き換えた文を databaseId="h2" で用意しておくと、H2 で動かしたときはそちらが使われる。
+ * MySQL では databaseId が付かないので、databaseId のない文がそのまま使われる。
+ */
+@Configuration(proxyBeanMethods = false)
+public class DatabaseIdConfig {
+
+  @Bean
+  public DatabaseIdProvider databaseIdProvider() {
+    var vendors = new Properties();
+    vendors.setProperty("H2", "h2");
+    var provider = new VendorDatabaseIdProvider();
+    provider.setProperties(vendors);
+    return provider;
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.businessmanagement2.repository.dialect;
+
+import java.sql.SQLException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Spring は外部キー違反も NOT NULL 違反も DataIntegrityViolationException にするので、
+ * ドライバのエラーコードで見分ける。MySQL はどちらも SQLSTATE 23000 なのでエラーコードを、
+ * H2 は SQLSTATE を見る。
+ */
+public final class IntegrityViolations {
+
+  /**
+   * MySQL の ER_NO_REFERENCED_ROW_2 / ER_NO_REFERENCED_ROW。
+   */
+  private static final int MYSQL_NO_REFERENCED_ROW_2 = 1452;
+
+  private static final int MYSQL_NO_REFERENCED_ROW = 1216;
+
+  /**
+   * H2 の REFERENTIAL_INTEGRITY_VIOLATED_PARENT_MISSING_1。
+   */
+  private static final String H2_PARENT_MISSING = "23506";
+
+  private IntegrityViolations() {
+  }
+
+  /**
+   * 参照先の行（schedules.user_id なら users）がない。
+   */
+  public static boolean isMissingParent(DataIntegrityViolationException e) {
+    var sqlException = findSqlException(e);
+    if (sqlException == null) {
+      return false;
+    }
+    return sqlException.getErrorCode() == MYSQL_NO_REFERENCED_ROW_2
+        || sqlException.getErrorCode() == MYSQL_NO_REFERENCED_ROW
+        || H2_PARENT_MISSING.equals(sqlException.getSQLState());
+  }
+
+  /**
+   * ドライバのメッセージ。表や制約の名前を含むので、ログにだけ書いてクライアントには返さない。
+   */
+  public static String driverMessage(DataIntegrityViolationException e) {
+    return e.getMostSpecificCause().getMessage();
+  }
+
+  private static SQLException findSqlException(Throwable e) {
+    for (var cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException) {
+        return sqlException;
+      }
+    }
+    return null;
+  }
+}
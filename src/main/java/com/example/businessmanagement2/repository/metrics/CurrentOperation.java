@@ -0,0 +1,28 @@
+package com.example.businessmanagement2.repository.metrics;
+
+/**
+ * 処理中のリクエストの操作名（"UserController.showUser" など）をスレッドに保持する。
+ * SQL のメトリクスに同じ operation タグを付け、操作ごとに DB 時間とリクエスト時間を比べられるようにする。
+ */
+public final class CurrentOperation {
+
+  public static final String NONE = "none";
+
+  private static final ThreadLocal<String> OPERATION = new ThreadLocal<>();
+
+  private CurrentOperation() {
+  }
+
+  public static void set(String operation) {
+    OPERATION.set(operation);
+  }
+
+  public static String get() {
+    var operation = OPERATION.get();
+    return operation != null ? operation : NONE;
+  }
+
+  public static void clear() {
+    OPERATION.remove();
+  }
+}
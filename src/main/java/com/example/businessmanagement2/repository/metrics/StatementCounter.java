@@ -0,0 +1,52 @@
+package com.example.businessmanagement2.repository.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 1リクエストの間に実行された文を数える。start していないスレッドでは何もしない。
+ * 非同期で処理を続けるときは current で取り出した集計を別スレッドに attach する。
+ */
+public final class StatementCounter {
+
+  private static final ThreadLocal<Map<String, Integer>> COUNTS = new ThreadLocal<>();
+
+  private StatementCounter() {
+  }
+
+  public static Map<String, Integer> start() {
+    var counts = new ConcurrentHashMap<String, Integer>();
+    COUNTS.set(counts);
+    return counts;
+  }
+
+  public static Map<String, Integer> current() {
+    return COUNTS.get();
+  }
+
+  public static void attach(Map<String, Integer> counts) {
+    if (counts != null) {
+      COUNTS.set(counts);
+    }
+  }
+
+  public static void detach() {
+    COUNTS.remove();
+  }
+
+  public static void increment(String statement) {
+    var counts = COUNTS.get();
+    if (counts != null) {
+      counts.merge(statement, 1, Integer::sum);
+    }
+  }
+
+  /**
+   * 数え終えて、文ごとの実行回数を返す。
+   */
+  public static Map<String, Integer> stop() {
+    var counts = COUNTS.get();
+    COUNTS.remove();
+    return counts != null ? counts : Map.of();
+  }
+}
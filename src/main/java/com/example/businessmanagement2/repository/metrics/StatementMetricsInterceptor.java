@@ -0,0 +1,134 @@
+package com.example.businessmanagement2.repository.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+/**
+ * マッパーの文ごとに実行時間と件数を記録する。
+ * statement タグは "UserRepository.findById" のようにマッパー名とメソッド名にする。
+ * operation タグには呼び出し元のリクエストの操作名（{@link CurrentOperation}）を付ける。
+ * <ul>
+ *   <li>mybatis.statement: 実行時間（p50/p95/p99 とヒストグラム）。outcome は success / error</li>
+ *   <li>mybatis.statement.rows: SELECT は取得件数、更新系は更新件数</li>
+ * </ul>
+ * Cursor は開くまでの時間だけで、件数は記録しない。BATCH 実行の update は件数が分からないので件数を記録しない。
+ */
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+            CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor",
+        args = {MappedStatement.class, Object.class, RowBounds.class}),
+    @Signature(type = Executor.class, method = "update",
+        args = {MappedStatement.class, Object.class})
+})
+public class StatementMetricsInterceptor implements Interceptor {
+
+  public static final String TIMER_NAME = "mybatis.statement";
+
+  public static final String ROWS_NAME = "mybatis.statement.rows";
+
+  private final MeterRegistry meterRegistry;
+
+  private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+  public StatementMetricsInterceptor(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * "com.example....repository.user.UserRepository.findById" を "UserRepository.findById" にする。
+   */
+  public static String statementName(String mappedStatementId) {
+    var method = mappedStatementId.lastIndexOf('.');
+    if (method < 0) {
+      return mappedStatementId;
+    }
+    var type = mappedStatementId.lastIndexOf('.', method - 1);
+    return mappedStatementId.substring(type + 1);
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    var mappedStatement = (MappedStatement) invocation.getArgs()[0];
+    var operation = CurrentOperation.get();
+    var statementMeters = meters.computeIfAbsent(mappedStatement.getId() + ' ' + operation,
+        key -> new StatementMeters(statementName(mappedStatement.getId()),
+            mappedStatement.getSqlCommandType().name(), operation));
+    var start = System.nanoTime();
+    try {
+      var result = invocation.proceed();
+      statementMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      var rows = rowCount(result);
+      if (rows >= 0) {
+        statementMeters.rows.record(rows);
+      }
+      return result;
+    } catch (Throwable e) {
+      statementMeters.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+  }
+
+  private static long rowCount(Object result) {
+    if (result instanceof List<?> list) {
+      return list.size();
+    }
+    if (result instanceof Integer count) {
+      return count;
+    }
+    return -1;
+  }
+
+  private final class StatementMeters {
+
+    private final Timer success;
+
+    private final Timer error;
+
+    private final DistributionSummary rows;
+
+    private StatementMeters(String statement, String command, String operation) {
+      this.success = timer(statement, command, operation, "success");
+      this.error = timer(statement, command, operation, "error");
+      this.rows = DistributionSummary.builder(ROWS_NAME)
+          .description("Rows returned or affected per mapped statement")
+          .tag("statement", statement)
+          .tag("command", command)
+          .tag("operation", operation)
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .register(meterRegistry);
+    }
+
+    private Timer timer(String statement, String command, String operation, String outcome) {
+      return Timer.builder(TIMER_NAME)
+          .description("Execution time of a MyBatis mapped statement")
+          .tag("statement", statement)
+          .tag("command", command)
+          .tag("operation", operation)
+          .tag("outcome", outcome)
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .publishPercentileHistogram()
+          .register(meterRegistry);
+    }
+  }
+}
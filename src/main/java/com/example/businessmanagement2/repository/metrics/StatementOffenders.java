@@ -0,0 +1,89 @@
+package com.example.businessmanagement2.repository.metrics;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * N+1 の疑いがあったリクエストと遅い文を集計し、ワーストを返す。
+ */
+@Component
+public class StatementOffenders {
+
+  private final StatementProfileProperties properties;
+
+  private final Map<String, Repeated> repeated = new ConcurrentHashMap<>();
+
+  private final Map<String, Slow> slow = new ConcurrentHashMap<>();
+
+  public StatementOffenders(StatementProfileProperties properties) {
+    this.properties = properties;
+  }
+
+  @Value
+  public static class Repeated {
+
+    String request;
+
+    String statement;
+
+    int maxExecutions;
+
+    long occurrences;
+
+    Instant lastSeen;
+
+  }
+
+  @Value
+  public static class Slow {
+
+    String statement;
+
+    long maxMillis;
+
+    long occurrences;
+
+    Instant lastSeen;
+
+  }
+
+  public void recordRepeated(String request, String statement, int executions) {
+    repeated.merge(request + ' ' + statement,
+        new Repeated(request, statement, executions, 1, Instant.now()),
+        (current, added) -> new Repeated(request, statement,
+            Math.max(current.getMaxExecutions(), added.getMaxExecutions()),
+            current.getOccurrences() + 1, added.getLastSeen()));
+  }
+
+  public void recordSlow(String statement, long elapsedMillis) {
+    slow.merge(statement, new Slow(statement, elapsedMillis, 1, Instant.now()),
+        (current, added) -> new Slow(statement,
+            Math.max(current.getMaxMillis(), added.getMaxMillis()),
+            current.getOccurrences() + 1, added.getLastSeen()));
+  }
+
+  public List<Repeated> worstRepeated() {
+    return repeated.values().stream()
+        .sorted(Comparator.comparingInt(Repeated::getMaxExecutions).reversed())
+        .limit(properties.getMaxOffenders())
+        .collect(Collectors.toList());
+  }
+
+  public List<Slow> worstSlow() {
+    return slow.values().stream()
+        .sorted(Comparator.comparingLong(Slow::getMaxMillis).reversed())
+        .limit(properties.getMaxOffenders())
+        .collect(Collectors.toList());
+  }
+
+  public void clear() {
+    repeated.clear();
+    slow.clear();
+  }
+}
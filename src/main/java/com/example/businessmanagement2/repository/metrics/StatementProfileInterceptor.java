@@ -0,0 +1,100 @@
+package com.example.businessmanagement2.repository.metrics;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+/**
+ * 遅い文のログと、リクエストごとの実行回数の記録を行う。
+ * 回数の判定は StatementProfileFilter がリクエストの終わりに行う。
+ * BATCH 実行の update は1件ずつ DB に送られないので回数に含めない。
+ */
+@Slf4j
+@Component
+@Intercepts({
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+            CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor",
+        args = {MappedStatement.class, Object.class, RowBounds.class}),
+    @Signature(type = Executor.class, method = "update",
+        args = {MappedStatement.class, Object.class})
+})
+public class StatementProfileInterceptor implements Interceptor {
+
+  private final StatementProfileProperties properties;
+
+  private final StatementOffenders statementOffenders;
+
+  public StatementProfileInterceptor(StatementProfileProperties properties,
+      StatementOffenders statementOffenders) {
+    this.properties = properties;
+    this.statementOffenders = statementOffenders;
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    var mappedStatement = (MappedStatement) invocation.getArgs()[0];
+    var parameter = invocation.getArgs()[1];
+    var start = System.nanoTime();
+    var result = invocation.proceed();
+    var elapsedNanos = System.nanoTime() - start;
+
+    var statement = StatementMetricsInterceptor.statementName(mappedStatement.getId());
+    if (!Integer.valueOf(BatchExecutor.BATCH_UPDATE_RETURN_VALUE).equals(result)) {
+      StatementCounter.increment(statement);
+    }
+    if (elapsedNanos > properties.getSlowThreshold().toNanos()) {
+      var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+      statementOffenders.recordSlow(statement, elapsedMillis);
+      if (log.isWarnEnabled()) {
+        var boundSql = invocation.getArgs().length == 6
+            ? (BoundSql) invocation.getArgs()[5]
+            : mappedStatement.getBoundSql(parameter);
+        log.warn("slow statement {} took {} ms, parameters = {}", statement, elapsedMillis,
+            boundParameters(mappedStatement, boundSql, parameter));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * DefaultParameterHandler と同じ順番で、プレースホルダーに渡る値を取り出す。
+   */
+  private static Object boundParameters(MappedStatement mappedStatement, BoundSql boundSql,
+      Object parameter) {
+    var configuration = mappedStatement.getConfiguration();
+    var values = new ArrayList<>();
+    for (var mapping : boundSql.getParameterMappings()) {
+      if (mapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      var property = mapping.getProperty();
+      if (boundSql.hasAdditionalParameter(property)) {
+        values.add(boundSql.getAdditionalParameter(property));
+      } else if (parameter == null) {
+        values.add(null);
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+        values.add(parameter);
+      } else {
+        values.add(configuration.newMetaObject(parameter).getValue(property));
+      }
+    }
+    return values;
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.businessmanagement2.repository.metrics;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sql.profile")
+public class StatementProfileProperties {
+
+  /**
+   * これより時間のかかった文をパラメーター付きでログに出す。
+   */
+  private Duration slowThreshold = Duration.ofMillis(200);
+
+  /**
+   * 1リクエストで同じ文がこの回数を超えて実行されたら N+1 の疑いとして記録する。
+   */
+  private int repeatThreshold = 10;
+
+  /**
+   * true なら N+1 の疑いがあるリクエストを例外にする。結合テストで使う。
+   */
+  private boolean failOnRepeat = false;
+
+  /**
+   * エンドポイントで返すワーストの件数。
+   */
+  private int maxOffenders = 20;
+
+}
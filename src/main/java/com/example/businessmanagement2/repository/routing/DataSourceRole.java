@@ -0,0 +1,9 @@
+package com.example.businessmanagement2.repository.routing;
+
+public enum DataSourceRole {
+
+  PRIMARY,
+
+  REPLICA
+
+}
@@ -0,0 +1,68 @@
+package com.example.businessmanagement2.repository.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * app.datasource.replica.url があるときだけ、spring.datasource をプライマリ、
+ * app.datasource.replica をレプリカとして振り分ける DataSource に差し替える。
+ * マッパーとトランザクションマネージャーはこの DataSource を使うので、サービス側は
+ * 読み取りのメソッドに @Transactional(readOnly = true) を付けるだけでよい。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  public HikariDataSource replicaDataSource(DataSourceRoutingProperties properties) {
+    var replica = properties.getReplica();
+    var dataSource = new HikariDataSource();
+    dataSource.setPoolName("replica");
+    dataSource.setJdbcUrl(replica.getUrl());
+    dataSource.setUsername(replica.getUsername());
+    dataSource.setPassword(replica.getPassword());
+    dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  public ReplicaHealthMonitor replicaHealthMonitor(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      DataSourceRoutingProperties properties) {
+    return new ReplicaHealthMonitor(primaryDataSource, replicaDataSource, properties);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReplicaHealthMonitor replicaHealthMonitor) {
+    var routing = new ReplicaRoutingDataSource(replicaHealthMonitor);
+    routing.setTargetDataSources(Map.of(
+        DataSourceRole.PRIMARY, primaryDataSource,
+        DataSourceRole.REPLICA, replicaDataSource));
+    routing.setDefaultTargetDataSource(primaryDataSource);
+    routing.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.businessmanagement2.repository.routing;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource")
+public class DataSourceRoutingProperties {
+
+  /**
+   * replica.url を指定したときだけ、読み取り専用トランザクションをレプリカに振り分ける。
+   */
+  private Replica replica = new Replica();
+
+  /**
+   * 書き込みをしたクライアントの読み取りを、この時間だけプライマリに向ける。
+   */
+  private Duration readYourWrites = Duration.ofSeconds(5);
+
+  /**
+   * レプリカの遅れがこれを超えたら、追いつくまでプライマリから読む。
+   */
+  private Duration maxReplicaLag = Duration.ofSeconds(3);
+
+  private Duration healthCheckInterval = Duration.ofSeconds(1);
+
+  /**
+   * replica_heartbeat でこのノードの行を見分ける名前。ノードごとに変える。指定しなければホスト名を使う。
+   */
+  private String nodeId;
+
+  @Data
+  public static class Replica {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.businessmanagement2.repository.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * プライマリの replica_heartbeat の自分のノードの行に時刻を書き、レプリカに届いた時刻との差を遅れとみなす。
+ * ほかのノードの時刻は見ないので、ノードどうしの時計のずれや書き込みの間隔に左右されない。
+ * 前回書いた時刻までレプリカに届いていれば遅れは 0、届いていなければ届いている最新の時刻からの経過時間にする。
+ * レプリカに接続できないとき、遅れが maxReplicaLag を超えたとき、まだ一度も確かめていないときはプライマリから読む。
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements MeterBinder {
+
+  private static final String READ_BEAT =
+      "select beat from replica_heartbeat where node_id = ?";
+
+  private static final String WRITE_BEAT =
+      "update replica_heartbeat set beat = ? where node_id = ?";
+
+  private static final String INSERT_BEAT =
+      "insert into replica_heartbeat (node_id, beat) values (?, ?)";
+
+  private final JdbcTemplate primary;
+
+  private final JdbcTemplate replica;
+
+  private final long maxLagMillis;
+
+  private final String nodeId;
+
+  private long lastWrittenBeat = -1;
+
+  private volatile long lagMillis = Long.MAX_VALUE;
+
+  private volatile boolean replicaUsable;
+
+  public ReplicaHealthMonitor(DataSource primaryDataSource, DataSource replicaDataSource,
+      DataSourceRoutingProperties properties) {
+    this.primary = new JdbcTemplate(primaryDataSource);
+    this.replica = new JdbcTemplate(replicaDataSource);
+    this.maxLagMillis = properties.getMaxReplicaLag().toMillis();
+    this.nodeId = properties.getNodeId() != null ? properties.getNodeId() : hostName();
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      var nodeId = UUID.randomUUID().toString();
+      log.warn("Could not resolve the host name. Using {} as the heartbeat node id.", nodeId);
+      return nodeId;
+    }
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public boolean isReplicaUsable() {
+    return replicaUsable;
+  }
+
+  public long getLagMillis() {
+    return lagMillis;
+  }
+
+  @Scheduled(fixedDelayString = "${app.datasource.health-check-interval:PT1S}")
+  public synchronized void check() {
+    long now = System.currentTimeMillis();
+    try {
+      // 自分の行がまだレプリカに届いていなければ null
+      var replicatedBeat = DataAccessUtils.singleResult(
+          replica.queryForList(READ_BEAT, Long.class, nodeId));
+      lagMillis = lastWrittenBeat >= 0 && replicatedBeat != null && replicatedBeat >= lastWrittenBeat
+          ? 0
+          : now - (replicatedBeat != null ? replicatedBeat : 0);
+    } catch (DataAccessException e) {
+      log.debug("Failed to read the replica heartbeat", e);
+      lagMillis = Long.MAX_VALUE;
+    }
+    update(lagMillis <= maxLagMillis);
+    try {
+      if (primary.update(WRITE_BEAT, now, nodeId) == 0) {
+        primary.update(INSERT_BEAT, nodeId, now);
+      }
+      lastWrittenBeat = now;
+    } catch (DataAccessException e) {
+      log.warn("Failed to write the replica heartbeat", e);
+    }
+  }
+
+  private void update(boolean usable) {
+    if (usable != replicaUsable) {
+      if (usable) {
+        log.info("Replica caught up. Read-only transactions go to the replica.");
+      } else {
+        log.warn("Replica is unavailable or {} ms behind. Reading from the primary.",
+            lagMillis == Long.MAX_VALUE ? "unknown" : lagMillis);
+      }
+    }
+    replicaUsable = usable;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("datasource.replica.lag", this,
+            monitor -> monitor.lagMillis == Long.MAX_VALUE ? Double.NaN : monitor.lagMillis / 1000.0)
+        .description("Seconds the replica is behind the primary")
+        .baseUnit("seconds")
+        .register(registry);
+    Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+        .description("1 while read-only transactions are routed to the replica")
+        .register(registry);
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.businessmanagement2.repository.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 読み取り専用トランザクションの接続だけをレプリカから取る。
+ * トランザクションの readOnly が決まってから接続を取るよう、LazyConnectionDataSourceProxy の内側に置くこと。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final ReplicaHealthMonitor replicaHealthMonitor;
+
+  public ReplicaRoutingDataSource(ReplicaHealthMonitor replicaHealthMonitor) {
+    this.replicaHealthMonitor = replicaHealthMonitor;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && !RoutingContext.isPinnedToPrimary()
+        && replicaHealthMonitor.isReplicaUsable()) {
+      RoutingContext.markReadFromReplica();
+      return DataSourceRole.REPLICA;
+    }
+    return DataSourceRole.PRIMARY;
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.businessmanagement2.repository.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * このスレッドの読み取りをレプリカではなくプライマリに向けるかどうか。
+ * 自分の書き込みを直後に読むリクエストや、古い値を載せてはいけないキャッシュの読み込みで立てる。
+ */
+public final class RoutingContext {
+
+  private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+  private static final ThreadLocal<Boolean> READ_FROM_REPLICA = new ThreadLocal<>();
+
+  private RoutingContext() {
+  }
+
+  public static boolean isPinnedToPrimary() {
+    return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+  }
+
+  public static void set(boolean pinnedToPrimary) {
+    if (pinnedToPrimary) {
+      PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    } else {
+      PINNED_TO_PRIMARY.remove();
+    }
+  }
+
+  public static void clear() {
+    PINNED_TO_PRIMARY.remove();
+  }
+
+  /**
+   * work の間だけプライマリに向ける。接続は最初の文で取るので、トランザクションの中から呼んでもよい。
+   */
+  public static <T> T onPrimary(Supplier<T> work) {
+    var previous = isPinnedToPrimary();
+    set(true);
+    try {
+      return work.get();
+    } finally {
+      set(previous);
+    }
+  }
+
+  /**
+   * resetReadFromReplica の後に、このスレッドがレプリカの接続を使ったかどうか。
+   * レプリカの遅れた値を、最新の値として覚えてはいけないところで確かめる。
+   */
+  public static boolean hasReadFromReplica() {
+    return Boolean.TRUE.equals(READ_FROM_REPLICA.get());
+  }
+
+  public static void resetReadFromReplica() {
+    READ_FROM_REPLICA.remove();
+  }
+
+  static void markReadFromReplica() {
+    READ_FROM_REPLICA.set(Boolean.TRUE);
+  }
+}
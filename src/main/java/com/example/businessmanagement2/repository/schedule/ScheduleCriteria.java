@@ -0,0 +1,28 @@
+package com.example.businessmanagement2.repository.schedule;
+
+import java.time.LocalDate;
+import lombok.Value;
+
+/**
+ * 作業予定の絞り込み条件。null の項目は条件に含めない。
+ * from と to は両端を含む。
+ */
+@Value
+public class ScheduleCriteria {
+
+  private static final ScheduleCriteria NONE = new ScheduleCriteria(null, null, null, null, null);
+
+  LocalDate from;
+
+  LocalDate to;
+
+  Integer userId;
+
+  String place;
+
+  String floor;
+
+  public static ScheduleCriteria none() {
+    return NONE;
+  }
+}
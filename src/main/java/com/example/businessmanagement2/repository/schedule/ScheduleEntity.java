@@ -1,12 +1,14 @@
 package com.example.businessmanagement2.repository.schedule;
 
 
-import com.example.businessmanagement2.repository.user.UserEntity;
 import java.util.Date;
 
+import lombok.AllArgsConstructor;
 import lombok.Value;
+import org.apache.ibatis.annotations.AutomapConstructor;
 
 @Value
+@AllArgsConstructor(onConstructor_ = @AutomapConstructor)
 public class ScheduleEntity  {
 
   Long scheduleid;
@@ -23,4 +25,13 @@ public class ScheduleEntity  {
 
   String numberofpeople;
 
+  /**
+   * 楽観ロック用の行バージョン。更新のたびに1ずつ増える。
+   */
+  Long version;
+
+  public ScheduleEntity(Long scheduleid, int userid, Date workingdate, String numberoffloors,
+      String place, String workcontent, String numberofpeople) {
+    this(scheduleid, userid, workingdate, numberoffloors, place, workcontent, numberofpeople, 0L);
+  }
 }
@@ -2,51 +2,69 @@ package com.example.businessmanagement2.repository.schedule;
 
 
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.apache.ibatis.annotations.Delete;
-import org.apache.ibatis.annotations.Insert;
+import java.util.Set;
 import org.apache.ibatis.annotations.Mapper;
-import org.apache.ibatis.annotations.Options;
-import org.apache.ibatis.annotations.Select;
-import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 @Mapper
 public interface ScheduleRepository {
 
-  @Select("""
-          SELECT 
-          schedule_id, user_id, working_date, number_of_floors,
-          place, work_content, number_of_people,
-          FROM schedules WHERE schedule_id = #{scheduleId}
-          """)
   Optional<ScheduleEntity> findById(Long scheduleid);
 
-  @Select("SELECT * FROM schedules")
+  Optional<ScheduleEntity> findByIdForUpdate(long scheduleid);
+
+  /**
+   * scheduleids は空にしないこと。
+   */
+  List<ScheduleEntity> findByIdsForUpdate(@Param("scheduleids") Collection<Long> scheduleids);
+
   List<ScheduleEntity> findScheduleList();
 
-  @Options(useGeneratedKeys = true, keyProperty = "id")
-  @Insert("""
-           INSERT INTO schedules 
-           (
-           user_Id, working_date, number_of_floors, place, work_content, number_of_people
-           ) 
-           values 
-           (
-           #{userId}, #{workingDate}, #{numberOfFloors}, #{place}, #{workContent}, #{numberOfPeople}
-           )
-           """)
+  Optional<Long> findVersion(long scheduleid);
+
+  default List<ScheduleEntity> searchSchedules(ScheduleCriteria criteria, LocalDate afterDate,
+      Long afterScheduleId, int limit) {
+    return searchSchedules(criteria, afterDate, afterScheduleId, limit, null);
+  }
+
+  /**
+   * fields には読む項目を ScheduleDTO の項目名で渡す。null ならすべて読む。
+   * 読まなかった項目は null（userid は 0）、version は fields を渡すと常に null になる。
+   */
+  List<ScheduleEntity> searchSchedules(@Param("criteria") ScheduleCriteria criteria,
+      @Param("afterDate") LocalDate afterDate, @Param("afterScheduleId") Long afterScheduleId,
+      @Param("limit") int limit, @Param("fields") Set<String> fields);
+
+  /**
+   * phrase は ngram の FULLTEXT インデックスに BOOLEAN MODE で渡す検索式。関連度の高い順に返す。
+   */
+  List<ScheduleEntity> searchFullText(@Param("phrase") String phrase,
+      @Param("offset") int offset, @Param("limit") int limit);
+
+  Cursor<ScheduleEntity> scanScheduleList();
+
+  /**
+   * from と to は両端を含む。
+   */
+  Cursor<ScheduleEntity> scanScheduleRange(@Param("from") LocalDate from,
+      @Param("to") LocalDate to);
+
   void create(ScheduleEntity entity);
 
-  @Update("""
-           UPDATE schedules  SET 
-           schedule_Id = #{scheduleId}, user_Id = #{userId}, working_date = #{workingDate}, number_of_floors = #{numberOfFloors},
-           place = #{place}, work_content = #{workContent}, number_of_people = #{numberOfPeople}
-           WHERE id = #{id}
-           """)
-  void update(ScheduleEntity entity);
+  int update(ScheduleEntity entity);
+
+  /**
+   * entity.version と一致するときだけ更新し、version を1つ上げる。
+   */
+  int updateWithVersion(ScheduleEntity entity);
+
+  int delete(long scheduleid);
 
-  @Delete("DELETE from schedules WHERE user_id = #{userId}")
-  void delete(long scheduleid);
+  int deleteWithVersion(@Param("scheduleid") long scheduleid, @Param("version") long version);
 
 }
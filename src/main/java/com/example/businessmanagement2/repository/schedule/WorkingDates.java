@@ -0,0 +1,30 @@
+package com.example.businessmanagement2.repository.schedule;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * schedules.working_date（DATE）と ScheduleEntity の Date の行き来。
+ * DB から読んだ DATE も、CSV や画面から受け取った日付も、アプリのタイムゾーンの0時の Date として持つ。
+ */
+public final class WorkingDates {
+
+  private WorkingDates() {
+  }
+
+  /**
+   * java.sql.Date は toInstant() が使えないので、ドライバが作った日付をそのまま返す。
+   * それ以外はアプリのタイムゾーンで日付に戻す。
+   */
+  public static LocalDate toLocalDate(Date workingdate) {
+    if (workingdate instanceof java.sql.Date date) {
+      return date.toLocalDate();
+    }
+    return workingdate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+  }
+
+  public static Date toDate(LocalDate workingdate) {
+    return Date.from(workingdate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+  }
+}
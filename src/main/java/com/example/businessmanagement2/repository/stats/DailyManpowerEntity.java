@@ -0,0 +1,25 @@
+package com.example.businessmanagement2.repository.stats;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.ibatis.annotations.AutomapConstructor;
+
+/**
+ * 日付・ユーザー・階ごとの人数と作業予定の件数。schedules から作る集計で、更新時は差分を足し込む。
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @AutomapConstructor)
+public class DailyManpowerEntity {
+
+  LocalDate workingdate;
+
+  int userid;
+
+  String numberoffloors;
+
+  int totalpeople;
+
+  int schedulecount;
+
+}
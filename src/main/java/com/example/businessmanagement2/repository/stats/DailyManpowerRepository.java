@@ -0,0 +1,34 @@
+package com.example.businessmanagement2.repository.stats;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface DailyManpowerRepository {
+
+  List<DailyManpowerEntity> findDaily(@Param("from") LocalDate from, @Param("to") LocalDate to,
+      @Param("userId") Integer userId);
+
+  /**
+   * totalpeople と schedulecount を差分として足し込む。行がなければ作る。
+   */
+  void addDelta(DailyManpowerEntity delta);
+
+  /**
+   * 作業予定が0件になった行を消す。
+   */
+  void deleteEmpty(DailyManpowerEntity key);
+
+  int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  List<DailyManpowerSource> aggregateSchedules(@Param("from") LocalDate from,
+      @Param("to") LocalDate to);
+
+  Optional<LocalDate> findFirstWorkingDate();
+
+  Optional<LocalDate> findLastWorkingDate();
+
+}
@@ -0,0 +1,25 @@
+package com.example.businessmanagement2.repository.stats;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.ibatis.annotations.AutomapConstructor;
+
+/**
+ * 集計の作り直しに使う schedules の行。number_of_people は文字列のまま同じ値ごとにまとめてある。
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @AutomapConstructor)
+public class DailyManpowerSource {
+
+  LocalDate workingdate;
+
+  int userid;
+
+  String numberoffloors;
+
+  String numberofpeople;
+
+  int schedulecount;
+
+}
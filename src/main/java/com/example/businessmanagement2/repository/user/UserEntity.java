@@ -1,11 +1,12 @@
 package com.example.businessmanagement2.repository.user;
 
 
-import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
-import java.util.List;
+import lombok.AllArgsConstructor;
 import lombok.Value;
+import org.apache.ibatis.annotations.AutomapConstructor;
 
 @Value
+@AllArgsConstructor(onConstructor_ = @AutomapConstructor)
 public class UserEntity {
 
   Long userid;
@@ -14,5 +15,12 @@ public class UserEntity {
 
   String username;
 
+  /**
+   * 楽観ロック用の行バージョン。更新のたびに1ずつ増える。
+   */
+  Long version;
 
+  public UserEntity(Long userid, String companyname, String username) {
+    this(userid, companyname, username, 0L);
+  }
 }
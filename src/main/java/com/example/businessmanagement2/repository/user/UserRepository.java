@@ -1,5 +1,6 @@
 package com.example.businessmanagement2.repository.user;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.apache.ibatis.annotations.Delete;
@@ -19,14 +20,27 @@ public interface UserRepository {
 //  @Select("SELECT * FROM users")
   List<UserEntity> findUserList();
 
+  List<UserEntity> findUserPage(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+
+  Optional<Long> findVersion(long userId);
+
+  /**
+   * userIds のうち users にあるものを返す。userIds は空にしないこと。
+   */
+  List<Integer> findExistingIds(@Param("userIds") Collection<Integer> userIds);
+
 
 //  @Options(useGeneratedKeys = true, keyProperty = "id")
 //  @Insert("INSERT INTO users (company_name, user_name) values (#{companyname}, #{username})")
   void create(UserEntity entity);
 
 //  @Update("UPDATE users SET company_name = #{companyname}, user_name = #{username} WHERE user_id = #{userId}")
-  void update(UserEntity entity);
+  int update(UserEntity entity);
+
+  int updateWithVersion(UserEntity entity);
 
 //  @Delete("DELETE from users WHERE user_id = #{userId}")
-  void delete(Long userId);
+  int delete(Long userId);
+
+  int deleteWithVersion(@Param("userId") Long userId, @Param("version") long version);
 }
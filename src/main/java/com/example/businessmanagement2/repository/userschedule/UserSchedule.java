@@ -1,12 +1,25 @@
 package com.example.businessmanagement2.repository.userschedule;
 
 import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import java.util.ArrayList;
 import java.util.List;
-import lombok.Value;
+import lombok.Data;
 
-@Value
+/**
+ * ユーザーとその作業予定。UserScheduleRepository.xml の resultMap で1回の JOIN から組み立てる。
+ * MyBatis が行ごとに schedules へ追加していくため、UserEntity と違って可変にしている。
+ */
+@Data
 public class UserSchedule {
 
-  List<ScheduleEntity> scheduleEntities;
+  private Long userid;
+
+  private String companyname;
+
+  private String username;
+
+  private Long version;
+
+  private List<ScheduleEntity> schedules = new ArrayList<>();
 
 }
@@ -1,19 +1,20 @@
 package com.example.businessmanagement2.repository.userschedule;
 
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.apache.ibatis.annotations.Mapper;
-import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Param;
 
 @Mapper
 public interface UserScheduleRepository {
 
-  @Select("""
-          SELECT * FROM users INNER JOIN schedules
-          ON users.user_id = schedules.user_id 
-          WHERE users.user_id = #{userId}
-          """)
-  Optional<UserSchedule> findById(long userId);
+  Optional<UserSchedule> findById(@Param("userId") long userId, @Param("from") LocalDate from,
+      @Param("to") LocalDate to);
 
+  List<UserSchedule> findByIds(@Param("userIds") Collection<Long> userIds,
+      @Param("from") LocalDate from, @Param("to") LocalDate to);
 
 }
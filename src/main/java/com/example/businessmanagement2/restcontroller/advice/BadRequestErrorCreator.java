@@ -1,8 +1,11 @@
 package com.example.businessmanagement2.restcontroller.advice;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.validation.ConstraintViolation;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
@@ -18,6 +21,22 @@ public class BadRequestErrorCreator {
     return error;
   }
 
+  public static List<InvalidParam> from(Set<? extends ConstraintViolation<?>> violations) {
+    return createInvalidParamList(
+        violations
+            .stream()
+            .map(violation -> createInvalidParam(violation.getPropertyPath().toString(),
+                violation.getMessage()))
+            .sorted(Comparator.comparing(InvalidParam::getName)));
+  }
+
+  public static InvalidParam createInvalidParam(String name, String reason) {
+    var invalidParam = new InvalidParam();
+    invalidParam.setName(name);
+    invalidParam.setReason(reason);
+    return invalidParam;
+  }
+
   private static InvalidParam createInvalidParam(FieldError fieldError) {
     var invalidParam = new InvalidParam();
     invalidParam.setName(fieldError.getField());
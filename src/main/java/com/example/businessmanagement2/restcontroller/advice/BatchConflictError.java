@@ -0,0 +1,21 @@
+package com.example.businessmanagement2.restcontroller.advice;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+
+@Data
+public class BatchConflictError {
+
+  private String title = "Conflict";
+
+  private String detail;
+
+  /**
+   * 競合した要素のリクエスト内での位置。特定できなかったときは出さない。
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Integer index;
+
+}
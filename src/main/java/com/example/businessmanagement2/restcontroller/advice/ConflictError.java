@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.restcontroller.advice;
+
+
+import lombok.Data;
+
+
+@Data
+public class ConflictError {
+
+  private String title = "Conflict";
+
+  private String detail;
+
+}
@@ -1,7 +1,30 @@
 package com.example.businessmanagement2.restcontroller.advice;
 
+import com.example.businessmanagement2.repository.dialect.IntegrityViolations;
+import com.example.businessmanagement2.restcontroller.etag.EntityTags;
+import com.example.businessmanagement2.restcontroller.etag.InvalidEntityTagException;
+import com.example.businessmanagement2.restcontroller.fields.InvalidFieldSelectionException;
+import com.example.businessmanagement2.restcontroller.schedule.InvalidScheduleImportException;
+import com.example.businessmanagement2.service.Schedule.InvalidScheduleCriteriaException;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchItemException;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchStatus;
 import com.example.businessmanagement2.service.Schedule.ScheduleEntityNotFoundException;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlotConflictException;
+import com.example.businessmanagement2.service.Schedule.ScheduleVersionConflictException;
+import com.example.businessmanagement2.service.page.InvalidPageTokenException;
+import com.example.businessmanagement2.service.bulkhead.BulkheadFullException;
+import com.example.businessmanagement2.service.bulkhead.BulkheadProperties;
+import com.example.businessmanagement2.service.bulkhead.BulkheadTimeoutException;
+import com.example.businessmanagement2.service.event.TooManySubscribersException;
+import com.example.businessmanagement2.service.limit.ConcurrencyLimitExceededException;
+import com.example.businessmanagement2.service.limit.ConcurrencyLimitProperties;
 import com.example.businessmanagement2.service.user.UserEntityNotFoundException;
+import com.example.businessmanagement2.service.user.UserVersionConflictException;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,11 +32,18 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+@Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 
+  private final BulkheadProperties bulkheadProperties;
+
+  private final ConcurrencyLimitProperties concurrencyLimitProperties;
+
   @ExceptionHandler(UserEntityNotFoundException.class)
   public ResponseEntity<ResourceNotFoundError> handleUserEntityNotFoundException(
       UserEntityNotFoundException e) {
@@ -32,6 +62,165 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
   }
 
+  @ExceptionHandler(UserVersionConflictException.class)
+  public ResponseEntity<PreconditionFailedError> handleUserVersionConflictException(
+      UserVersionConflictException e) {
+    var error = new PreconditionFailedError();
+    error.setDetail(e.getMessage());
+
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+        .eTag(EntityTags.of(e.getCurrentVersion()))
+        .body(error);
+  }
+
+  @ExceptionHandler(ScheduleVersionConflictException.class)
+  public ResponseEntity<PreconditionFailedError> handleScheduleVersionConflictException(
+      ScheduleVersionConflictException e) {
+    var error = new PreconditionFailedError();
+    error.setDetail(e.getMessage());
+
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+        .eTag(EntityTags.of(e.getCurrentVersion()))
+        .body(error);
+  }
+
+  @ExceptionHandler(InvalidEntityTagException.class)
+  public ResponseEntity<BadRequestError> handleInvalidEntityTagException(
+      InvalidEntityTagException e) {
+    var error = new BadRequestError();
+    error.getInvalidParams().add(
+        BadRequestErrorCreator.createInvalidParam(HttpHeaders.IF_MATCH, e.getMessage()));
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  @ExceptionHandler(InvalidFieldSelectionException.class)
+  public ResponseEntity<BadRequestError> handleInvalidFieldSelectionException(
+      InvalidFieldSelectionException e) {
+    var error = new BadRequestError();
+    error.getInvalidParams().add(
+        BadRequestErrorCreator.createInvalidParam("fields", e.getMessage()));
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  @ExceptionHandler(InvalidPageTokenException.class)
+  public ResponseEntity<BadRequestError> handleInvalidPageTokenException(
+      InvalidPageTokenException e) {
+    var invalidParam = new InvalidParam();
+    invalidParam.setName("next");
+    invalidParam.setReason(e.getMessage());
+    var error = new BadRequestError();
+    error.getInvalidParams().add(invalidParam);
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  @ExceptionHandler(InvalidScheduleCriteriaException.class)
+  public ResponseEntity<BadRequestError> handleInvalidScheduleCriteriaException(
+      InvalidScheduleCriteriaException e) {
+    var error = new BadRequestError();
+    error.getInvalidParams().add(
+        BadRequestErrorCreator.createInvalidParam(e.getName(), e.getMessage()));
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  @ExceptionHandler(InvalidScheduleImportException.class)
+  public ResponseEntity<BadRequestError> handleInvalidScheduleImportException(
+      InvalidScheduleImportException e) {
+    var error = new BadRequestError();
+    error.getInvalidParams().add(
+        BadRequestErrorCreator.createInvalidParam(e.getName(), e.getMessage()));
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<BadRequestError> handleMethodArgumentTypeMismatchException(
+      MethodArgumentTypeMismatchException e) {
+    var error = new BadRequestError();
+    error.getInvalidParams().add(BadRequestErrorCreator.createInvalidParam(e.getName(),
+        "value (" + e.getValue() + ") cannot be converted."));
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  @ExceptionHandler({BulkheadFullException.class, BulkheadTimeoutException.class,
+      TooManySubscribersException.class})
+  public ResponseEntity<ServiceUnavailableError> handleBulkheadException(RuntimeException e) {
+    return serviceUnavailable(e, bulkheadProperties.getRetryAfter());
+  }
+
+  @ExceptionHandler(ConcurrencyLimitExceededException.class)
+  public ResponseEntity<ServiceUnavailableError> handleConcurrencyLimitExceededException(
+      ConcurrencyLimitExceededException e) {
+    return serviceUnavailable(e, concurrencyLimitProperties.getRetryAfter());
+  }
+
+  private static ResponseEntity<ServiceUnavailableError> serviceUnavailable(RuntimeException e,
+      Duration retryAfter) {
+    var error = new ServiceUnavailableError();
+    error.setDetail(e.getMessage());
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+        .body(error);
+  }
+
+  @ExceptionHandler(ScheduleSlotConflictException.class)
+  public ResponseEntity<ConflictError> handleScheduleSlotConflictException(
+      ScheduleSlotConflictException e) {
+    var error = new ConflictError();
+    error.setDetail(e.getMessage());
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
+  @ExceptionHandler(ScheduleBatchItemException.class)
+  public ResponseEntity<?> handleScheduleBatchItemException(ScheduleBatchItemException e) {
+    if (e.getStatus() == ScheduleBatchStatus.USER_NOT_FOUND) {
+      var error = new BadRequestError();
+      error.getInvalidParams().add(
+          BadRequestErrorCreator.createInvalidParam("userid", e.getMessage()));
+
+      return ResponseEntity.badRequest().body(error);
+    }
+    var error = new BatchConflictError();
+    error.setDetail(e.getMessage());
+    error.setIndex(e.getIndex());
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
+  /**
+   * ドライバのメッセージには表や制約の名前が入るので、ログにだけ書いて決まった文言を返す。
+   */
+  @ExceptionHandler(DuplicateKeyException.class)
+  public ResponseEntity<ConflictError> handleDuplicateKeyException(DuplicateKeyException e) {
+    log.info("Duplicate key: {}", IntegrityViolations.driverMessage(e));
+    var error = new ConflictError();
+    error.setDetail("The request conflicts with an existing resource.");
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
+  /**
+   * 一意制約以外（外部キー・NOT NULL など）は入力の誤りとして 400 にする。
+   */
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<BadRequestError> handleDataIntegrityViolationException(
+      DataIntegrityViolationException e) {
+    log.info("Integrity violation: {}", IntegrityViolations.driverMessage(e));
+    var error = new BadRequestError();
+    error.getInvalidParams().add(IntegrityViolations.isMissingParent(e)
+        ? BadRequestErrorCreator.createInvalidParam("userid", "User does not exist.")
+        : BadRequestErrorCreator.createInvalidParam("body",
+            "The request contains a value that cannot be stored."));
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
   @Override
   protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
       HttpHeaders headers, HttpStatus status, WebRequest request) {
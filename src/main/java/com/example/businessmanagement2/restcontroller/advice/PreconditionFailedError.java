@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.restcontroller.advice;
+
+
+import lombok.Data;
+
+
+@Data
+public class PreconditionFailedError {
+
+  private String title = "Precondition Failed";
+
+  private String detail;
+
+}
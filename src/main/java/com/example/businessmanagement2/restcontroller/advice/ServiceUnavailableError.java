@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.restcontroller.advice;
+
+
+import lombok.Data;
+
+
+@Data
+public class ServiceUnavailableError {
+
+  private String title = "Service Unavailable";
+
+  private String detail;
+
+}
@@ -0,0 +1,30 @@
+package com.example.businessmanagement2.restcontroller.cache;
+
+import com.example.businessmanagement2.service.user.UserCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+  private final UserCache userCache;
+
+  private static CacheStatsDTO toCacheStatsDTO(String name, long size, CacheStats stats) {
+    return new CacheStatsDTO(name, size, stats.hitCount(), stats.missCount(),
+        stats.evictionCount(), stats.hitRate());
+  }
+
+  @GetMapping("/caches")
+  public ResponseEntity<CacheStatsListDTO> showCacheStats() {
+    var dto = new CacheStatsListDTO();
+    dto.setResults(List.of(
+        toCacheStatsDTO("users", userCache.userSize(), userCache.userStats()),
+        toCacheStatsDTO("userLists", userCache.listSize(), userCache.listStats())));
+    return ResponseEntity.ok(dto);
+  }
+}
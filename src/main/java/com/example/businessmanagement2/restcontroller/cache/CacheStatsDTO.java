@@ -0,0 +1,22 @@
+package com.example.businessmanagement2.restcontroller.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheStatsDTO {
+
+  String name;
+
+  long size;
+
+  long hitCount;
+
+  long missCount;
+
+  long evictionCount;
+
+  double hitRate;
+
+}
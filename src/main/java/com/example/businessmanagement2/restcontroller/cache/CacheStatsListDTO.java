@@ -0,0 +1,12 @@
+package com.example.businessmanagement2.restcontroller.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class CacheStatsListDTO {
+
+  List<CacheStatsDTO> results = new ArrayList<>();
+
+}
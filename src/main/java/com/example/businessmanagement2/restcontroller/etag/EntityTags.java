@@ -0,0 +1,65 @@
+package com.example.businessmanagement2.restcontroller.etag;
+
+/**
+ * 行バージョンと ETag / If-Match ヘッダーの変換。
+ * ETag は強いエンティティタグとして "バージョン" の形で返す。
+ */
+public final class EntityTags {
+
+  private static final String RETURN_REPRESENTATION = "return=representation";
+
+  private EntityTags() {
+  }
+
+  public static String of(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * If-Match の値から期待するバージョンを取り出す。
+   * ヘッダーがないとき、または * のときは null を返し、バージョンを確認しない。
+   */
+  public static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    var tag = ifMatch.trim();
+    if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+      throw new InvalidEntityTagException(ifMatch);
+    }
+    try {
+      return Long.valueOf(tag.substring(1, tag.length() - 1));
+    } catch (NumberFormatException e) {
+      throw new InvalidEntityTagException(ifMatch);
+    }
+  }
+
+  /**
+   * If-None-Match のどれかが etag と一致するか。GET では弱い比較なので W/ は外して比べる。
+   */
+  public static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+    for (var candidate : ifNoneMatch.split(",")) {
+      var tag = candidate.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Prefer: return=representation が指定されたときは更新後の内容を返す。
+   */
+  public static boolean prefersRepresentation(String prefer) {
+    return prefer != null && prefer.contains(RETURN_REPRESENTATION);
+  }
+}
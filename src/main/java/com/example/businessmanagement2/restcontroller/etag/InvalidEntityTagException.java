@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.restcontroller.etag;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidEntityTagException extends RuntimeException {
+
+  private final String entityTag;
+
+  public InvalidEntityTagException(String entityTag) {
+    super("entity tag (" + entityTag + ") is invalid. Specify a strong tag such as \"1\".");
+    this.entityTag = entityTag;
+  }
+}
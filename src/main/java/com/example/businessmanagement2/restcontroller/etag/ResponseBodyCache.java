@@ -0,0 +1,86 @@
+package com.example.businessmanagement2.restcontroller.etag;
+
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import lombok.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 1件を返す GET のレスポンスを、JSON に直したバイト列のまま (リソース, ID, バージョン) で持つ。
+ * バージョンが変われば別のキーになるので、消す必要はなく古いものは押し出されるのを待つ。
+ */
+@Component
+public class ResponseBodyCache {
+
+  private static final int MAXIMUM_SIZE = 10_000;
+
+  private final ObjectMapper objectMapper;
+
+  private final Cache<Key, byte[]> bodies = Caffeine.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .build();
+
+  public ResponseBodyCache(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * 未コミットの書き込みを含むトランザクションの中では、ロールバックされるかもしれないので載せない。
+   */
+  public byte[] json(ChangeResource resource, long id, long version, Supplier<Object> body) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return serialize(body.get());
+    }
+    return bodies.get(new Key(resource, id, version), key -> serialize(body.get()));
+  }
+
+  /**
+   * キャッシュしているのは JSON だけなので、Accept が JSON より CBOR などを優先するときは使わない。
+   */
+  public static boolean isJsonPreferred(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return true;
+    }
+    var mediaTypes = MediaType.parseMediaTypes(accept);
+    MediaType.sortBySpecificityAndQuality(mediaTypes);
+    for (var mediaType : mediaTypes) {
+      if (mediaType.getQualityValue() == 0) {
+        continue;
+      }
+      // */* は JSON を選ぶ（メッセージコンバーターの並びで JSON が先）
+      if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+        return true;
+      }
+      if (!mediaType.isWildcardSubtype()) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private byte[] serialize(Object body) {
+    try {
+      return objectMapper.writeValueAsBytes(body);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Value
+  private static class Key {
+
+    ChangeResource resource;
+
+    long id;
+
+    long version;
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.businessmanagement2.restcontroller.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequiredArgsConstructor
+public class ChangeEventController {
+
+  private final ChangeEventStreams changeEventStreams;
+
+  /**
+   * 作業予定とユーザーの変更を、コミットされた順に schedule / user イベントとして送る。
+   */
+  @GetMapping(value = "/schedules/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(
+      @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+    return changeEventStreams.subscribe(lastEventId);
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.businessmanagement2.restcontroller.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ChangeEventDTO {
+
+  String type;
+
+  long id;
+
+  /**
+   * 変更後の ScheduleDTO または UserDTO。削除のときは null。
+   */
+  Object data;
+
+}
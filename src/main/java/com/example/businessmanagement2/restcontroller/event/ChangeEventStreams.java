@@ -0,0 +1,194 @@
+package com.example.businessmanagement2.restcontroller.event;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.user.UserEntity;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleController;
+import com.example.businessmanagement2.restcontroller.user.UserController;
+import com.example.businessmanagement2.service.event.ChangeEvent;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeFeedProperties;
+import com.example.businessmanagement2.service.event.TooManySubscribersException;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * ChangeFeed の購読者ごとに読んだ位置を持ち、専用のスレッドプールから SSE で送る。
+ * 購読者ごとに同時に走る送信は1つだけで、遅い購読者はその購読者の送信が遅れるだけになる。
+ */
+@Slf4j
+@Component
+public class ChangeEventStreams implements DisposableBean {
+
+  private static final int READ_SIZE = 100;
+
+  private final ChangeFeed changeFeed;
+
+  private final ChangeFeedProperties properties;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+  private final Runnable removeListener;
+
+  public ChangeEventStreams(ChangeFeed changeFeed, ChangeFeedProperties properties) {
+    this.changeFeed = changeFeed;
+    this.properties = properties;
+    executor.setCorePoolSize(properties.getDispatchThreads());
+    executor.setMaxPoolSize(properties.getDispatchThreads());
+    // 購読者ごとに待ち行列に入るのは1つまでなので、購読者数の上限を超えることはない
+    executor.setQueueCapacity(properties.getMaxSubscribers());
+    executor.setThreadNamePrefix("change-feed-");
+    executor.initialize();
+    this.removeListener = changeFeed.addListener(() -> subscribers.forEach(Subscriber::schedule));
+  }
+
+  /**
+   * lastEventId がこの起動で発行したIDなら続きから送る。古すぎるか別の起動のIDなら、
+   * 取りこぼしがあったことを reset イベントで知らせてから今の位置から送る。
+   */
+  public SseEmitter subscribe(String lastEventId) {
+    if (subscribers.size() >= properties.getMaxSubscribers()) {
+      throw new TooManySubscribersException(properties.getMaxSubscribers());
+    }
+    var emitter = new SseEmitter(properties.getTimeout().toMillis());
+    var sequence = lastEventId == null ? null : changeFeed.parseEventId(lastEventId);
+    var subscriber = sequence != null && sequence.isPresent()
+        ? new Subscriber(emitter, sequence.getAsLong(), false)
+        : new Subscriber(emitter, changeFeed.lastSequence(), lastEventId != null);
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    emitter.onTimeout(emitter::complete);
+    subscriber.schedule();
+    return emitter;
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  @Scheduled(fixedDelayString = "${app.events.heartbeat:PT15S}")
+  public void heartbeat() {
+    subscribers.forEach(Subscriber::heartbeat);
+  }
+
+  @Override
+  public void destroy() {
+    removeListener.run();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    executor.shutdown();
+  }
+
+  private static ChangeEventDTO toChangeEventDTO(ChangeEvent event) {
+    Object data = null;
+    if (event.getData() instanceof ScheduleEntity schedule) {
+      data = ScheduleController.toScheduleDTO(schedule);
+    } else if (event.getData() instanceof UserEntity user) {
+      data = UserController.toUserDTO(user);
+    }
+    return new ChangeEventDTO(event.getType().name().toLowerCase(), event.getResourceId(), data);
+  }
+
+  private class Subscriber {
+
+    private final SseEmitter emitter;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile boolean heartbeatPending;
+
+    /**
+     * 以下は drain の中でだけ触る。drain は購読者ごとに同時に1つしか走らない。
+     */
+    private long cursor;
+
+    private boolean resetPending;
+
+    Subscriber(SseEmitter emitter, long cursor, boolean resetPending) {
+      this.emitter = emitter;
+      this.cursor = cursor;
+      this.resetPending = resetPending;
+    }
+
+    void schedule() {
+      if (!scheduled.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        executor.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        scheduled.set(false);
+        log.warn("Change feed dispatcher is saturated. Closing a subscriber.");
+        subscribers.remove(this);
+        emitter.complete();
+      }
+    }
+
+    void heartbeat() {
+      heartbeatPending = true;
+      schedule();
+    }
+
+    /**
+     * 送り終わったあとに積まれた変更を取りこぼさないよう、フラグを戻してから残りを確かめる。
+     */
+    private void drain() {
+      try {
+        do {
+          send();
+          scheduled.set(false);
+        } while ((changeFeed.lastSequence() > cursor || heartbeatPending)
+            && scheduled.compareAndSet(false, true));
+      } catch (IOException | IllegalStateException e) {
+        subscribers.remove(this);
+        emitter.completeWithError(e);
+      }
+    }
+
+    private void send() throws IOException {
+      if (resetPending) {
+        sendReset();
+        resetPending = false;
+      }
+      while (true) {
+        var slice = changeFeed.readAfter(cursor, READ_SIZE);
+        if (slice.getEvents().isEmpty()) {
+          break;
+        }
+        if (slice.isMissed()) {
+          cursor = slice.getEvents().get(0).getSequence() - 1;
+          sendReset();
+        }
+        for (var event : slice.getEvents()) {
+          emitter.send(SseEmitter.event()
+              .id(changeFeed.eventId(event.getSequence()))
+              .name(event.getResource().name().toLowerCase())
+              .data(toChangeEventDTO(event), MediaType.APPLICATION_JSON));
+          cursor = event.getSequence();
+        }
+      }
+      if (heartbeatPending) {
+        heartbeatPending = false;
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+      }
+    }
+
+    /**
+     * ここまでの変更を取りこぼしたので、クライアントは一覧を取り直す。
+     */
+    private void sendReset() throws IOException {
+      emitter.send(SseEmitter.event().id(changeFeed.eventId(cursor)).name("reset").data(""));
+    }
+  }
+}
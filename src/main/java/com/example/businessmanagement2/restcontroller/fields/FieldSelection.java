@@ -0,0 +1,88 @@
+package com.example.businessmanagement2.restcontroller.fields;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Value;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * ?fields=id,workingdate,place で指定された、レスポンスに含める DTO の項目。
+ * DTO に @JsonFilter(FILTER_ID) を付けておくと、wrap したレスポンスではそれ以外の項目を書かない。
+ */
+@Value
+public class FieldSelection {
+
+  public static final String FILTER_ID = "fields";
+
+  private static final FieldSelection ALL = new FieldSelection(null);
+
+  private static final ClassValue<Set<String>> PROPERTIES = new ClassValue<>() {
+    @Override
+    protected Set<String> computeValue(Class<?> type) {
+      return Arrays.stream(type.getDeclaredFields())
+          .filter(field -> !Modifier.isStatic(field.getModifiers()))
+          .map(Field::getName)
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+  };
+
+  /**
+   * null のときはすべての項目。
+   */
+  Set<String> fields;
+
+  public static FieldSelection all() {
+    return ALL;
+  }
+
+  /**
+   * fields が空のときはすべての項目を返す。dtoType にない項目名があれば例外にする。
+   */
+  public static FieldSelection parse(String fields, Class<?> dtoType) {
+    if (fields == null || fields.isBlank()) {
+      return ALL;
+    }
+    var properties = PROPERTIES.get(dtoType);
+    var selected = new LinkedHashSet<String>();
+    for (var field : fields.split(",")) {
+      var name = field.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      if (!properties.contains(name)) {
+        throw new InvalidFieldSelectionException(name, properties);
+      }
+      selected.add(name);
+    }
+    return selected.isEmpty() ? ALL : new FieldSelection(Set.copyOf(selected));
+  }
+
+  public boolean isAll() {
+    return fields == null;
+  }
+
+  public boolean includes(String name) {
+    return fields == null || fields.contains(name);
+  }
+
+  public MappingJacksonValue wrap(Object body) {
+    var value = new MappingJacksonValue(body);
+    value.setFilters(isAll() ? allFields() : new SimpleFilterProvider()
+        .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+    return value;
+  }
+
+  /**
+   * wrap を通さずに DTO を書くとき（1件の取得やイベントなど）に、すべての項目を書くためのフィルター。
+   */
+  public static FilterProvider allFields() {
+    return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.businessmanagement2.restcontroller.fields;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FieldSelectionConfig {
+
+  /**
+   * @JsonFilter を付けた DTO は、フィルターがないと書けなくなるので、既定ではすべての項目を書く。
+   */
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+    return builder -> builder.filters(FieldSelection.allFields());
+  }
+}
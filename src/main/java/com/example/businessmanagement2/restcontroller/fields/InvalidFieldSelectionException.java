@@ -0,0 +1,15 @@
+package com.example.businessmanagement2.restcontroller.fields;
+
+import java.util.Set;
+import lombok.Getter;
+
+@Getter
+public class InvalidFieldSelectionException extends RuntimeException {
+
+  private final String field;
+
+  public InvalidFieldSelectionException(String field, Set<String> available) {
+    super("field (" + field + ") is unknown. Choose from " + String.join(",", available) + ".");
+    this.field = field;
+  }
+}
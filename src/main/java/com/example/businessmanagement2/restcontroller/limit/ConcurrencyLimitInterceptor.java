@@ -0,0 +1,98 @@
+package com.example.businessmanagement2.restcontroller.limit;
+
+import com.example.businessmanagement2.service.limit.AdaptiveConcurrencyLimiter;
+import com.example.businessmanagement2.service.limit.AdaptiveConcurrencyLimiter.Permit;
+import com.example.businessmanagement2.service.limit.ConcurrencyLimitExceededException;
+import java.io.IOException;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * @ConcurrencyPriority を付けたハンドラーの前で AdaptiveConcurrencyLimiter の許可を取る。
+ * 取れなければ ConcurrencyLimitExceededException で 503 にする。
+ * CompletableFuture を返すハンドラーは、結果を返す非同期ディスパッチが終わったときに返す。
+ */
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName()
+      + ".permit";
+
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST
+        || !(handler instanceof HandlerMethod handlerMethod)) {
+      return true;
+    }
+    var priority = handlerMethod.getMethodAnnotation(ConcurrencyPriority.class);
+    if (priority == null) {
+      return true;
+    }
+    var permit = limiter.tryAcquire(priority.value()).orElseThrow(
+        () -> new ConcurrencyLimitExceededException(priority.value(), limiter.getLimit()));
+    request.setAttribute(PERMIT_ATTRIBUTE, permit);
+    return true;
+  }
+
+  /**
+   * 非同期ディスパッチが起きずに終わる（タイムアウトや切断）ときのために、リスナーでも返す。
+   */
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request,
+      HttpServletResponse response, Object handler) {
+    if (!(request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit)) {
+      return;
+    }
+    request.getAsyncContext().addListener(new AsyncListener() {
+      @Override
+      public void onComplete(AsyncEvent event) {
+        release(permit, response, null);
+      }
+
+      @Override
+      public void onTimeout(AsyncEvent event) {
+        permit.onDropped();
+      }
+
+      @Override
+      public void onError(AsyncEvent event) {
+        permit.onIgnore();
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) throws IOException {
+      }
+    });
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+      release(permit, response, ex);
+    }
+  }
+
+  /**
+   * 下流の Bulkheads が断った 503 は混んでいる印として上限を下げ、それ以外の 5xx は上限を動かさない。
+   */
+  private static void release(Permit permit, HttpServletResponse response, Exception ex) {
+    if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+      permit.onDropped();
+    } else if (ex != null || response.getStatus() >= 500) {
+      permit.onIgnore();
+    } else {
+      permit.onSuccess();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.businessmanagement2.restcontroller.limit;
+
+import com.example.businessmanagement2.service.limit.AdaptiveConcurrencyLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class ConcurrencyLimitWebConfig implements WebMvcConfigurer {
+
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ConcurrencyLimitInterceptor(limiter));
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.businessmanagement2.restcontroller.limit;
+
+import com.example.businessmanagement2.service.limit.RequestPriority;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * このハンドラーを AdaptiveConcurrencyLimiter の対象にする。付けていないハンドラーは制限しない。
+ * SSE や CSV の入出力のように長く続くものは、遅延が混み具合を表さないので付けない。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyPriority {
+
+  RequestPriority value();
+
+}
@@ -0,0 +1,31 @@
+package com.example.businessmanagement2.restcontroller.metrics;
+
+import com.example.businessmanagement2.repository.metrics.CurrentOperation;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * ハンドラーの実行中だけ CurrentOperation に操作名を入れる。
+ */
+public class OperationHandlerInterceptor implements AsyncHandlerInterceptor {
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    CurrentOperation.set(OperationNames.of(handler));
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request,
+      HttpServletResponse response, Object handler) {
+    CurrentOperation.clear();
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    CurrentOperation.clear();
+  }
+}
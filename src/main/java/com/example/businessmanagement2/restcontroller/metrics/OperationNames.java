@@ -0,0 +1,20 @@
+package com.example.businessmanagement2.restcontroller.metrics;
+
+import org.springframework.web.method.HandlerMethod;
+
+final class OperationNames {
+
+  private OperationNames() {
+  }
+
+  /**
+   * ハンドラーを "UserController.showUser" の形にする。SQL の statement タグと同じ書き方。
+   */
+  static String of(Object handler) {
+    if (handler instanceof HandlerMethod handlerMethod) {
+      return handlerMethod.getBeanType().getSimpleName() + "."
+          + handlerMethod.getMethod().getName();
+    }
+    return "none";
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.businessmanagement2.restcontroller.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.stereotype.Component;
+
+/**
+ * http.server.requests に operation タグを付ける。
+ */
+@Component
+public class OperationTagsContributor implements WebMvcTagsContributor {
+
+  @Override
+  public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Throwable exception) {
+    return Tags.of("operation", OperationNames.of(handler));
+  }
+
+  @Override
+  public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+    return Tags.of("operation", OperationNames.of(handler));
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.businessmanagement2.restcontroller.metrics;
+
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * app.sql.profile.fail-on-repeat が true のとき、N+1 の疑いがあるリクエストで投げる。
+ */
+@Getter
+public class RepeatedStatementException extends IllegalStateException {
+
+  private final Map<String, Integer> executions;
+
+  public RepeatedStatementException(String request, Map<String, Integer> executions) {
+    super(request + " executed the same statement repeatedly: " + executions);
+    this.executions = executions;
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.businessmanagement2.restcontroller.metrics;
+
+import com.example.businessmanagement2.repository.metrics.StatementOffenders;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/sqlprofile で N+1 の疑いと遅い文のワーストを返す。DELETE で集計をリセットする。
+ */
+@Component
+@Endpoint(id = "sqlprofile")
+@RequiredArgsConstructor
+public class SqlProfileEndpoint {
+
+  private final StatementOffenders statementOffenders;
+
+  @ReadOperation
+  public Map<String, Object> offenders() {
+    var result = new LinkedHashMap<String, Object>();
+    result.put("repeated", statementOffenders.worstRepeated());
+    result.put("slow", statementOffenders.worstSlow());
+    return result;
+  }
+
+  @DeleteOperation
+  public void reset() {
+    statementOffenders.clear();
+  }
+}
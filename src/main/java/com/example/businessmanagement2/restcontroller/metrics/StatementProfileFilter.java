@@ -0,0 +1,82 @@
+package com.example.businessmanagement2.restcontroller.metrics;
+
+import com.example.businessmanagement2.repository.metrics.StatementCounter;
+import com.example.businessmanagement2.repository.metrics.StatementOffenders;
+import com.example.businessmanagement2.repository.metrics.StatementProfileProperties;
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * リクエストの間に実行された文を数え、同じ文が閾値を超えて繰り返されていたら N+1 の疑いとして記録する。
+ * StreamingResponseBody のように Bulkheads を通らない非同期処理の文は数えない。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatementProfileFilter extends OncePerRequestFilter {
+
+  private static final String COUNTS_ATTRIBUTE = StatementProfileFilter.class.getName() + ".counts";
+
+  private final StatementProfileProperties properties;
+
+  private final StatementOffenders statementOffenders;
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  /**
+   * CompletableFuture を返すハンドラーでは、最初のディスパッチで始めた集計を
+   * Bulkheads のスレッドに引き継ぎ、結果を返す非同期ディスパッチの終わりに判定する。
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    @SuppressWarnings("unchecked")
+    var counts = (Map<String, Integer>) request.getAttribute(COUNTS_ATTRIBUTE);
+    if (counts == null) {
+      counts = StatementCounter.start();
+      request.setAttribute(COUNTS_ATTRIBUTE, counts);
+    } else {
+      StatementCounter.attach(counts);
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      StatementCounter.detach();
+    }
+    if (request.isAsyncStarted()) {
+      return;
+    }
+
+    var repeated = counts.entrySet().stream()
+        .filter(entry -> entry.getValue() > properties.getRepeatThreshold())
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    if (repeated.isEmpty()) {
+      return;
+    }
+    var requestName = requestName(request);
+    repeated.forEach((statement, executions) ->
+        statementOffenders.recordRepeated(requestName, statement, executions));
+    log.warn("possible N+1 in {}: {}", requestName, repeated);
+    if (properties.isFailOnRepeat()) {
+      throw new RepeatedStatementException(requestName, repeated);
+    }
+  }
+
+  private static String requestName(HttpServletRequest request) {
+    var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.businessmanagement2.restcontroller.routing;
+
+import com.example.businessmanagement2.repository.routing.DataSourceRoutingProperties;
+import com.example.businessmanagement2.repository.routing.RoutingContext;
+import java.io.IOException;
+import java.util.Set;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 書き込みのリクエストに、いつまでプライマリから読むかを Cookie で返す。
+ * その Cookie が期限内のリクエストは、レプリカの遅れで自分の書き込みが見えなくならないようプライマリから読む。
+ * 非同期のレスポンスはフィルターを抜けた後に確定するので、書き込みが成功したかどうかを待たずに付ける。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  static final String COOKIE_NAME = "primary-until";
+
+  private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+  private final DataSourceRoutingProperties properties;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    boolean pinned;
+    if (SAFE_METHODS.contains(request.getMethod())) {
+      pinned = primaryUntil(request) > now;
+    } else {
+      var window = properties.getReadYourWrites();
+      var cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+      response.addCookie(cookie);
+      pinned = true;
+    }
+    if (!pinned) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    RoutingContext.set(true);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RoutingContext.clear();
+    }
+  }
+
+  private static long primaryUntil(HttpServletRequest request) {
+    if (request.getCookies() == null) {
+      return 0;
+    }
+    for (var cookie : request.getCookies()) {
+      if (COOKIE_NAME.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+}
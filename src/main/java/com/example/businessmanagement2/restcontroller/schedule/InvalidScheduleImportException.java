@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidScheduleImportException extends RuntimeException {
+
+  private final String name;
+
+  public InvalidScheduleImportException(String name, String message) {
+    super(message);
+    this.name = name;
+  }
+}
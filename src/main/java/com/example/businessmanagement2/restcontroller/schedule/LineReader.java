@@ -0,0 +1,72 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 長さに上限のある readLine。上限を超えた行は残りを読み捨て、isTruncated で知らせる。
+ * 1行の長さで使うメモリが決まるので、不正なファイルでもメモリを使い切らない。
+ */
+class LineReader {
+
+  static final int MAX_LINE_LENGTH = 64 * 1024;
+
+  private final Reader reader;
+
+  private final StringBuilder buffer = new StringBuilder();
+
+  private long lineNumber;
+
+  private boolean truncated;
+
+  private int pushedBack = -1;
+
+  LineReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  String readLine() throws IOException {
+    buffer.setLength(0);
+    truncated = false;
+    int c = read();
+    if (c < 0) {
+      return null;
+    }
+    if (lineNumber == 0 && c == '\uFEFF') {
+      c = read();
+    }
+    lineNumber++;
+    for (; c >= 0 && c != '\n'; c = read()) {
+      if (c == '\r') {
+        int next = read();
+        if (next != '\n') {
+          pushedBack = next;
+        }
+        break;
+      }
+      if (buffer.length() < MAX_LINE_LENGTH) {
+        buffer.append((char) c);
+      } else {
+        truncated = true;
+      }
+    }
+    return buffer.toString();
+  }
+
+  long getLineNumber() {
+    return lineNumber;
+  }
+
+  boolean isTruncated() {
+    return truncated;
+  }
+
+  private int read() throws IOException {
+    if (pushedBack != -1) {
+      int c = pushedBack;
+      pushedBack = -1;
+      return c;
+    }
+    return reader.read();
+  }
+}
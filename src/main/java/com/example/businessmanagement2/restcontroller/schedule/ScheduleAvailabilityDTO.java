@@ -0,0 +1,26 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ScheduleAvailabilityDTO {
+
+  String place;
+
+  String numberoffloors;
+
+  @JsonFormat(pattern = "yyyy-MM-dd")
+  LocalDate from;
+
+  @JsonFormat(pattern = "yyyy-MM-dd")
+  LocalDate to;
+
+  @JsonFormat(pattern = "yyyy-MM-dd")
+  List<LocalDate> freedays;
+
+}
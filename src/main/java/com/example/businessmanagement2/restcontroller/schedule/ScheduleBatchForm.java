@@ -0,0 +1,22 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import java.util.List;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 各要素はリクエスト全体を400にしないよう個別に検証するので、ここでは @Valid を付けない。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleBatchForm {
+
+  @NotEmpty
+  @Size(max = 1000)
+  List<ScheduleBatchItemForm> items;
+
+}
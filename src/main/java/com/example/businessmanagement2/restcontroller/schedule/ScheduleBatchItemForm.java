@@ -0,0 +1,24 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleBatchItemForm {
+
+  @NotNull
+  @Pattern(regexp = "create|update|delete")
+  String op;
+
+  Long id;
+
+  @Valid
+  ScheduleForm schedule;
+
+}
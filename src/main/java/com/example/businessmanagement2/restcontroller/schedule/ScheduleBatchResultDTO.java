@@ -0,0 +1,25 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.restcontroller.advice.InvalidParam;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ScheduleBatchResultDTO {
+
+  int index;
+
+  String op;
+
+  String status;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  Long id;
+
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  List<InvalidParam> invalidParams;
+
+}
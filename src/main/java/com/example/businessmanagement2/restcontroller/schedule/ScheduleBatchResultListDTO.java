@@ -0,0 +1,12 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class ScheduleBatchResultListDTO {
+
+  List<ScheduleBatchResultDTO> results = new ArrayList<>();
+
+}
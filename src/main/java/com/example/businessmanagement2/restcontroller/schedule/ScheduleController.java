@@ -1,11 +1,52 @@
 package com.example.businessmanagement2.restcontroller.schedule;
 
+import com.example.businessmanagement2.repository.schedule.ScheduleCriteria;
 import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.restcontroller.advice.BadRequestErrorCreator;
+import com.example.businessmanagement2.restcontroller.advice.InvalidParam;
+import com.example.businessmanagement2.restcontroller.etag.EntityTags;
+import com.example.businessmanagement2.restcontroller.etag.ResponseBodyCache;
+import com.example.businessmanagement2.restcontroller.fields.FieldSelection;
+import com.example.businessmanagement2.restcontroller.limit.ConcurrencyPriority;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchCommand;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchOperation;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchResult;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchStatus;
 import com.example.businessmanagement2.service.Schedule.ScheduleService;
+import com.example.businessmanagement2.service.bulkhead.Bulkhead;
+import com.example.businessmanagement2.service.bulkhead.BulkheadFullException;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.limit.RequestPriority;
+import com.example.businessmanagement2.service.version.ResourceVersions;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,16 +54,35 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @RestController
 @RequiredArgsConstructor
 public class ScheduleController {
 
+  private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
   private final ScheduleService scheduleService;
 
-  private static ScheduleDTO toScheduleDTO(ScheduleEntity scheduleEntity) {
+  private final Bulkheads bulkheads;
+
+  private final ObjectMapper objectMapper;
+
+  private final Validator validator;
+
+  private final ScheduleImporter scheduleImporter;
+
+  private final ScheduleCsvExporter scheduleCsvExporter;
+
+  private final ResourceVersions resourceVersions;
+
+  private final ResponseBodyCache responseBodyCache;
+
+  public static ScheduleDTO toScheduleDTO(ScheduleEntity scheduleEntity) {
     var scheduleDTO = new ScheduleDTO(scheduleEntity.getScheduleid(), scheduleEntity.getUserid(), scheduleEntity.getWorkingdate(),
         scheduleEntity.getNumberoffloors(), scheduleEntity.getPlace(),
         scheduleEntity.getWorkcontent(), scheduleEntity.getNumberofpeople());
@@ -37,52 +97,308 @@ public class ScheduleController {
   }
 
   @GetMapping("/schedules/{id}")
-  private ResponseEntity<ScheduleDTO> showSchedule(@PathVariable("id") Long ScheduleId) {
-    var entity = scheduleService.findById(ScheduleId);
-    var dto = toScheduleDTO(entity);
-    return ResponseEntity.ok(dto);
+  @ConcurrencyPriority(RequestPriority.HIGH)
+  private CompletableFuture<ResponseEntity<?>> showSchedule(
+      @PathVariable("id") Long ScheduleId,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+    var known = resourceVersions.find(ChangeResource.SCHEDULE, ScheduleId);
+    if (known.isPresent() && EntityTags.matches(ifNoneMatch, EntityTags.of(known.getAsLong()))) {
+      return CompletableFuture.completedFuture(notModified(EntityTags.of(known.getAsLong())));
+    }
+    return bulkheads.read(() -> {
+      var generation = resourceVersions.beginRead(ChangeResource.SCHEDULE);
+      var entity = scheduleService.findById(ScheduleId);
+      resourceVersions.remember(ChangeResource.SCHEDULE, ScheduleId, entity.getVersion(),
+          generation);
+      var etag = EntityTags.of(entity.getVersion());
+      if (EntityTags.matches(ifNoneMatch, etag)) {
+        return notModified(etag);
+      }
+      if (!ResponseBodyCache.isJsonPreferred(accept)) {
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(toScheduleDTO(entity));
+      }
+      return ResponseEntity.ok()
+          .eTag(etag)
+          .varyBy(HttpHeaders.ACCEPT)
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(responseBodyCache.json(ChangeResource.SCHEDULE, ScheduleId, entity.getVersion(),
+              () -> toScheduleDTO(entity)));
+    });
   }
 
+  private static <T> ResponseEntity<T> notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+  }
+
+  /**
+   * fields を指定すると、SELECT する列とレスポンスの項目をその項目だけに絞る。
+   */
   @GetMapping("/schedules")
-  private ResponseEntity<ScheduleListDTO> findScheduleList(){
-    var entityList = scheduleService.findScheduleList();
-    var dtoList = entityList
-        .stream()
-        .map(ScheduleController::toScheduleDTO)
-        .collect(Collectors.toList());
-    var dto = new ScheduleListDTO();
-    dto.setResults(dtoList);
-    return ResponseEntity.ok(dto);
+  @ConcurrencyPriority(RequestPriority.LOW)
+  private CompletableFuture<ResponseEntity<MappingJacksonValue>> findScheduleList(
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+      @RequestParam(name = "userId", required = false) Integer userId,
+      @RequestParam(name = "place", required = false) String place,
+      @RequestParam(name = "floor", required = false) String floor,
+      @RequestParam(name = "limit", defaultValue = "100") int limit,
+      @RequestParam(name = "next", required = false) String next,
+      @RequestParam(name = "fields", required = false) String fields) {
+    var criteria = new ScheduleCriteria(from, to, userId, place, floor);
+    var selection = FieldSelection.parse(fields, ScheduleDTO.class);
+    return bulkheads.bulk(() -> {
+      var page = scheduleService.searchSchedules(criteria, selection.getFields(), next, limit);
+      var dtoList = page.getContent()
+          .stream()
+          .map(ScheduleController::toScheduleDTO)
+          .collect(Collectors.toList());
+      var dto = new ScheduleListDTO();
+      dto.setResults(dtoList);
+      dto.setNext(page.getNext());
+      return ResponseEntity.ok(selection.wrap(dto));
+    });
   }
 
-  @PostMapping("/schedules")
-  private ResponseEntity<ScheduleResponseMassage> createSchedule(@RequestBody @Validated ScheduleForm form,
-      UriComponentsBuilder uriBuilder) {
-    ScheduleEntity se = scheduleService.create(form.getUserid(), form.getWorkingdate(),
-        form.getNumberoffloors(), form.getPlace(), form.getWorkcontent(), form.getNumberofpeople());
-    URI uri = uriBuilder
-        .path("schedules/" + se.getScheduleid())
+  @GetMapping("/schedules/search")
+  @ConcurrencyPriority(RequestPriority.LOW)
+  private CompletableFuture<ResponseEntity<ScheduleListDTO>> searchSchedules(
+      @RequestParam(name = "q") String q,
+      @RequestParam(name = "limit", defaultValue = "100") int limit,
+      @RequestParam(name = "next", required = false) String next) {
+    return bulkheads.read(() -> {
+      var page = scheduleService.searchByKeyword(q, next, limit);
+      var dto = new ScheduleListDTO();
+      dto.setResults(page.getContent()
+          .stream()
+          .map(ScheduleController::toScheduleDTO)
+          .collect(Collectors.toList()));
+      dto.setNext(page.getNext());
+      return ResponseEntity.ok(dto);
+    });
+  }
+
+  /**
+   * メモリ上の索引だけで答えるので、bulkhead を通さずにこのスレッドで返す。
+   */
+  @GetMapping("/schedules/availability")
+  private ResponseEntity<ScheduleAvailabilityDTO> findAvailability(
+      @RequestParam(name = "place") String place,
+      @RequestParam(name = "floor") String floor,
+      @RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+    var freeDays = scheduleService.findFreeDays(place, floor, from, to);
+    return ResponseEntity.ok(new ScheduleAvailabilityDTO(place, floor, from, to, freeDays));
+  }
+
+  @GetMapping(value = "/schedules", params = "stream=true")
+  private ResponseEntity<StreamingResponseBody> streamScheduleList() {
+    StreamingResponseBody body = out -> {
+      try (var generator = objectMapper.createGenerator(out)) {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("results");
+        generator.flush();
+        writeEachSchedule(generator);
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  @GetMapping(value = "/schedules", produces = APPLICATION_NDJSON_VALUE)
+  private ResponseEntity<StreamingResponseBody> streamScheduleListAsNdjson() {
+    StreamingResponseBody body = out -> {
+      try (var generator = objectMapper.createGenerator(out)) {
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        writeEachSchedule(generator);
+        generator.writeRaw('\n');
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+        .body(body);
+  }
+
+  /**
+   * DTO のリストを作らず、Cursor から読んだ行をそのままジェネレーターに書き出す。
+   * 1行ごとの flush は遅いので、書き出しはレスポンスのバッファに任せる。
+   */
+  private void writeEachSchedule(JsonGenerator generator) {
+    var writer = objectMapper.writerFor(ScheduleDTO.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    scheduleService.scanScheduleList(entity -> {
+      try {
+        writer.writeValue(generator, toScheduleDTO(entity));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * 月末の集計などで期間全体を落とすためのもの。取り込みと同じく、長く続くのでリクエストのスレッドで流す。
+   */
+  @GetMapping("/schedules/export.csv")
+  private void exportScheduleCsv(
+      @RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+      HttpServletResponse response) throws IOException {
+    response.setContentType("text/csv;charset=UTF-8");
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename("schedules_" + from + "_" + to + ".csv")
         .build()
-        .toUri();
-    var srm = new ScheduleResponseMassage();
-    srm.setMessage("作業予定を登録しました");
-    return ResponseEntity.created(uri).body(srm);
+        .toString());
+    scheduleCsvExporter.export(from, to, response.getOutputStream());
+  }
+
+  @PostMapping("/schedules")
+  @ConcurrencyPriority(RequestPriority.NORMAL)
+  private CompletableFuture<ResponseEntity<ScheduleResponseMassage>> createSchedule(
+      @RequestBody @Validated ScheduleForm form, UriComponentsBuilder uriBuilder) {
+    return bulkheads.write(() -> {
+      ScheduleEntity se = scheduleService.create(form.getUserid(), form.getWorkingdate(),
+          form.getNumberoffloors(), form.getPlace(), form.getWorkcontent(),
+          form.getNumberofpeople());
+      URI uri = uriBuilder
+          .path("schedules/" + se.getScheduleid())
+          .build()
+          .toUri();
+      var srm = new ScheduleResponseMassage();
+      srm.setMessage("作業予定を登録しました");
+      return ResponseEntity.created(uri).body(srm);
+    });
+  }
+
+  @PostMapping("/schedules:batch")
+  @ConcurrencyPriority(RequestPriority.LOW)
+  private CompletableFuture<ResponseEntity<ScheduleBatchResultListDTO>> executeScheduleBatch(
+      @RequestBody @Validated ScheduleBatchForm form) {
+    var items = form.getItems();
+    var results = new ScheduleBatchResultDTO[items.size()];
+    var commands = new ArrayList<ScheduleBatchCommand>();
+    for (int i = 0; i < items.size(); i++) {
+      var item = items.get(i);
+      var invalidParams = validateBatchItem(item);
+      if (invalidParams.isEmpty()) {
+        commands.add(toScheduleBatchCommand(i, item));
+      } else {
+        results[i] = new ScheduleBatchResultDTO(i, item.getOp(), "invalid", item.getId(),
+            invalidParams);
+      }
+    }
+    return bulkheads.bulk(() -> {
+      for (var result : scheduleService.executeBatch(commands)) {
+        results[result.getIndex()] = new ScheduleBatchResultDTO(result.getIndex(),
+            result.getOperation().name().toLowerCase(), result.getStatus().name().toLowerCase(),
+            result.getScheduleId(), rejectedParams(result));
+      }
+      var dto = new ScheduleBatchResultListDTO();
+      dto.setResults(Arrays.asList(results));
+      return ResponseEntity.ok(dto);
+    });
+  }
+
+  /**
+   * 取り込みは長く続くので、非同期のタイムアウトにかからないようリクエストのスレッドで流す。
+   * ヘッダーが読めないときは書き出しを始める前に 400 を返す。
+   */
+  @PostMapping(value = "/schedules:import", consumes = {"text/csv", APPLICATION_NDJSON_VALUE})
+  private void importSchedules(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    if (!scheduleImporter.tryAcquire()) {
+      throw new BulkheadFullException(Bulkhead.BULK, null);
+    }
+    try {
+      var charset = request.getCharacterEncoding() == null
+          ? StandardCharsets.UTF_8
+          : Charset.forName(request.getCharacterEncoding());
+      var in = new InputStreamReader(request.getInputStream(), charset);
+      var reader = MediaType.parseMediaType(request.getContentType())
+          .isCompatibleWith(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+          ? scheduleImporter.ndjsonReader(in)
+          : scheduleImporter.csvReader(in);
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType(APPLICATION_NDJSON_VALUE);
+      scheduleImporter.importSchedules(reader, response.getOutputStream());
+    } finally {
+      scheduleImporter.release();
+    }
+  }
+
+  private static List<InvalidParam> rejectedParams(ScheduleBatchResult result) {
+    if (result.getReason() == null) {
+      return List.of();
+    }
+    var name = result.getStatus() == ScheduleBatchStatus.USER_NOT_FOUND ? "userid" : "schedule";
+    return List.of(BadRequestErrorCreator.createInvalidParam(name, result.getReason()));
+  }
+
+  private List<InvalidParam> validateBatchItem(ScheduleBatchItemForm item) {
+    var invalidParams = new ArrayList<>(BadRequestErrorCreator.from(validator.validate(item)));
+    if (!invalidParams.isEmpty()) {
+      return invalidParams;
+    }
+    var operation = ScheduleBatchOperation.valueOf(item.getOp().toUpperCase());
+    if (operation != ScheduleBatchOperation.CREATE && item.getId() == null) {
+      invalidParams.add(BadRequestErrorCreator.createInvalidParam("id", "must not be null"));
+    }
+    if (operation != ScheduleBatchOperation.DELETE && item.getSchedule() == null) {
+      invalidParams.add(BadRequestErrorCreator.createInvalidParam("schedule", "must not be null"));
+    }
+    return invalidParams;
+  }
+
+  private static ScheduleBatchCommand toScheduleBatchCommand(int index,
+      ScheduleBatchItemForm item) {
+    var form = item.getSchedule();
+    return switch (ScheduleBatchOperation.valueOf(item.getOp().toUpperCase())) {
+      case CREATE -> ScheduleBatchCommand.create(index, new ScheduleEntity(null, form.getUserid(),
+          form.getWorkingdate(), form.getNumberoffloors(), form.getPlace(), form.getWorkcontent(),
+          form.getNumberofpeople()));
+      case UPDATE -> ScheduleBatchCommand.update(index, new ScheduleEntity(item.getId(),
+          form.getUserid(), form.getWorkingdate(), form.getNumberoffloors(), form.getPlace(),
+          form.getWorkcontent(), form.getNumberofpeople()));
+      case DELETE -> ScheduleBatchCommand.delete(index, item.getId());
+    };
   }
 
   @PatchMapping("/schedules/{id}")
-  private ResponseEntity<ScheduleResponseMassage> updateSchedule(@PathVariable("id") Long scheduleId,
+  @ConcurrencyPriority(RequestPriority.NORMAL)
+  private CompletableFuture<ResponseEntity<?>> updateSchedule(
+      @PathVariable("id") Long scheduleId,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestHeader(name = "Prefer", required = false) String prefer,
       @RequestBody @Validated ScheduleForm form) {
-    scheduleService.update(scheduleId, form.getUserid(), form.getWorkingdate(),
-        form.getNumberoffloors(), form.getPlace(), form.getWorkcontent(), form.getNumberofpeople());
-    var srm = new ScheduleResponseMassage();
-    srm.setMessage("作業予定を更新しました");
-    return ResponseEntity.ok(srm);
+    var expectedVersion = EntityTags.parseIfMatch(ifMatch);
+    return bulkheads.write(() -> {
+      var updated = scheduleService.update(scheduleId, expectedVersion,
+          form.getUserid(), form.getWorkingdate(), form.getNumberoffloors(), form.getPlace(),
+          form.getWorkcontent(), form.getNumberofpeople());
+      if (EntityTags.prefersRepresentation(prefer)) {
+        return ResponseEntity.ok()
+            .eTag(EntityTags.of(updated.getVersion()))
+            .header("Preference-Applied", "return=representation")
+            .body(toScheduleDTO(updated));
+      }
+      var srm = new ScheduleResponseMassage();
+      srm.setMessage("作業予定を更新しました");
+      return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(srm);
+    });
   }
 
   @DeleteMapping("/schedules/{id}")
-  private ResponseEntity<ScheduleResponseMassage> deleteSchedule(@PathVariable("id") Long ScheduleId) {
-    scheduleService.delete(ScheduleId);
-    return ResponseEntity.noContent().build();
+  @ConcurrencyPriority(RequestPriority.NORMAL)
+  private CompletableFuture<ResponseEntity<ScheduleResponseMassage>> deleteSchedule(
+      @PathVariable("id") Long ScheduleId,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    var expectedVersion = EntityTags.parseIfMatch(ifMatch);
+    return bulkheads.write(() -> {
+      scheduleService.delete(ScheduleId, expectedVersion);
+      return ResponseEntity.noContent().build();
+    });
   }
 
 }
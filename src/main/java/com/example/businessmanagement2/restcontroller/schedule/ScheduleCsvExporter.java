@@ -0,0 +1,165 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import com.example.businessmanagement2.service.Schedule.InvalidScheduleCriteriaException;
+import com.example.businessmanagement2.service.Schedule.ScheduleService;
+import com.example.businessmanagement2.service.bulkhead.Bulkhead;
+import com.example.businessmanagement2.service.bulkhead.BulkheadFullException;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 期間を CHUNK_DAYS 日ずつに分け、export のプールで別々の接続から並行して読んで CSV にし、
+ * 日付の順にレスポンスへ書き出す。読み終えてまだ書いていないチャンクは MAX_IN_FLIGHT 個までなので、
+ * 期間が長くても手元に持つのはその分だけになる。
+ * 書き出しは同時に MAX_EXPORTS 本までで、一覧・検索・一括処理の bulk のプールは使わない。
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleCsvExporter {
+
+  static final int CHUNK_DAYS = 7;
+
+  /**
+   * export のプールの pool-size と queue-capacity の合計以下にする。超えると書き出しの途中で断られる。
+   */
+  static final int MAX_IN_FLIGHT = 2;
+
+  static final int MAX_EXPORTS = 1;
+
+  static final String HEADER =
+      "scheduleid,userid,workingdate,numberoffloors,place,workcontent,numberofpeople\r\n";
+
+  /**
+   * Excel が UTF-8 と判断できるよう先頭に付ける。
+   */
+  private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  private final ScheduleService scheduleService;
+
+  private final Bulkheads bulkheads;
+
+  private final Semaphore exports = new Semaphore(MAX_EXPORTS);
+
+  /**
+   * 最初のチャンクを読み終えてから書き始めるので、混んでいて読めないときはレスポンスを返す前に例外になる。
+   * 書き始めたあとに失敗したときは ScheduleExportAbortedException にする。
+   */
+  public void export(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+    if (from.isAfter(to)) {
+      throw new InvalidScheduleCriteriaException("to", "to must be on or after from.");
+    }
+    if (!exports.tryAcquire()) {
+      throw new BulkheadFullException(Bulkhead.EXPORT, null);
+    }
+    try {
+      write(from, to, out);
+    } finally {
+      exports.release();
+    }
+  }
+
+  private void write(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+    var inFlight = new ArrayDeque<CompletableFuture<byte[]>>(MAX_IN_FLIGHT);
+    var next = from;
+    while (inFlight.size() < MAX_IN_FLIGHT && !next.isAfter(to)) {
+      inFlight.add(readChunk(next, min(next.plusDays(CHUNK_DAYS - 1), to)));
+      next = next.plusDays(CHUNK_DAYS);
+    }
+    join(inFlight.peek());
+    out.write(BOM);
+    out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+    while (!inFlight.isEmpty()) {
+      byte[] chunk;
+      try {
+        chunk = join(inFlight.poll());
+        if (!next.isAfter(to)) {
+          inFlight.add(readChunk(next, min(next.plusDays(CHUNK_DAYS - 1), to)));
+          next = next.plusDays(CHUNK_DAYS);
+        }
+      } catch (RuntimeException e) {
+        throw new ScheduleExportAbortedException(e);
+      }
+      out.write(chunk);
+      out.flush();
+    }
+  }
+
+  private CompletableFuture<byte[]> readChunk(LocalDate from, LocalDate to) {
+    return bulkheads.export(() -> {
+      var bytes = new ByteArrayOutputStream();
+      try (var writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+        scheduleService.scanScheduleList(from, to, entity -> writeRow(writer, entity));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    });
+  }
+
+  private static void writeRow(Writer writer, ScheduleEntity entity) {
+    try {
+      writer.write(String.valueOf(entity.getScheduleid()));
+      writer.write(',');
+      writer.write(String.valueOf(entity.getUserid()));
+      writer.write(',');
+      writer.write(WorkingDates.toLocalDate(entity.getWorkingdate()).toString());
+      writer.write(',');
+      writer.write(quote(entity.getNumberoffloors()));
+      writer.write(',');
+      writer.write(quote(entity.getPlace()));
+      writer.write(',');
+      writer.write(quote(entity.getWorkcontent()));
+      writer.write(',');
+      writer.write(quote(entity.getNumberofpeople()));
+      writer.write("\r\n");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * カンマ・ダブルクォート・改行を含む値だけを囲む（RFC 4180）。
+   */
+  static String quote(String value) {
+    if (value == null) {
+      return "";
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+        return '"' + value.replace("\"", "\"\"") + '"';
+      }
+    }
+    return value;
+  }
+
+  private static byte[] join(CompletableFuture<byte[]> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static LocalDate min(LocalDate a, LocalDate b) {
+    return a.isBefore(b) ? a : b;
+  }
+}
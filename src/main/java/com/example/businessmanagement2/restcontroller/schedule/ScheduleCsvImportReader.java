@@ -0,0 +1,193 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import com.example.businessmanagement2.restcontroller.advice.BadRequestErrorCreator;
+import com.example.businessmanagement2.restcontroller.advice.InvalidParam;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 1行目が列名の CSV（RFC 4180）。列の順番は問わない。ダブルクォートで囲んだ値には
+ * カンマ・改行・"" を含められる。workingdate は yyyy-MM-dd と yyyy/MM/dd のどちらでもよい。
+ */
+class ScheduleCsvImportReader implements ScheduleImportReader {
+
+  static final List<String> COLUMNS = List.of("userid", "workingdate", "numberoffloors", "place",
+      "workcontent", "numberofpeople");
+
+  private static final int MAX_FIELD_LENGTH = 4096;
+
+  private static final DateTimeFormatter SLASHED_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+  private final Reader reader;
+
+  private final Map<String, Integer> columns = new HashMap<>();
+
+  private final StringBuilder field = new StringBuilder();
+
+  private long lineNumber = 1;
+
+  private long recordLine;
+
+  private boolean truncated;
+
+  private int pushedBack = -2;
+
+  /**
+   * ここで列名の行を読む。必要な列が足りなければ InvalidScheduleImportException。
+   */
+  ScheduleCsvImportReader(Reader reader) throws IOException {
+    this.reader = reader;
+    int first = reader.read();
+    if (first != '\uFEFF') {
+      pushedBack = first;
+    }
+    var header = readRecord();
+    if (header == null) {
+      throw new InvalidScheduleImportException("header", "the file is empty");
+    }
+    for (int i = 0; i < header.size(); i++) {
+      columns.putIfAbsent(header.get(i).strip().toLowerCase(Locale.ROOT), i);
+    }
+    var missing = COLUMNS.stream().filter(name -> !columns.containsKey(name)).toList();
+    if (!missing.isEmpty()) {
+      throw new InvalidScheduleImportException("header", "missing columns " + missing);
+    }
+  }
+
+  @Override
+  public ScheduleImportRecord next() throws IOException {
+    List<String> values;
+    do {
+      values = readRecord();
+      if (values == null) {
+        return null;
+      }
+    } while (values.size() == 1 && values.get(0).isEmpty());
+    if (truncated) {
+      return ScheduleImportRecord.invalid(recordLine, List.of(BadRequestErrorCreator
+          .createInvalidParam("line", "a value must be at most " + MAX_FIELD_LENGTH
+              + " characters")));
+    }
+    var invalidParams = new ArrayList<InvalidParam>();
+    Integer userid = null;
+    try {
+      userid = Integer.valueOf(value(values, "userid").strip());
+    } catch (NumberFormatException e) {
+      invalidParams.add(BadRequestErrorCreator.createInvalidParam("userid", "must be an integer"));
+    }
+    Date workingdate = null;
+    try {
+      workingdate = toDate(value(values, "workingdate").strip());
+    } catch (DateTimeParseException e) {
+      invalidParams.add(BadRequestErrorCreator.createInvalidParam("workingdate",
+          "must be yyyy-MM-dd or yyyy/MM/dd"));
+    }
+    if (!invalidParams.isEmpty()) {
+      return ScheduleImportRecord.invalid(recordLine, invalidParams);
+    }
+    return ScheduleImportRecord.of(recordLine, new ScheduleForm(userid, workingdate,
+        value(values, "numberoffloors"), value(values, "place"), value(values, "workcontent"),
+        value(values, "numberofpeople")));
+  }
+
+  private String value(List<String> values, String column) {
+    int index = columns.get(column);
+    return index < values.size() ? values.get(index) : "";
+  }
+
+  private static Date toDate(String value) {
+    return WorkingDates.toDate(value.contains("/")
+        ? LocalDate.parse(value, SLASHED_DATE)
+        : LocalDate.parse(value));
+  }
+
+  /**
+   * 1レコード分の値を返す。終わりなら null。
+   */
+  private List<String> readRecord() throws IOException {
+    int c = read();
+    if (c < 0) {
+      return null;
+    }
+    recordLine = lineNumber;
+    truncated = false;
+    var values = new ArrayList<String>();
+    field.setLength(0);
+    boolean quoted = false;
+    boolean inQuotes = false;
+    for (; ; c = read()) {
+      if (inQuotes) {
+        if (c < 0) {
+          break;
+        }
+        if (c == '"') {
+          int next = read();
+          if (next == '"') {
+            append('"');
+            continue;
+          }
+          inQuotes = false;
+          c = next;
+        } else {
+          if (c == '\n') {
+            lineNumber++;
+          }
+          append((char) c);
+          continue;
+        }
+      }
+      if (c < 0 || c == '\n' || c == '\r') {
+        if (c == '\r') {
+          int next = read();
+          if (next != '\n') {
+            pushedBack = next;
+          }
+        }
+        if (c >= 0) {
+          lineNumber++;
+        }
+        values.add(field.toString());
+        return values;
+      }
+      if (c == ',') {
+        values.add(field.toString());
+        field.setLength(0);
+        quoted = false;
+      } else if (c == '"' && field.length() == 0 && !quoted) {
+        quoted = true;
+        inQuotes = true;
+      } else {
+        append((char) c);
+      }
+    }
+    values.add(field.toString());
+    return values;
+  }
+
+  private void append(char c) {
+    if (field.length() < MAX_FIELD_LENGTH) {
+      field.append(c);
+    } else {
+      truncated = true;
+    }
+  }
+
+  private int read() throws IOException {
+    if (pushedBack != -2) {
+      int c = pushedBack;
+      pushedBack = -2;
+      return c;
+    }
+    return reader.read();
+  }
+}
@@ -1,5 +1,7 @@
 package com.example.businessmanagement2.restcontroller.schedule;
 
+import com.example.businessmanagement2.restcontroller.fields.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import java.util.Date;
 import javax.validation.constraints.Pattern;
@@ -8,6 +10,7 @@ import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class ScheduleDTO {
 
   long id;
@@ -0,0 +1,13 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+/**
+ * CSV を書き始めたあとに読み取りが失敗した。200 とヘッダーは送ってしまっているので、
+ * わざと CustomExceptionHandler で扱わずにコンテナまで投げ、接続を切ってもらう。
+ * きれいに閉じると、クライアントは途中までの CSV を最後まで受け取ったと思ってしまう。
+ */
+public class ScheduleExportAbortedException extends RuntimeException {
+
+  public ScheduleExportAbortedException(Throwable cause) {
+    super("Schedule export failed after the response was committed.", cause);
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.restcontroller.advice.InvalidParam;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ScheduleImportErrorDTO {
+
+  long line;
+
+  /**
+   * invalid（形式や値の誤り）、user_not_found（userid のユーザーがいない）、
+   * conflict（既存のデータとの競合）のどれか。
+   */
+  String status;
+
+  List<InvalidParam> invalidParams;
+
+}
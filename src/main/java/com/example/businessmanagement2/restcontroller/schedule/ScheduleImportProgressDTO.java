@@ -0,0 +1,18 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ScheduleImportProgressDTO {
+
+  long records;
+
+  long imported;
+
+  long failed;
+
+  boolean done;
+
+}
@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import java.io.IOException;
+
+/**
+ * リクエストボディから1レコードずつ読む。ファイル全体を読み込まずに済むよう、読んだ分だけ返す。
+ */
+public interface ScheduleImportReader {
+
+  /**
+   * 次のレコードを返す。終わりなら null。
+   */
+  ScheduleImportRecord next() throws IOException;
+}
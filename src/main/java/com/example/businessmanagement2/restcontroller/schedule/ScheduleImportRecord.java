@@ -0,0 +1,26 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.restcontroller.advice.InvalidParam;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * 取り込むファイルの1レコード。読めなかったときは form が null で、invalidParams に理由が入る。
+ */
+@Value
+public class ScheduleImportRecord {
+
+  long line;
+
+  ScheduleForm form;
+
+  List<InvalidParam> invalidParams;
+
+  static ScheduleImportRecord of(long line, ScheduleForm form) {
+    return new ScheduleImportRecord(line, form, List.of());
+  }
+
+  static ScheduleImportRecord invalid(long line, List<InvalidParam> invalidParams) {
+    return new ScheduleImportRecord(line, null, invalidParams);
+  }
+}
@@ -0,0 +1,223 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.repository.dialect.IntegrityViolations;
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.restcontroller.advice.BadRequestErrorCreator;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchCommand;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchItemException;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchResult;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchStatus;
+import com.example.businessmanagement2.service.Schedule.ScheduleService;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlotConflictException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import javax.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 読んだレコードを CHUNK_SIZE 件ずつ executeBatch で1トランザクションにまとめて登録し、
+ * エラーになった行とチャンクごとの進み具合を NDJSON で書き出す。
+ * 次のチャンクは前のチャンクを書き終えてから読むので、送り手は DB の速さに合わせて待たされ、
+ * 手元に持つのは常に1チャンク分だけになる。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduleImporter {
+
+  static final int CHUNK_SIZE = 500;
+
+  /**
+   * 取り込みはリクエストのスレッドで長く走るので、同時に走らせる数を絞る。
+   */
+  private static final int MAX_CONCURRENT_IMPORTS = 1;
+
+  private final ScheduleService scheduleService;
+
+  private final Validator validator;
+
+  private final ObjectMapper objectMapper;
+
+  private final Semaphore permits = new Semaphore(MAX_CONCURRENT_IMPORTS);
+
+  boolean tryAcquire() {
+    return permits.tryAcquire();
+  }
+
+  void release() {
+    permits.release();
+  }
+
+  public ScheduleImportReader csvReader(Reader reader) throws IOException {
+    return new ScheduleCsvImportReader(reader);
+  }
+
+  public ScheduleImportReader ndjsonReader(Reader reader) {
+    return new ScheduleNdjsonImportReader(reader, objectMapper.reader());
+  }
+
+  public ScheduleImportProgressDTO importSchedules(ScheduleImportReader reader, OutputStream out)
+      throws IOException {
+    try (var generator = objectMapper.createGenerator(out)) {
+      generator.setRootValueSeparator(new SerializedString("\n"));
+      var progress = new ScheduleImportProgressDTO(0, 0, 0, false);
+      var chunk = new ArrayList<ScheduleImportRecord>(CHUNK_SIZE);
+      for (var record = reader.next(); record != null; record = reader.next()) {
+        progress.setRecords(progress.getRecords() + 1);
+        var invalidParams = record.getForm() == null
+            ? record.getInvalidParams()
+            : BadRequestErrorCreator.from(validator.validate(record.getForm()));
+        if (!invalidParams.isEmpty()) {
+          progress.setFailed(progress.getFailed() + 1);
+          write(generator, new ScheduleImportErrorDTO(record.getLine(), "invalid", invalidParams));
+          continue;
+        }
+        chunk.add(record);
+        if (chunk.size() == CHUNK_SIZE) {
+          importChunk(chunk, progress, generator);
+        }
+      }
+      importChunk(chunk, progress, generator);
+      progress.setDone(true);
+      write(generator, progress);
+      return progress;
+    }
+  }
+
+  /**
+   * userid がない行とスロットが使われている行は executeBatch が要素ごとの結果で返すので、その行だけ失敗にする。
+   * DB の制約に引っかかるとバッチ全体が取り消される。例外に原因の index があればその行だけ外して残りを
+   * もう一度1つのバッチで入れ、index が分からないときだけ残りを1件ずつ入れ直す。
+   */
+  private void importChunk(List<ScheduleImportRecord> chunk, ScheduleImportProgressDTO progress,
+      JsonGenerator generator) throws IOException {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    var commands = new ArrayList<ScheduleBatchCommand>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      commands.add(ScheduleBatchCommand.create(i, toScheduleEntity(chunk.get(i).getForm())));
+    }
+    while (!commands.isEmpty()) {
+      List<ScheduleBatchResult> results;
+      try {
+        results = scheduleService.executeBatch(commands);
+      } catch (ScheduleBatchItemException e) {
+        var failed = find(commands, e.getIndex());
+        if (failed == null) {
+          importOneByOne(chunk, commands, progress, generator);
+          break;
+        }
+        commands.remove(failed);
+        progress.setFailed(progress.getFailed() + 1);
+        write(generator, rejected(chunk.get(failed.getIndex()), e.getStatus(), reason(e)));
+        continue;
+      } catch (DataIntegrityViolationException e) {
+        importOneByOne(chunk, commands, progress, generator);
+        break;
+      }
+      for (var result : results) {
+        if (result.getStatus() == ScheduleBatchStatus.CREATED) {
+          progress.setImported(progress.getImported() + 1);
+        } else {
+          progress.setFailed(progress.getFailed() + 1);
+          write(generator, rejected(chunk.get(result.getIndex()), result.getStatus(),
+              result.getReason()));
+        }
+      }
+      break;
+    }
+    chunk.clear();
+    write(generator, progress);
+    generator.flush();
+  }
+
+  private static ScheduleBatchCommand find(List<ScheduleBatchCommand> commands, Integer index) {
+    if (index == null) {
+      return null;
+    }
+    return commands.stream()
+        .filter(command -> command.getIndex() == index)
+        .findFirst()
+        .orElse(null);
+  }
+
+  private void importOneByOne(List<ScheduleImportRecord> chunk,
+      List<ScheduleBatchCommand> commands, ScheduleImportProgressDTO progress,
+      JsonGenerator generator) throws IOException {
+    for (var command : commands) {
+      var record = chunk.get(command.getIndex());
+      var form = record.getForm();
+      try {
+        scheduleService.create(form.getUserid(), form.getWorkingdate(),
+            form.getNumberoffloors(), form.getPlace(), form.getWorkcontent(),
+            form.getNumberofpeople());
+        progress.setImported(progress.getImported() + 1);
+      } catch (ScheduleSlotConflictException e) {
+        progress.setFailed(progress.getFailed() + 1);
+        write(generator, rejected(record, ScheduleBatchStatus.CONFLICT, e.getMessage()));
+      } catch (DataIntegrityViolationException e) {
+        progress.setFailed(progress.getFailed() + 1);
+        write(generator, rejected(record, IntegrityViolations.isMissingParent(e)
+            ? ScheduleBatchStatus.USER_NOT_FOUND
+            : ScheduleBatchStatus.CONFLICT, reason(e)));
+      }
+    }
+  }
+
+  private static ScheduleImportErrorDTO rejected(ScheduleImportRecord record,
+      ScheduleBatchStatus status, String reason) {
+    if (status == ScheduleBatchStatus.USER_NOT_FOUND) {
+      return new ScheduleImportErrorDTO(record.getLine(), "user_not_found",
+          List.of(BadRequestErrorCreator.createInvalidParam("userid", reason)));
+    }
+    return new ScheduleImportErrorDTO(record.getLine(), "conflict",
+        List.of(BadRequestErrorCreator.createInvalidParam("schedule", reason)));
+  }
+
+  private static ScheduleEntity toScheduleEntity(ScheduleForm form) {
+    return new ScheduleEntity(null, form.getUserid(), form.getWorkingdate(),
+        form.getNumberoffloors(), form.getPlace(), form.getWorkcontent(),
+        form.getNumberofpeople());
+  }
+
+  /**
+   * ドライバのメッセージは表や制約の名前を含むので、ログにだけ書いて決まった文言を返す。
+   */
+  private static String reason(DataIntegrityViolationException e) {
+    log.info("Import row rejected: {}", IntegrityViolations.driverMessage(e));
+    return reason(IntegrityViolations.isMissingParent(e)
+        ? ScheduleBatchStatus.USER_NOT_FOUND
+        : ScheduleBatchStatus.CONFLICT);
+  }
+
+  /**
+   * 例外のメッセージはチャンクの中の index を指すので、行の番号を返す取り込みでは使わない。
+   */
+  private static String reason(ScheduleBatchItemException e) {
+    if (e.getCause() instanceof DataIntegrityViolationException integrity) {
+      log.info("Import row rejected: {}", IntegrityViolations.driverMessage(integrity));
+    }
+    return reason(e.getStatus());
+  }
+
+  private static String reason(ScheduleBatchStatus status) {
+    return status == ScheduleBatchStatus.USER_NOT_FOUND
+        ? "User does not exist."
+        : "Another schedule already uses the same place, floor and date.";
+  }
+
+  private void write(JsonGenerator generator, Object value) throws IOException {
+    objectMapper.writeValue(generator, value);
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.businessmanagement2.restcontroller.schedule;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
@@ -9,4 +10,7 @@ public class ScheduleListDTO {
 
   List<ScheduleDTO> results = new ArrayList<>();
 
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  String next;
+
 }
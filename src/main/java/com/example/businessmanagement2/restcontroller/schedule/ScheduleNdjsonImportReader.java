@@ -0,0 +1,45 @@
+package com.example.businessmanagement2.restcontroller.schedule;
+
+import com.example.businessmanagement2.restcontroller.advice.BadRequestErrorCreator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * 1行に1つの ScheduleForm の JSON。壊れた行はその行だけエラーにして次の行へ進む。
+ */
+class ScheduleNdjsonImportReader implements ScheduleImportReader {
+
+  private final LineReader lines;
+
+  private final ObjectReader formReader;
+
+  ScheduleNdjsonImportReader(Reader reader, ObjectReader formReader) {
+    this.lines = new LineReader(reader);
+    this.formReader = formReader.forType(ScheduleForm.class);
+  }
+
+  @Override
+  public ScheduleImportRecord next() throws IOException {
+    String line;
+    do {
+      line = lines.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.isBlank());
+    if (lines.isTruncated()) {
+      return ScheduleImportRecord.invalid(lines.getLineNumber(), List.of(
+          BadRequestErrorCreator.createInvalidParam("line",
+              "must be at most " + LineReader.MAX_LINE_LENGTH + " characters")));
+    }
+    try {
+      return ScheduleImportRecord.of(lines.getLineNumber(), formReader.readValue(line));
+    } catch (JsonProcessingException e) {
+      return ScheduleImportRecord.invalid(lines.getLineNumber(), List.of(
+          BadRequestErrorCreator.createInvalidParam("line", e.getOriginalMessage())));
+    }
+  }
+}
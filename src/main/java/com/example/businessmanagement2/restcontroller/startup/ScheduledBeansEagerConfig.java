@@ -0,0 +1,24 @@
+package com.example.businessmanagement2.restcontroller.startup;
+
+import java.lang.reflect.Method;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * spring.main.lazy-initialization=true でも、@Scheduled を持つ Bean だけは起動時に作る。
+ * 遅延させるとキャッシュの無効化やレプリカの遅れの確認が、最初に使われるまで始まらない。
+ */
+@Configuration(proxyBeanMethods = false)
+public class ScheduledBeansEagerConfig {
+
+  @Bean
+  public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+    return (beanName, beanDefinition, beanType) -> !MethodIntrospector.selectMethods(beanType,
+        (MethodIntrospector.MetadataLookup<Scheduled>) (Method method) ->
+            AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.businessmanagement2.restcontroller.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * JVM の起動から準備完了までの時間を application.jvm-ready.time として出す。
+ * Spring Boot の application.ready.time は SpringApplication.run からの時間で、
+ * AppCDS で短くなる JVM の起動と main までのクラスの読み込みを含まない。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupMetrics implements ApplicationListener<ApplicationReadyEvent> {
+
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    var uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    TimeGauge.builder("application.jvm-ready.time", () -> uptimeMillis, TimeUnit.MILLISECONDS)
+        .description("Time from JVM start until the application is ready to service requests")
+        .register(meterRegistry);
+    log.info("Ready {} ms after JVM start ({} ms in SpringApplication.run)", uptimeMillis,
+        event.getTimeTaken().toMillis());
+  }
+}
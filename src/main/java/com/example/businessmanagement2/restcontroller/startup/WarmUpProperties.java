@@ -0,0 +1,36 @@
+package com.example.businessmanagement2.restcontroller.startup;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.warm-up")
+public class WarmUpProperties {
+
+  /**
+   * true なら、準備完了（readiness）を返す前に読み取りのエンドポイントを自分に向けて呼ぶ。
+   */
+  private boolean enabled = false;
+
+  /**
+   * 1スレッドあたりの周回数。1周で一覧と1件取得をひととおり呼ぶ。
+   * C2 でコンパイルされるまでの呼び出し回数（数千〜1万回）を超えるくらいにする。
+   */
+  private int iterations = 1000;
+
+  private int threads = 4;
+
+  /**
+   * 周回が終わらなくても、これを過ぎたら打ち切って準備完了にする。
+   */
+  private Duration maxDuration = Duration.ofSeconds(30);
+
+  /**
+   * AppCDS のアーカイブを作る学習用の実行で使う。ウォームアップが終わったらアプリを終了する。
+   */
+  private boolean exitWhenDone = false;
+
+}
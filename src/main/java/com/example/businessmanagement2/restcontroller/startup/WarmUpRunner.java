@@ -0,0 +1,162 @@
+package com.example.businessmanagement2.restcontroller.startup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * ApplicationRunner は準備完了（readiness が ACCEPTING_TRAFFIC になる）より前に呼ばれるので、
+ * ここで自分の読み取りのエンドポイントを HTTP で呼んでおく。遅延初期化した Bean の生成、MyBatis の XML の読み込み、
+ * JIT のコンパイルを、ロードバランサーからリクエストが振られる前に済ませられる。書き込みのエンドポイントは呼ばない。
+ * 索引を作るほかの ApplicationRunner の後に動くよう、順番は最後にする。
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "app.warm-up", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class WarmUpRunner implements ApplicationRunner {
+
+  private static final int DISCOVERY_LIMIT = 100;
+
+  private final WarmUpProperties properties;
+
+  private final Environment environment;
+
+  private final ObjectMapper objectMapper;
+
+  private final MeterRegistry meterRegistry;
+
+  private final ConfigurableApplicationContext context;
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    var port = environment.getProperty("local.server.port", Integer.class);
+    if (port == null) {
+      log.warn("Skipped warm-up because no web server is running");
+      return;
+    }
+    var base = URI.create("http://localhost:" + port);
+    var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    var started = System.nanoTime();
+    var deadline = started + properties.getMaxDuration().toNanos();
+
+    var paths = discoverPaths(client, base);
+    var sent = new AtomicLong();
+    var failed = new AtomicLong();
+    var executor = Executors.newFixedThreadPool(properties.getThreads());
+    for (int t = 0; t < properties.getThreads(); t++) {
+      var offset = t;
+      executor.execute(() -> {
+        for (int i = 0; i < properties.getIterations(); i++) {
+          for (var path : paths.get((i + offset) % paths.size())) {
+            if (System.nanoTime() - deadline > 0) {
+              return;
+            }
+            sent.incrementAndGet();
+            if (send(client, base.resolve(path)) == null) {
+              failed.incrementAndGet();
+            }
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    if (!executor.awaitTermination(properties.getMaxDuration().toSeconds() + 10,
+        TimeUnit.SECONDS)) {
+      executor.shutdownNow();
+    }
+
+    var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    TimeGauge.builder("application.warm-up.time", () -> elapsedMillis, TimeUnit.MILLISECONDS)
+        .description("Time spent warming up the request paths before reporting ready")
+        .register(meterRegistry);
+    log.info("Warmed up with {} requests in {} ms ({} failed)", sent.get(), elapsedMillis,
+        failed.get());
+
+    if (properties.isExitWhenDone()) {
+      System.exit(SpringApplication.exit(context));
+    }
+  }
+
+  /**
+   * 実際にある ID を一覧から拾い、1周で呼ぶパスの組を ID ごとに作る。
+   * データが空でも 404 の経路を温められるよう、ID 1 を使う。
+   */
+  private List<List<String>> discoverPaths(HttpClient client, URI base) {
+    var users = results(send(client, base.resolve("/users?limit=" + DISCOVERY_LIMIT)));
+    var schedules = results(send(client, base.resolve("/schedules?limit=" + DISCOVERY_LIMIT)));
+    var paths = new ArrayList<List<String>>();
+    for (int i = 0; i < Math.max(1, Math.max(users.size(), schedules.size())); i++) {
+      var userId = users.isEmpty() ? 1 : users.get(i % users.size()).path("id").asLong();
+      var schedule = schedules.isEmpty() ? null : schedules.get(i % schedules.size());
+      var scheduleId = schedule == null ? 1 : schedule.path("id").asLong();
+      var from = schedule == null ? LocalDate.now()
+          : LocalDate.parse(schedule.path("workingdate").asText());
+      var scheduleUserId = schedule == null ? userId : schedule.path("userid").asLong();
+      paths.add(List.of(
+          "/users",
+          "/users/" + userId,
+          "/schedules/" + scheduleId,
+          "/schedules?userId=" + scheduleUserId + "&from=" + from + "&to=" + from.plusDays(6)
+              + "&limit=20"));
+    }
+    return paths;
+  }
+
+  private List<JsonNode> results(byte[] body) {
+    var results = new ArrayList<JsonNode>();
+    if (body == null) {
+      return results;
+    }
+    try {
+      objectMapper.readTree(body).path("results").forEach(results::add);
+    } catch (IOException e) {
+      log.warn("Could not read the list for warm-up", e);
+    }
+    return results;
+  }
+
+  /**
+   * 失敗したら null を返す。2xx でなくても経路は温まるので、応答があれば本文を返す。
+   */
+  private static byte[] send(HttpClient client, URI uri) {
+    var request = HttpRequest.newBuilder(uri)
+        .timeout(Duration.ofSeconds(10))
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+    try {
+      return client.send(request, BodyHandlers.ofByteArray()).body();
+    } catch (IOException e) {
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+}
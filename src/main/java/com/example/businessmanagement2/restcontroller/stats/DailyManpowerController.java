@@ -0,0 +1,45 @@
+package com.example.businessmanagement2.restcontroller.stats;
+
+import com.example.businessmanagement2.repository.stats.DailyManpowerEntity;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import com.example.businessmanagement2.service.stats.DailyManpowerService;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class DailyManpowerController {
+
+  private final DailyManpowerService dailyManpowerService;
+
+  private final Bulkheads bulkheads;
+
+  private static DailyManpowerDTO toDailyManpowerDTO(DailyManpowerEntity entity) {
+    return new DailyManpowerDTO(entity.getWorkingdate(), entity.getUserid(),
+        entity.getNumberoffloors(), entity.getTotalpeople(), entity.getSchedulecount());
+  }
+
+  @GetMapping("/schedules/stats/daily")
+  public CompletableFuture<ResponseEntity<DailyManpowerListDTO>> findDailyManpower(
+      @RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+      @RequestParam(name = "userId", required = false) Integer userId) {
+    return bulkheads.read(() -> {
+      var dtoList = dailyManpowerService.findDaily(from, to, userId)
+          .stream()
+          .map(DailyManpowerController::toDailyManpowerDTO)
+          .collect(Collectors.toList());
+      var dto = new DailyManpowerListDTO();
+      dto.setResults(dtoList);
+      return ResponseEntity.ok(dto);
+    });
+  }
+}
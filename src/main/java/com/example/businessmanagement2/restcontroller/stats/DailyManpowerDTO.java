@@ -0,0 +1,23 @@
+package com.example.businessmanagement2.restcontroller.stats;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DailyManpowerDTO {
+
+  @JsonFormat(pattern = "yyyy-MM-dd")
+  LocalDate workingdate;
+
+  int userid;
+
+  String numberoffloors;
+
+  int totalpeople;
+
+  int schedulecount;
+
+}
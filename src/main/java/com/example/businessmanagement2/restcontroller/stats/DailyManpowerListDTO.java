@@ -0,0 +1,12 @@
+package com.example.businessmanagement2.restcontroller.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class DailyManpowerListDTO {
+
+  List<DailyManpowerDTO> results = new ArrayList<>();
+
+}
@@ -1,15 +1,29 @@
 package com.example.businessmanagement2.restcontroller.user;
 
 import com.example.businessmanagement2.repository.user.UserEntity;
+import com.example.businessmanagement2.repository.routing.RoutingContext;
 import com.example.businessmanagement2.repository.user.UserRepository;
+import com.example.businessmanagement2.restcontroller.etag.EntityTags;
+import com.example.businessmanagement2.restcontroller.etag.ResponseBodyCache;
+import com.example.businessmanagement2.restcontroller.fields.FieldSelection;
+import com.example.businessmanagement2.restcontroller.limit.ConcurrencyPriority;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.limit.RequestPriority;
 import com.example.businessmanagement2.service.user.UserService;
+import com.example.businessmanagement2.service.version.ResourceVersions;
 
 import java.net.URI;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,8 +31,10 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -29,7 +45,13 @@ public class UserController {
 
   private final UserService userService;
 
-  private static UserDTO toUserDTO(UserEntity userEntity) {
+  private final Bulkheads bulkheads;
+
+  private final ResourceVersions resourceVersions;
+
+  private final ResponseBodyCache responseBodyCache;
+
+  public static UserDTO toUserDTO(UserEntity userEntity) {
     var userDTO = new UserDTO(userEntity.getUserid(), userEntity.getCompanyname(),
         userEntity.getUsername());
     userDTO.setId(userEntity.getUserid());
@@ -38,51 +60,134 @@ public class UserController {
     return userDTO;
   }
 
+  /**
+   * 覚えているバージョンが If-None-Match と一致すれば、DB もプールも使わずに 304 を返す。
+   */
   @GetMapping("/users/{id}")
-  public ResponseEntity<UserDTO> showUser(@PathVariable("id") Long userId) {
-    var entity = userService.findById(userId);
-    var dto = toUserDTO(entity);
-    return ResponseEntity.ok(dto);
+  @ConcurrencyPriority(RequestPriority.HIGH)
+  public CompletableFuture<ResponseEntity<?>> showUser(@PathVariable("id") Long userId,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+    var known = resourceVersions.find(ChangeResource.USER, userId);
+    if (known.isPresent() && EntityTags.matches(ifNoneMatch, EntityTags.of(known.getAsLong()))) {
+      return CompletableFuture.completedFuture(notModified(EntityTags.of(known.getAsLong())));
+    }
+    return bulkheads.read(() -> {
+      var generation = resourceVersions.beginRead(ChangeResource.USER);
+      var entity = userService.findById(userId);
+      resourceVersions.remember(ChangeResource.USER, userId, entity.getVersion(), generation);
+      var etag = EntityTags.of(entity.getVersion());
+      if (EntityTags.matches(ifNoneMatch, etag)) {
+        return notModified(etag);
+      }
+      if (!ResponseBodyCache.isJsonPreferred(accept)) {
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(toUserDTO(entity));
+      }
+      return ResponseEntity.ok()
+          .eTag(etag)
+          .varyBy(HttpHeaders.ACCEPT)
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(responseBodyCache.json(ChangeResource.USER, userId, entity.getVersion(),
+              () -> toUserDTO(entity)));
+    });
   }
 
+  /**
+   * ETag は users 表の世代から作るので、どのページでも表が変わらない限り同じ値になる。
+   * fields はレスポンスの項目だけを絞る。ページは UserCache に全項目で載せているので、SELECT は変えない。
+   */
   @GetMapping("/users")
-  private ResponseEntity<UserListDTO> findUserList() {
-    var entityList = userService.findUserList();
-    var dtoList = entityList
-        .stream()
-        .map(UserController::toUserDTO)
-        .collect(Collectors.toList());
-    var dto = new UserListDTO();
-    dto.setResults(dtoList);
-    return ResponseEntity.ok(dto);
+  @ConcurrencyPriority(RequestPriority.LOW)
+  private CompletableFuture<ResponseEntity<MappingJacksonValue>> findUserList(
+      @RequestParam(name = "limit", defaultValue = "100") int limit,
+      @RequestParam(name = "next", required = false) String next,
+      @RequestParam(name = "fields", required = false) String fields,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    var selection = FieldSelection.parse(fields, UserDTO.class);
+    var known = resourceVersions.tableTag(ChangeResource.USER);
+    if (known.isPresent() && EntityTags.matches(ifNoneMatch, known.get())) {
+      return CompletableFuture.completedFuture(notModified(known.get()));
+    }
+    return bulkheads.bulk(() -> {
+      resourceVersions.beginRead(ChangeResource.USER);
+      var tag = resourceVersions.tableTag(ChangeResource.USER);
+      var page = userService.findUserPage(next, limit);
+      var dtoList = page.getContent()
+          .stream()
+          .map(UserController::toUserDTO)
+          .collect(Collectors.toList());
+      var dto = new UserListDTO();
+      dto.setResults(dtoList);
+      dto.setNext(page.getNext());
+      var response = ResponseEntity.ok();
+      if (tag.isPresent() && !RoutingContext.hasReadFromReplica()
+          && tag.equals(resourceVersions.tableTag(ChangeResource.USER))) {
+        response.eTag(tag.get());
+      }
+      return response.body(selection.wrap(dto));
+    });
+  }
+
+  private static <T> ResponseEntity<T> notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
   }
 
   @PostMapping("/users")
-  private ResponseEntity<UserResponseMessage> createUser(@RequestBody @Validated UserForm form,
-      UriComponentsBuilder uriBuilder) {
-    UserEntity ur = userService.create(form.getCompanyname(), form.getUsername());
-    URI url = uriBuilder
-        .path("users/" + ur.getUserid())
-        .build()
-        .toUri();
-    var urm = new UserResponseMessage();
-    urm.setMessage("ユーザーを登録しました");
-    return ResponseEntity.created(url).body(urm);
+  @ConcurrencyPriority(RequestPriority.NORMAL)
+  private CompletableFuture<ResponseEntity<UserResponseMessage>> createUser(
+      @RequestBody @Validated UserForm form, UriComponentsBuilder uriBuilder) {
+    return bulkheads.write(() -> {
+      UserEntity ur = userService.create(form.getCompanyname(), form.getUsername());
+      URI url = uriBuilder
+          .path("users/" + ur.getUserid())
+          .build()
+          .toUri();
+      var urm = new UserResponseMessage();
+      urm.setMessage("ユーザーを登録しました");
+      return ResponseEntity.created(url).body(urm);
+    });
   }
 
 
   @PatchMapping("/users/{id}")
-  public ResponseEntity<UserResponseMessage> updateUser(@PathVariable("id") Long userId,
+  @ConcurrencyPriority(RequestPriority.NORMAL)
+  public CompletableFuture<ResponseEntity<?>> updateUser(@PathVariable("id") Long userId,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestHeader(name = "Prefer", required = false) String prefer,
       @RequestBody @Validated UserForm form) {
-    userService.update(userId, form.getCompanyname(), form.getUsername());
-    var urm = new UserResponseMessage();
-    urm.setMessage("ユーザーを更新しました");
-    return ResponseEntity.ok(urm);
+    var expectedVersion = EntityTags.parseIfMatch(ifMatch);
+    return bulkheads.write(() -> {
+      var updated = userService.update(userId, expectedVersion,
+          form.getCompanyname(), form.getUsername());
+      if (EntityTags.prefersRepresentation(prefer)) {
+        var entity = updated.getVersion() != null ? updated : userService.findById(userId);
+        return ResponseEntity.ok()
+            .eTag(EntityTags.of(entity.getVersion()))
+            .header("Preference-Applied", "return=representation")
+            .body(toUserDTO(entity));
+      }
+      var urm = new UserResponseMessage();
+      urm.setMessage("ユーザーを更新しました");
+      var response = ResponseEntity.ok();
+      if (updated.getVersion() != null) {
+        response.eTag(EntityTags.of(updated.getVersion()));
+      }
+      return response.body(urm);
+    });
   }
 
   @DeleteMapping("/users/{id}")
-  public ResponseEntity<UserResponseMessage> deleteUser(@PathVariable("id") Long userId) {
-    userService.delete(userId);
-    return ResponseEntity.noContent().build();
+  @ConcurrencyPriority(RequestPriority.NORMAL)
+  public CompletableFuture<ResponseEntity<UserResponseMessage>> deleteUser(
+      @PathVariable("id") Long userId,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    var expectedVersion = EntityTags.parseIfMatch(ifMatch);
+    return bulkheads.write(() -> {
+      userService.delete(userId, expectedVersion);
+      return ResponseEntity.noContent().build();
+    });
   }
 }
@@ -1,11 +1,14 @@
 package com.example.businessmanagement2.restcontroller.user;
 
+import com.example.businessmanagement2.restcontroller.fields.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 
 @Data
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class UserDTO {
 
   long id;
@@ -1,5 +1,6 @@
 package com.example.businessmanagement2.restcontroller.user;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
@@ -10,4 +11,7 @@ public class UserListDTO {
 
   List<UserDTO> results = new ArrayList<>();
 
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  String next;
+
 }
@@ -0,0 +1,62 @@
+package com.example.businessmanagement2.restcontroller.userschedule;
+
+import com.example.businessmanagement2.repository.userschedule.UserSchedule;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleController;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import com.example.businessmanagement2.service.userschedule.UserScheduleService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class UserScheduleController {
+
+  private final UserScheduleService userScheduleService;
+
+  private final Bulkheads bulkheads;
+
+  private static UserScheduleDTO toUserScheduleDTO(UserSchedule userSchedule) {
+    var schedules = userSchedule.getSchedules()
+        .stream()
+        .map(ScheduleController::toScheduleDTO)
+        .collect(Collectors.toList());
+    return new UserScheduleDTO(userSchedule.getUserid(), userSchedule.getCompanyname(),
+        userSchedule.getUsername(), schedules);
+  }
+
+  @GetMapping("/users/{id}/schedules")
+  public CompletableFuture<ResponseEntity<UserScheduleDTO>> showUserSchedule(@PathVariable("id") Long userId,
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+    return bulkheads.read(() -> {
+      var userSchedule = userScheduleService.findById(userId, from, to);
+      return ResponseEntity.ok(toUserScheduleDTO(userSchedule));
+    });
+  }
+
+  @GetMapping("/users/schedules")
+  public CompletableFuture<ResponseEntity<UserScheduleListDTO>> findUserScheduleList(
+      @RequestParam(name = "ids") List<Long> userIds,
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+    return bulkheads.bulk(() -> {
+      var dtoList = userScheduleService.findByIds(userIds, from, to)
+          .stream()
+          .map(UserScheduleController::toUserScheduleDTO)
+          .collect(Collectors.toList());
+      var dto = new UserScheduleListDTO();
+      dto.setResults(dtoList);
+      return ResponseEntity.ok(dto);
+    });
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.businessmanagement2.restcontroller.userschedule;
+
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleDTO;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserScheduleDTO {
+
+  long id;
+
+  String companyname;
+
+  String username;
+
+  List<ScheduleDTO> schedules;
+
+}
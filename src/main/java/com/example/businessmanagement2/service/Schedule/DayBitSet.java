@@ -0,0 +1,71 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * エポック日ごとに1ビットを持つ。使っている期間の64日単位の語だけを持つので、
+ * メモリは行数ではなく最初の日から最後の日までの日数に比例する。スレッドセーフではない。
+ */
+class DayBitSet {
+
+  private long firstWord;
+
+  private long[] words = new long[0];
+
+  void set(long epochDay) {
+    var word = Math.floorDiv(epochDay, 64);
+    ensureWord(word);
+    words[(int) (word - firstWord)] |= 1L << Math.floorMod(epochDay, 64);
+  }
+
+  void clear(long epochDay) {
+    var word = Math.floorDiv(epochDay, 64);
+    if (contains(word)) {
+      words[(int) (word - firstWord)] &= ~(1L << Math.floorMod(epochDay, 64));
+    }
+  }
+
+  boolean get(long epochDay) {
+    var word = Math.floorDiv(epochDay, 64);
+    return contains(word)
+        && (words[(int) (word - firstWord)] & (1L << Math.floorMod(epochDay, 64))) != 0;
+  }
+
+  /**
+   * from から to まで（両端を含む）のビットが立っていない日を昇順に渡す。64日ずつ語単位で調べる。
+   */
+  void forEachClear(long from, long to, LongConsumer action) {
+    for (var day = from; day <= to; ) {
+      var word = Math.floorDiv(day, 64);
+      var bits = contains(word) ? words[(int) (word - firstWord)] : 0L;
+      var start = word * 64;
+      var mask = -1L << (day - start);
+      if (to - start < 63) {
+        mask &= -1L >>> (63 - (to - start));
+      }
+      for (var free = ~bits & mask; free != 0; free &= free - 1) {
+        action.accept(start + Long.numberOfTrailingZeros(free));
+      }
+      day = start + 64;
+    }
+  }
+
+  private boolean contains(long word) {
+    return word >= firstWord && word < firstWord + words.length;
+  }
+
+  private void ensureWord(long word) {
+    if (words.length == 0) {
+      firstWord = word;
+      words = new long[1];
+    } else if (word < firstWord) {
+      var grown = new long[(int) (firstWord + words.length - word)];
+      System.arraycopy(words, 0, grown, (int) (firstWord - word), words.length);
+      words = grown;
+      firstWord = word;
+    } else if (word >= firstWord + words.length) {
+      words = Arrays.copyOf(words, (int) (word - firstWord + 1));
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidScheduleCriteriaException extends RuntimeException {
+
+  private final String name;
+
+  public InvalidScheduleCriteriaException(String name, String message) {
+    super(message);
+    this.name = name;
+  }
+}
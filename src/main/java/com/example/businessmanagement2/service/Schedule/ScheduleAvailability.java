@@ -0,0 +1,80 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 場所と階の組み合わせごとに、作業予定の入っている日を DayBitSet で持つ。
+ * ScheduleSlotIndex がスロットを押さえた・空けたときに更新するので、コミット前の登録中の日も埋まっている扱いになる。
+ * ScheduleSlotIndex を作り直したときは、その中身で丸ごと置き換える。
+ */
+@Component
+public class ScheduleAvailability {
+
+  private volatile Map<PlaceFloor, DayBitSet> days = new ConcurrentHashMap<>();
+
+  void occupy(ScheduleSlot slot) {
+    occupy(days, slot);
+  }
+
+  /**
+   * 差し替えている間も findFreeDays は前の中身を読めるよう、作ってから入れ替える。
+   */
+  void replaceAll(Collection<ScheduleSlot> slots) {
+    var rebuilt = new ConcurrentHashMap<PlaceFloor, DayBitSet>();
+    for (var slot : slots) {
+      occupy(rebuilt, slot);
+    }
+    days = rebuilt;
+  }
+
+  private static void occupy(Map<PlaceFloor, DayBitSet> days, ScheduleSlot slot) {
+    var bits = days.computeIfAbsent(new PlaceFloor(slot.getPlace(), slot.getNumberoffloors()),
+        key -> new DayBitSet());
+    synchronized (bits) {
+      bits.set(slot.getWorkingdate().toEpochDay());
+    }
+  }
+
+  void free(ScheduleSlot slot) {
+    var bits = days.get(new PlaceFloor(slot.getPlace(), slot.getNumberoffloors()));
+    if (bits != null) {
+      synchronized (bits) {
+        bits.clear(slot.getWorkingdate().toEpochDay());
+      }
+    }
+  }
+
+  /**
+   * from から to まで（両端を含む）で、place の numberoffloors に作業予定が入っていない日を返す。
+   */
+  public List<LocalDate> findFreeDays(String place, String numberoffloors, LocalDate from,
+      LocalDate to) {
+    var freeDays = new ArrayList<LocalDate>();
+    var bits = days.get(new PlaceFloor(place, numberoffloors));
+    if (bits == null) {
+      from.datesUntil(to.plusDays(1)).forEach(freeDays::add);
+      return freeDays;
+    }
+    synchronized (bits) {
+      bits.forEachClear(from.toEpochDay(), to.toEpochDay(),
+          day -> freeDays.add(LocalDate.ofEpochDay(day)));
+    }
+    return freeDays;
+  }
+
+  @Value
+  private static class PlaceFloor {
+
+    String place;
+
+    String numberoffloors;
+
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import lombok.Value;
+
+/**
+ * 一括処理の1件分。index はリクエスト内での位置で、結果と突き合わせるのに使う。
+ */
+@Value
+public class ScheduleBatchCommand {
+
+  int index;
+
+  ScheduleBatchOperation operation;
+
+  Long scheduleId;
+
+  ScheduleEntity entity;
+
+  public static ScheduleBatchCommand create(int index, ScheduleEntity entity) {
+    return new ScheduleBatchCommand(index, ScheduleBatchOperation.CREATE, null, entity);
+  }
+
+  public static ScheduleBatchCommand update(int index, ScheduleEntity entity) {
+    return new ScheduleBatchCommand(index, ScheduleBatchOperation.UPDATE,
+        entity.getScheduleid(), entity);
+  }
+
+  public static ScheduleBatchCommand delete(int index, long scheduleId) {
+    return new ScheduleBatchCommand(index, ScheduleBatchOperation.DELETE, scheduleId, null);
+  }
+}
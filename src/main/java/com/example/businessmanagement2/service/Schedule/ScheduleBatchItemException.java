@@ -0,0 +1,30 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import lombok.Getter;
+
+/**
+ * 一括処理の書き込みが DB の制約に引っかかり、トランザクションごと取り消された。
+ * index は引っかかった要素のリクエスト内での位置で、特定できなければ null。
+ * status は一意制約なら CONFLICT、userid の外部キーなら USER_NOT_FOUND。
+ * メッセージはクライアントに返すので、ドライバのメッセージ（表や制約の名前を含む）は入れない。
+ */
+@Getter
+public class ScheduleBatchItemException extends RuntimeException {
+
+  private final Integer index;
+
+  private final ScheduleBatchStatus status;
+
+  public ScheduleBatchItemException(Integer index, ScheduleBatchStatus status, Throwable cause) {
+    super(message(index, status), cause);
+    this.index = index;
+    this.status = status;
+  }
+
+  private static String message(Integer index, ScheduleBatchStatus status) {
+    var item = index == null ? "An item" : "Item " + index;
+    return status == ScheduleBatchStatus.USER_NOT_FOUND
+        ? item + " refers to a user that does not exist."
+        : item + " conflicts with an existing schedule.";
+  }
+}
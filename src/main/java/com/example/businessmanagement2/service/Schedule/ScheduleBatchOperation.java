@@ -0,0 +1,11 @@
+package com.example.businessmanagement2.service.Schedule;
+
+public enum ScheduleBatchOperation {
+
+  CREATE,
+
+  UPDATE,
+
+  DELETE
+
+}
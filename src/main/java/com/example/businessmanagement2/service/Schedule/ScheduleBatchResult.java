@@ -0,0 +1,46 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import lombok.Value;
+
+@Value
+public class ScheduleBatchResult {
+
+  int index;
+
+  ScheduleBatchOperation operation;
+
+  ScheduleBatchStatus status;
+
+  Long scheduleId;
+
+  /**
+   * 書かなかった理由。書いた要素は null。
+   */
+  String reason;
+
+  /**
+   * JDBC のバッチ実行で返った更新件数から結果を作る。
+   * ドライバが件数を返さない場合（SUCCESS_NO_INFO）は成功とみなす。
+   */
+  static ScheduleBatchResult of(ScheduleBatchCommand command, int updateCount) {
+    return switch (command.getOperation()) {
+      case CREATE -> new ScheduleBatchResult(command.getIndex(), command.getOperation(),
+          ScheduleBatchStatus.CREATED, command.getEntity().getScheduleid(), null);
+      case UPDATE -> new ScheduleBatchResult(command.getIndex(), command.getOperation(),
+          updateCount == 0 ? ScheduleBatchStatus.NOT_FOUND : ScheduleBatchStatus.UPDATED,
+          command.getScheduleId(), null);
+      case DELETE -> new ScheduleBatchResult(command.getIndex(), command.getOperation(),
+          updateCount == 0 ? ScheduleBatchStatus.NOT_FOUND : ScheduleBatchStatus.DELETED,
+          command.getScheduleId(), null);
+    };
+  }
+
+  /**
+   * 書く前の確認で弾いた要素の結果。
+   */
+  static ScheduleBatchResult rejected(ScheduleBatchCommand command, ScheduleBatchStatus status,
+      String reason) {
+    return new ScheduleBatchResult(command.getIndex(), command.getOperation(), status,
+        command.getScheduleId(), reason);
+  }
+}
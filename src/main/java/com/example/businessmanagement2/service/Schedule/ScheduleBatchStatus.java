@@ -0,0 +1,23 @@
+package com.example.businessmanagement2.service.Schedule;
+
+public enum ScheduleBatchStatus {
+
+  CREATED,
+
+  UPDATED,
+
+  DELETED,
+
+  NOT_FOUND,
+
+  /**
+   * 同じ日・階・場所を別の作業予定（同じ一括処理の前の要素を含む）が使っているので書かなかった。
+   */
+  CONFLICT,
+
+  /**
+   * userid のユーザーがいないので書かなかった。
+   */
+  USER_NOT_FOUND
+
+}
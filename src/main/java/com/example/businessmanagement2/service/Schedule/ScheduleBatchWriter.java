@@ -0,0 +1,153 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import com.example.businessmanagement2.repository.cacheversion.CacheVersionRepository;
+import com.example.businessmanagement2.repository.dialect.IntegrityViolations;
+import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import com.example.businessmanagement2.repository.stats.DailyManpowerRepository;
+import com.example.businessmanagement2.repository.user.UserRepository;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * ExecutorType.BATCH のセッションで ScheduleRepository を呼び、JDBC バッチとしてまとめて送る。
+ * SqlSessionTemplate をBeanにするとマッパー全体がバッチになってしまうので、ここで個別に持つ。
+ */
+@Component
+public class ScheduleBatchWriter {
+
+  private final SqlSessionTemplate batchSqlSession;
+
+  public ScheduleBatchWriter(SqlSessionFactory sqlSessionFactory) {
+    this.batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+  }
+
+  /**
+   * トランザクション内で呼ぶこと。同じトランザクション内で SIMPLE のマッパーを混ぜることはできない。
+   */
+  public ScheduleRepository repository() {
+    Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+        "Batch statements must run inside a transaction");
+    return batchSqlSession.getMapper(ScheduleRepository.class);
+  }
+
+  /**
+   * schedules と同じバッチで daily_manpower の差分を送るためのマッパー。
+   */
+  public DailyManpowerRepository dailyManpowerRepository() {
+    Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+        "Batch statements must run inside a transaction");
+    return batchSqlSession.getMapper(DailyManpowerRepository.class);
+  }
+
+  /**
+   * 書く前に userid を確かめるためのマッパー。SELECT は積んである文を送ってから実行される。
+   */
+  public UserRepository userRepository() {
+    Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+        "Batch statements must run inside a transaction");
+    return batchSqlSession.getMapper(UserRepository.class);
+  }
+
+  /**
+   * schedules と同じバッチで cache_versions を上げるためのマッパー。
+   */
+  public CacheVersionRepository cacheVersionRepository() {
+    Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+        "Batch statements must run inside a transaction");
+    return batchSqlSession.getMapper(CacheVersionRepository.class);
+  }
+
+  /**
+   * commands を順に積んで一度に送り、commands と同じ順で更新件数を返す。
+   * 一意制約か userid の外部キーに引っかかったら、その文の要素の index を付けた ScheduleBatchItemException にする。
+   */
+  public int[] write(List<ScheduleBatchCommand> commands) {
+    var repository = repository();
+    for (var command : commands) {
+      switch (command.getOperation()) {
+        case CREATE -> repository.create(command.getEntity());
+        case UPDATE -> repository.update(command.getEntity());
+        case DELETE -> repository.delete(command.getScheduleId());
+      }
+    }
+    try {
+      return flush();
+    } catch (DataAccessException e) {
+      var failure = findBatchFailure(e);
+      if (failure == null) {
+        throw e;
+      }
+      var translated = batchSqlSession.getPersistenceExceptionTranslator()
+          .translateExceptionIfPossible(
+              new PersistenceException(failure.getBatchUpdateException()));
+      if (!(translated instanceof DataIntegrityViolationException violation)) {
+        throw e;
+      }
+      ScheduleBatchStatus status;
+      if (violation instanceof DuplicateKeyException) {
+        status = ScheduleBatchStatus.CONFLICT;
+      } else if (IntegrityViolations.isMissingParent(violation)) {
+        status = ScheduleBatchStatus.USER_NOT_FOUND;
+      } else {
+        throw violation;
+      }
+      var position = failedPosition(failure);
+      throw new ScheduleBatchItemException(
+          position < commands.size() ? commands.get(position).getIndex() : null, status,
+          violation);
+    }
+  }
+
+  /**
+   * 送れなかったバッチは MyBatis の BatchExecutorException になり、SQLException ではないので
+   * DataIntegrityViolationException には翻訳されない。中の BatchUpdateException を翻訳し直す。
+   */
+  private static BatchExecutorException findBatchFailure(Throwable e) {
+    for (var cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof BatchExecutorException failure) {
+        return failure;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 積んだ順で何番目の文が失敗したか。成功したバッチの文の数に、失敗したバッチの中の位置を足す。
+   * ドライバが失敗のあとも続けた（EXECUTE_FAILED が入る）ときも、途中で止めたときも数えられる。
+   */
+  private static int failedPosition(BatchExecutorException failure) {
+    var position = failure.getSuccessfulBatchResults().stream()
+        .mapToInt(result -> result.getParameterObjects().size())
+        .sum();
+    var counts = failure.getBatchUpdateException().getUpdateCounts();
+    var failed = IntStream.range(0, counts.length)
+        .filter(i -> counts[i] == Statement.EXECUTE_FAILED)
+        .findFirst()
+        .orElse(counts.length);
+    return position + failed;
+  }
+
+  /**
+   * 積んである文を送り、積んだ順で更新件数を返す。
+   */
+  public int[] flush() {
+    return batchSqlSession.flushStatements()
+        .stream()
+        .map(BatchResult::getUpdateCounts)
+        .flatMapToInt(IntStream::of)
+        .toArray();
+  }
+}
@@ -1,8 +1,13 @@
 package com.example.businessmanagement2.service.Schedule;
 
+import com.example.businessmanagement2.repository.schedule.ScheduleCriteria;
 import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.service.page.Page;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ScheduleService {
 
@@ -10,13 +15,75 @@ public interface ScheduleService {
 
   List<ScheduleEntity> findScheduleList();
 
+  default Page<ScheduleEntity> findSchedulePage(String next, int limit) {
+    return searchSchedules(ScheduleCriteria.none(), next, limit);
+  }
+
+  /**
+   * 条件に合う作業予定を working_date, schedule_id 順に1ページ分返す。
+   * next には前のページと同じ条件で返されたトークンを渡す。
+   */
+  default Page<ScheduleEntity> searchSchedules(ScheduleCriteria criteria, String next,
+      int limit) {
+    return searchSchedules(criteria, null, next, limit);
+  }
+
+  /**
+   * fields には読む項目を ScheduleDTO の項目名で渡す。null ならすべて読む。
+   */
+  Page<ScheduleEntity> searchSchedules(ScheduleCriteria criteria, Set<String> fields, String next,
+      int limit);
+
+  /**
+   * place か work_content に keyword を含む作業予定を関連度の高い順に返す。
+   * next には前のページと同じ keyword で返されたトークンを渡す。
+   */
+  Page<ScheduleEntity> searchByKeyword(String keyword, String next, int limit);
+
+  void scanScheduleList(Consumer<ScheduleEntity> action);
+
+  /**
+   * from から to まで（両端を含む）の作業予定を日付順に action に渡す。
+   */
+  void scanScheduleList(LocalDate from, LocalDate to, Consumer<ScheduleEntity> action);
+
+  long MAX_AVAILABILITY_DAYS = 366;
+
+  /**
+   * from から to まで（両端を含む）で、place の numberoffloors に作業予定が入っていない日を返す。
+   * DB は読まず、メモリ上の ScheduleAvailability だけで答える。
+   */
+  List<LocalDate> findFreeDays(String place, String numberoffloors, LocalDate from,
+      LocalDate to);
+
   ScheduleEntity create(
       int userId, Date workingdate, String numberoffloors, String place,
       String workcontent, String numberofpeople);
 
-  ScheduleEntity update(
+  default ScheduleEntity update(
       Long scheduleId, int userId, Date workingdate, String numberoffloors, String place,
-      String workcontent, String numberofpeople);
+      String workcontent, String numberofpeople) {
+    return update(scheduleId, null, userId, workingdate, numberoffloors, place, workcontent,
+        numberofpeople);
+  }
+
+  /**
+   * expectedVersion が null のときはバージョンを確認せずに更新する。更新後の行を返す。
+   */
+  ScheduleEntity update(
+      Long scheduleId, Long expectedVersion, int userId, Date workingdate, String numberoffloors,
+      String place, String workcontent, String numberofpeople);
+
+  default void delete(Long scheduleId) {
+    delete(scheduleId, null);
+  }
+
+  void delete(Long scheduleId, Long expectedVersion);
 
-  void delete(Long scheduleId);
+  /**
+   * userid がない・スロットが使われている要素は書かずに、その理由を要素ごとの結果で返す。
+   * 書き込みが一意制約か userid の外部キーに引っかかったときは、すべて取り消して
+   * ScheduleBatchItemException を投げる。
+   */
+  List<ScheduleBatchResult> executeBatch(List<ScheduleBatchCommand> commands);
 }
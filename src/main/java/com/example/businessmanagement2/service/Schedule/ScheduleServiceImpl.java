@@ -1,11 +1,41 @@
 package com.example.businessmanagement2.service.Schedule;
 
+import com.example.businessmanagement2.repository.schedule.ScheduleCriteria;
 import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
 import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import com.example.businessmanagement2.repository.stats.DailyManpowerRepository;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.event.ChangeType;
+import com.example.businessmanagement2.service.page.InvalidPageTokenException;
+import com.example.businessmanagement2.service.page.Page;
+import com.example.businessmanagement2.service.page.PageToken;
+import com.example.businessmanagement2.service.search.ScheduleSearchEngine;
+import com.example.businessmanagement2.service.search.ScheduleSearchText;
+import com.example.businessmanagement2.service.stats.DailyManpowerDeltas;
+import com.example.businessmanagement2.service.version.ResourceVersions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -14,39 +44,360 @@ public class ScheduleServiceImpl implements ScheduleService {
 
   private final ScheduleRepository scheduleRepository;
 
+  private final ScheduleBatchWriter scheduleBatchWriter;
+
+  private final DailyManpowerRepository dailyManpowerRepository;
+
+  private final ScheduleSlotIndex scheduleSlotIndex;
+
+  private final ScheduleAvailability scheduleAvailability;
+
+  private final ChangeFeed changeFeed;
+
+  private final ScheduleSearchEngine scheduleSearchEngine;
+
+  private final ResourceVersions resourceVersions;
+
   @Override
+  @Transactional(readOnly = true)
   public ScheduleEntity findById(Long scheduleid) {
     return scheduleRepository.findById(scheduleid)
         .orElseThrow(() -> new ScheduleEntityNotFoundException(scheduleid));
   }
   @Override
+  @Transactional(readOnly = true)
   public List<ScheduleEntity> findScheduleList() {
     return scheduleRepository.findScheduleList();
   }
 
   @Override
+  @Transactional(readOnly = true)
+  public Page<ScheduleEntity> searchSchedules(ScheduleCriteria criteria, Set<String> fields,
+      String next, int limit) {
+    if (criteria.getFrom() != null && criteria.getTo() != null
+        && criteria.getFrom().isAfter(criteria.getTo())) {
+      throw new InvalidScheduleCriteriaException("to", "to must be on or after from.");
+    }
+    var size = Page.clampLimit(limit);
+    LocalDate afterDate = null;
+    Long afterScheduleId = null;
+    if (next != null) {
+      var keys = PageToken.decode(next, 2);
+      try {
+        afterDate = LocalDate.parse(keys[0]);
+        afterScheduleId = Long.valueOf(keys[1]);
+      } catch (DateTimeParseException | NumberFormatException e) {
+        throw new InvalidPageTokenException(next);
+      }
+    }
+    var rows = scheduleRepository.searchSchedules(criteria, afterDate, afterScheduleId,
+        size + 1, fields);
+    return Page.of(rows, size, last -> PageToken.encode(
+        WorkingDates.toLocalDate(last.getWorkingdate()).toString(),
+        String.valueOf(last.getScheduleid())));
+  }
+
+  /**
+   * 関連度の順は行の値からは決まらないので、キーセットではなく読み飛ばす件数をトークンにしている。
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Page<ScheduleEntity> searchByKeyword(String keyword, String next, int limit) {
+    var phrase = ScheduleSearchText.normalize(keyword);
+    if (phrase.length() < ScheduleSearchText.MIN_QUERY_LENGTH
+        || phrase.length() > ScheduleSearchText.MAX_QUERY_LENGTH) {
+      throw new InvalidScheduleCriteriaException("q",
+          "q must be " + ScheduleSearchText.MIN_QUERY_LENGTH + " to "
+              + ScheduleSearchText.MAX_QUERY_LENGTH + " characters.");
+    }
+    var size = Page.clampLimit(limit);
+    var offset = 0;
+    if (next != null) {
+      try {
+        offset = Integer.parseInt(PageToken.decode(next, 1)[0]);
+      } catch (NumberFormatException e) {
+        throw new InvalidPageTokenException(next);
+      }
+      if (offset < 0) {
+        throw new InvalidPageTokenException(next);
+      }
+    }
+    var nextOffset = offset + size;
+    var rows = scheduleSearchEngine.search(phrase, offset, size + 1);
+    return Page.of(rows, size, last -> PageToken.encode(String.valueOf(nextOffset)));
+  }
+
+  /**
+   * 全件を Cursor で1行ずつ読みながら action に渡す。
+   * Cursor はセッションが開いている間しか読めないため、読み取り専用トランザクションの中で回す。
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void scanScheduleList(Consumer<ScheduleEntity> action) {
+    try (var cursor = scheduleRepository.scanScheduleList()) {
+      cursor.forEach(action);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void scanScheduleList(LocalDate from, LocalDate to, Consumer<ScheduleEntity> action) {
+    try (var cursor = scheduleRepository.scanScheduleRange(from, to)) {
+      cursor.forEach(action);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public List<LocalDate> findFreeDays(String place, String numberoffloors, LocalDate from,
+      LocalDate to) {
+    if (from.isAfter(to)) {
+      throw new InvalidScheduleCriteriaException("to", "to must be on or after from.");
+    }
+    if (ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+      throw new InvalidScheduleCriteriaException("to",
+          "the range must be at most " + MAX_AVAILABILITY_DAYS + " days.");
+    }
+    return scheduleAvailability.findFreeDays(place, numberoffloors, from, to);
+  }
+
+  /**
+   * 作成・更新・削除は daily_manpower の差分も同じトランザクションで足し込む。
+   * 作成は DB から読み直した行で数え、作り直しのときの集計とずれないようにしている。
+   * 更新は FOR UPDATE で読んだ変更前の行を引き、入力から作った変更後の行を足す。
+   * 作成・更新は DB に書く前に ScheduleSlotIndex でスロットを押さえ、重複ならそこで弾く。
+   */
+  @Override
+  @Transactional
   public ScheduleEntity create(int userId, Date workingdate, String numberoffloors, String place,
       String workcontent, String numberofpeople) {
     var entity = new ScheduleEntity(null, userId, workingdate, numberoffloors, place,
         workcontent,numberofpeople);
+    var slot = ScheduleSlot.of(entity);
+    var claim = scheduleSlotIndex.claim();
+    claim.reserve(slot, null);
     scheduleRepository.create(entity);
-    return new ScheduleEntity(entity.getScheduleid(), entity.getUserid(), entity.getWorkingdate(),entity.getNumberoffloors(),
-    entity.getPlace(), entity.getWorkcontent(), entity.getNumberofpeople());
+    claim.assign(slot, entity.getScheduleid());
+    var created = findById(entity.getScheduleid());
+    new DailyManpowerDeltas().add(created).applyTo(dailyManpowerRepository);
+    changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.CREATED,
+        created.getScheduleid(), created);
+    resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, created.getScheduleid(),
+        created.getVersion());
+    resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE);
+    return created;
   }
 
+  /**
+   * 書き込みは user と同じく1回の条件付き UPDATE で、更新件数が0のときは存在しないのか競合したのかを
+   * 変更前の行で見分ける。変更前の行は daily_manpower から差し引くために、書く前に FOR UPDATE で読んでおく。
+   * 変更後の行は入力と変更前の version から作り、読み直さない。
+   */
   @Override
-  public ScheduleEntity update(Long scheduleId, int userId, Date workingdate, String numberoffloors, String place,
-      String workcontent, String numberofpeople) {
-    scheduleRepository.findById(scheduleId)
-        .orElseThrow(() -> new ScheduleEntityNotFoundException(scheduleId));
-    scheduleRepository.update(new ScheduleEntity(scheduleId, userId, workingdate, numberoffloors, place,
-        workcontent, numberofpeople));
-    return findById(scheduleId);
+  @Transactional
+  public ScheduleEntity update(Long scheduleId, Long expectedVersion, int userId,
+      Date workingdate, String numberoffloors, String place, String workcontent,
+      String numberofpeople) {
+    var slot = ScheduleSlot.of(workingdate, numberoffloors, place);
+    var claim = scheduleSlotIndex.claim();
+    claim.reserve(slot, scheduleId);
+    var before = scheduleRepository.findByIdForUpdate(scheduleId);
+    int rows = expectedVersion == null
+        ? scheduleRepository.update(new ScheduleEntity(scheduleId, userId, workingdate,
+            numberoffloors, place, workcontent, numberofpeople))
+        : scheduleRepository.updateWithVersion(new ScheduleEntity(scheduleId, userId,
+            workingdate, numberoffloors, place, workcontent, numberofpeople, expectedVersion));
+    if (rows == 0) {
+      throw notFoundOrConflict(scheduleId, expectedVersion, before);
+    }
+    var previous = before.orElseThrow(() -> new ScheduleEntityNotFoundException(scheduleId));
+    if (!Objects.equals(slot, ScheduleSlot.of(previous))) {
+      claim.release(ScheduleSlot.of(previous), scheduleId);
+    }
+    var after = new ScheduleEntity(scheduleId, userId, workingdate, numberoffloors, place,
+        workcontent, numberofpeople, previous.getVersion() + 1);
+    new DailyManpowerDeltas().subtract(previous).add(after).applyTo(dailyManpowerRepository);
+    changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.UPDATED, scheduleId, after);
+    resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, scheduleId, after.getVersion());
+    resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE);
+    return after;
   }
+
   @Override
-  public void delete(Long scheduleid) {
-    scheduleRepository.findById(scheduleid)
-        .orElseThrow(() -> new ScheduleEntityNotFoundException(scheduleid));
-    scheduleRepository.delete(scheduleid);
+  @Transactional
+  public void delete(Long scheduleid, Long expectedVersion) {
+    var before = scheduleRepository.findByIdForUpdate(scheduleid);
+    int rows = expectedVersion == null
+        ? scheduleRepository.delete(scheduleid)
+        : scheduleRepository.deleteWithVersion(scheduleid, expectedVersion);
+    if (rows == 0) {
+      throw notFoundOrConflict(scheduleid, expectedVersion, before);
+    }
+    var previous = before.orElseThrow(() -> new ScheduleEntityNotFoundException(scheduleid));
+    scheduleSlotIndex.claim().release(ScheduleSlot.of(previous), scheduleid);
+    new DailyManpowerDeltas().subtract(previous).applyTo(dailyManpowerRepository);
+    changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.DELETED, scheduleid, null);
+    resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, scheduleid, null);
+    resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE);
+  }
+
+  /**
+   * 条件付き更新が0件だったときに、FOR UPDATE で読んだ変更前の行から存在しないのか競合したのかを見分ける。
+   * 行はロックしているので、DB を読み直さなくても書き込みのときと同じ状態を見ている。
+   */
+  private static RuntimeException notFoundOrConflict(Long scheduleId, Long expectedVersion,
+      Optional<ScheduleEntity> before) {
+    if (before.isEmpty() || expectedVersion == null) {
+      return new ScheduleEntityNotFoundException(scheduleId);
+    }
+    return new ScheduleVersionConflictException(scheduleId, expectedVersion,
+        before.get().getVersion());
+  }
+
+  /**
+   * 更新・削除する行を先にまとめて FOR UPDATE で読み、書き込みを送ったあと、
+   * 成功したコマンドの分だけ daily_manpower の差分を作って同じバッチで送る。
+   * 作成・更新は書き込む前に userid があるかとスロットが空いているかを確かめ、だめな要素だけ書かずに
+   * 要素ごとの結果で返す。スロットは要素の順に押さえるので、前の要素が空けるスロットは後の要素では使えない。
+   * それでも DB の制約に引っかかったら（他ノードの書き込みなど）、その要素の index を付けてバッチ全体を取り消す。
+   */
+  @Override
+  @Transactional
+  public List<ScheduleBatchResult> executeBatch(List<ScheduleBatchCommand> commands) {
+    if (commands.isEmpty()) {
+      return List.of();
+    }
+    var existingUsers = findExistingUsers(commands);
+    var claim = scheduleSlotIndex.claim();
+    var results = new ArrayList<ScheduleBatchResult>(commands.size());
+    var accepted = new ArrayList<ScheduleBatchCommand>(commands.size());
+    for (var command : commands) {
+      if (command.getOperation() != ScheduleBatchOperation.DELETE) {
+        var userId = command.getEntity().getUserid();
+        if (!existingUsers.contains(userId)) {
+          results.add(ScheduleBatchResult.rejected(command, ScheduleBatchStatus.USER_NOT_FOUND,
+              "User " + userId + " does not exist."));
+          continue;
+        }
+        try {
+          claim.reserve(ScheduleSlot.of(command.getEntity()), command.getScheduleId());
+        } catch (ScheduleSlotConflictException e) {
+          results.add(ScheduleBatchResult.rejected(command, ScheduleBatchStatus.CONFLICT,
+              e.getMessage()));
+          continue;
+        }
+      }
+      accepted.add(command);
+    }
+    if (accepted.isEmpty()) {
+      return results;
+    }
+    var repository = scheduleBatchWriter.repository();
+    var before = findByIds(repository, accepted.stream()
+        .filter(command -> command.getOperation() != ScheduleBatchOperation.CREATE)
+        .map(ScheduleBatchCommand::getScheduleId)
+        .collect(Collectors.toSet()));
+    var updateCounts = scheduleBatchWriter.write(accepted);
+    var written = new HashSet<Long>();
+    for (int i = 0; i < accepted.size(); i++) {
+      var command = accepted.get(i);
+      if (command.getOperation() == ScheduleBatchOperation.CREATE) {
+        claim.assign(ScheduleSlot.of(command.getEntity()), command.getEntity().getScheduleid());
+      }
+      if (updateCounts[i] != 0 && command.getOperation() != ScheduleBatchOperation.DELETE) {
+        written.add(command.getEntity().getScheduleid());
+      }
+    }
+    var after = findByIds(repository, written);
+    releaseMovedSlots(claim, accepted, before, after);
+
+    var current = new HashMap<>(before);
+    var deltas = new DailyManpowerDeltas();
+    var changed = false;
+    for (int i = 0; i < accepted.size(); i++) {
+      var command = accepted.get(i);
+      results.add(ScheduleBatchResult.of(command, updateCounts[i]));
+      if (updateCounts[i] == 0) {
+        continue;
+      }
+      // 同じ行への複数のコマンドは、直前の状態を引いて最終的な行を足すので差し引きで合う
+      var scheduleId = command.getOperation() == ScheduleBatchOperation.CREATE
+          ? command.getEntity().getScheduleid()
+          : command.getScheduleId();
+      deltas.subtract(current.remove(scheduleId));
+      if (command.getOperation() != ScheduleBatchOperation.DELETE
+          && after.containsKey(scheduleId)) {
+        deltas.add(after.get(scheduleId));
+        current.put(scheduleId, after.get(scheduleId));
+      }
+      changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, changeType(command.getOperation()),
+          scheduleId, after.get(scheduleId));
+      var row = after.get(scheduleId);
+      resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, scheduleId,
+          row != null ? row.getVersion() : null);
+      changed = true;
+    }
+    if (!deltas.isEmpty()) {
+      deltas.applyTo(scheduleBatchWriter.dailyManpowerRepository());
+    }
+    if (changed) {
+      resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE,
+          scheduleBatchWriter.cacheVersionRepository());
+      scheduleBatchWriter.flush();
+    }
+    results.sort(Comparator.comparingInt(ScheduleBatchResult::getIndex));
+    return results;
+  }
+
+  private Set<Integer> findExistingUsers(List<ScheduleBatchCommand> commands) {
+    var userIds = commands.stream()
+        .filter(command -> command.getOperation() != ScheduleBatchOperation.DELETE)
+        .map(command -> command.getEntity().getUserid())
+        .collect(Collectors.toSet());
+    if (userIds.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(scheduleBatchWriter.userRepository().findExistingIds(userIds));
+  }
+
+  private static ChangeType changeType(ScheduleBatchOperation operation) {
+    return switch (operation) {
+      case CREATE -> ChangeType.CREATED;
+      case UPDATE -> ChangeType.UPDATED;
+      case DELETE -> ChangeType.DELETED;
+    };
+  }
+
+  /**
+   * 更新・削除された行について、最終的な行のスロット以外（変更前のスロットと、途中で押さえたスロット）を空ける。
+   */
+  private static void releaseMovedSlots(ScheduleSlotIndex.Claim claim,
+      List<ScheduleBatchCommand> commands, Map<Long, ScheduleEntity> before,
+      Map<Long, ScheduleEntity> after) {
+    commands.stream()
+        .filter(command -> command.getOperation() != ScheduleBatchOperation.CREATE)
+        .map(ScheduleBatchCommand::getScheduleId)
+        .distinct()
+        .forEach(scheduleId -> {
+          var keep = ScheduleSlot.of(after.get(scheduleId));
+          var previous = ScheduleSlot.of(before.get(scheduleId));
+          if (previous != null && !previous.equals(keep)) {
+            claim.release(previous, scheduleId);
+          }
+          claim.releaseAllExcept(scheduleId, keep);
+        });
+  }
+
+  private static Map<Long, ScheduleEntity> findByIds(ScheduleRepository repository,
+      Set<Long> scheduleIds) {
+    if (scheduleIds.isEmpty()) {
+      return new HashMap<>();
+    }
+    return repository.findByIdsForUpdate(scheduleIds)
+        .stream()
+        .collect(Collectors.toMap(ScheduleEntity::getScheduleid, Function.identity()));
   }
 }
@@ -0,0 +1,37 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import java.time.LocalDate;
+import java.util.Date;
+import lombok.Value;
+
+/**
+ * 同じ日に同じ階の同じ場所へ入れる作業予定は1件だけ。その組み合わせ。
+ */
+@Value
+public class ScheduleSlot {
+
+  LocalDate workingdate;
+
+  String numberoffloors;
+
+  String place;
+
+  /**
+   * どれかが null のときは重複を調べようがないので null を返す（その場合は DB の制約に任せる）。
+   */
+  public static ScheduleSlot of(Date workingdate, String numberoffloors, String place) {
+    if (workingdate == null || numberoffloors == null || place == null) {
+      return null;
+    }
+    return new ScheduleSlot(WorkingDates.toLocalDate(workingdate), numberoffloors, place);
+  }
+
+  public static ScheduleSlot of(ScheduleEntity schedule) {
+    if (schedule == null) {
+      return null;
+    }
+    return of(schedule.getWorkingdate(), schedule.getNumberoffloors(), schedule.getPlace());
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import lombok.Getter;
+
+@Getter
+public class ScheduleSlotConflictException extends RuntimeException {
+
+  private final ScheduleSlot slot;
+
+  public ScheduleSlotConflictException(ScheduleSlot slot) {
+    super("Another schedule already uses " + slot.getPlace() + " on " + slot.getNumberoffloors()
+        + " at " + slot.getWorkingdate() + ".");
+    this.slot = slot;
+  }
+}
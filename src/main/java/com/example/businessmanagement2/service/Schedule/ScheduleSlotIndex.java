@@ -0,0 +1,346 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * スロットごとに、それを使っている作業予定のIDをメモリに持つ。登録・更新の前にここで重複を調べ、
+ * DB に問い合わせずに弾く。マップはスロットのハッシュで分けたストライプごとにロックするので、
+ * 別のスロットへの書き込みは互いに待たない。
+ * 他のノードの書き込みやユーザー削除の ON DELETE CASCADE はここに入らないため、
+ * ScheduleSlotIndexLoader がそれに気づいたら schedules から作り直す。それまでの間は最後に
+ * schedules の一意制約で弾く。押さえたスロットと空いたスロットは ScheduleAvailability にも反映する。
+ */
+@Component
+public class ScheduleSlotIndex {
+
+  private static final int STRIPES = 64;
+
+  /**
+   * 登録中でまだ ID が振られていない予約。schedule_id は1から振られるので実際の ID とは重ならない。
+   */
+  private static final long PENDING = 0L;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  private final ScheduleAvailability scheduleAvailability;
+
+  /**
+   * 作り直している間にコミットされた変更。読み込んだ行の後から当て直す。作り直していないときは null。
+   */
+  private volatile Queue<Committed> journal;
+
+  public ScheduleSlotIndex(ScheduleAvailability scheduleAvailability) {
+    this.scheduleAvailability = scheduleAvailability;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  public Optional<Long> findOwner(ScheduleSlot slot) {
+    return Optional.ofNullable(stripeOf(slot).owner(slot));
+  }
+
+  public int size() {
+    int size = 0;
+    for (var stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /**
+   * schedules から読み直して置き換える。読み終えたら Rebuild.finish を、失敗したら cancel を呼ぶこと。
+   * 読んでいる間にコミットされた変更と、まだコミットされていない予約は置き換えたあとも残す。
+   */
+  public Rebuild rebuild() {
+    Assert.state(journal == null, "The slot index is already being rebuilt");
+    journal = new ConcurrentLinkedQueue<>();
+    return new Rebuild();
+  }
+
+  /**
+   * 現在のトランザクションでの予約を始める。予約はコミットで確定し、ロールバックで取り消される。
+   */
+  public Claim claim() {
+    Assert.state(TransactionSynchronizationManager.isSynchronizationActive(),
+        "Slot claims must be made inside a transaction");
+    var claim = new Claim();
+    TransactionSynchronizationManager.registerSynchronization(claim);
+    return claim;
+  }
+
+  private Stripe stripeOf(ScheduleSlot slot) {
+    return stripes[stripeIndex(slot)];
+  }
+
+  private static int stripeIndex(ScheduleSlot slot) {
+    return Math.floorMod(slot.hashCode(), STRIPES);
+  }
+
+  private void record(Committed committed) {
+    var changes = journal;
+    if (changes != null) {
+      changes.add(committed);
+    }
+  }
+
+  private class Stripe {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Map<ScheduleSlot, Long> owners = new HashMap<>();
+
+    /**
+     * このストライプで押さえた、まだコミットもロールバックもされていない予約。
+     */
+    private final Map<ScheduleSlot, Long> inFlight = new HashMap<>();
+
+    Long owner(ScheduleSlot slot) {
+      lock.lock();
+      try {
+        return owners.get(slot);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return owners.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * 空いていれば owner のものにして null を、空いていなければ今の持ち主を返す。
+     */
+    Long occupy(ScheduleSlot slot, long owner) {
+      lock.lock();
+      try {
+        var current = owners.putIfAbsent(slot, owner);
+        if (current == null) {
+          inFlight.put(slot, owner);
+          scheduleAvailability.occupy(slot);
+        }
+        return current;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * 予約がコミットされた。scheduleId が null なら ID が振られなかった新規登録なので空ける。
+     */
+    void commit(ScheduleSlot slot, long owner, Long scheduleId) {
+      lock.lock();
+      try {
+        inFlight.remove(slot, owner);
+        if (scheduleId == null) {
+          vacate(slot, owner);
+          return;
+        }
+        owners.replace(slot, PENDING, scheduleId);
+        record(new Committed(slot, scheduleId, false));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void rollback(ScheduleSlot slot, long owner) {
+      lock.lock();
+      try {
+        inFlight.remove(slot, owner);
+        vacate(slot, owner);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * scheduleId が使っていたスロットを空けることがコミットされた。
+     */
+    void release(ScheduleSlot slot, long scheduleId) {
+      lock.lock();
+      try {
+        vacate(slot, scheduleId);
+        record(new Committed(slot, scheduleId, true));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void vacate(ScheduleSlot slot, long owner) {
+      if (owners.remove(slot, owner)) {
+        scheduleAvailability.free(slot);
+      }
+    }
+  }
+
+  private static class Reservation {
+
+    private final ScheduleSlot slot;
+
+    /**
+     * 新規登録の予約で、マップには PENDING が入っている。
+     */
+    private final boolean pending;
+
+    private Long scheduleId;
+
+    Reservation(ScheduleSlot slot, Long scheduleId) {
+      this.slot = slot;
+      this.pending = scheduleId == null;
+      this.scheduleId = scheduleId;
+    }
+
+    long owner() {
+      return pending ? PENDING : scheduleId;
+    }
+  }
+
+  public class Claim implements TransactionSynchronization {
+
+    private final List<Reservation> reserved = new ArrayList<>();
+
+    private final List<Reservation> released = new ArrayList<>();
+
+    /**
+     * slot を scheduleId のものとして押さえる。scheduleId は新規登録なら null。
+     * ほかの作業予定（登録中のものを含む）が使っていれば ScheduleSlotConflictException。
+     */
+    public void reserve(ScheduleSlot slot, Long scheduleId) {
+      if (slot == null) {
+        return;
+      }
+      var owner = stripeOf(slot).occupy(slot, scheduleId == null ? PENDING : scheduleId);
+      if (owner == null) {
+        reserved.add(new Reservation(slot, scheduleId));
+      } else if (!owner.equals(scheduleId)) {
+        throw new ScheduleSlotConflictException(slot);
+      }
+    }
+
+    /**
+     * 新規登録で振られた ID を予約に結び付ける。
+     */
+    public void assign(ScheduleSlot slot, long scheduleId) {
+      reserved.stream()
+          .filter(reservation -> reservation.pending && reservation.scheduleId == null
+              && reservation.slot.equals(slot))
+          .findFirst()
+          .ifPresent(reservation -> reservation.scheduleId = scheduleId);
+    }
+
+    /**
+     * コミットされたら、scheduleId が使っていた slot を空ける。
+     */
+    public void release(ScheduleSlot slot, long scheduleId) {
+      if (slot != null) {
+        released.add(new Reservation(slot, scheduleId));
+      }
+    }
+
+    /**
+     * 予約した slot のうち、最終的にどの作業予定も使わなくなったものを空ける。
+     */
+    public void releaseAllExcept(long scheduleId, ScheduleSlot keep) {
+      reserved.stream()
+          .filter(reservation -> Objects.equals(reservation.scheduleId, scheduleId)
+              && !reservation.slot.equals(keep))
+          .map(reservation -> reservation.slot)
+          .toList()
+          .forEach(slot -> release(slot, scheduleId));
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      if (status == STATUS_COMMITTED) {
+        for (var reservation : reserved) {
+          stripeOf(reservation.slot).commit(reservation.slot, reservation.owner(),
+              reservation.scheduleId);
+        }
+        for (var release : released) {
+          stripeOf(release.slot).release(release.slot, release.scheduleId);
+        }
+      } else {
+        for (var reservation : reserved) {
+          stripeOf(reservation.slot).rollback(reservation.slot, reservation.owner());
+        }
+      }
+    }
+  }
+
+  private record Committed(ScheduleSlot slot, long scheduleId, boolean released) {
+
+  }
+
+  public class Rebuild {
+
+    private final List<Map<ScheduleSlot, Long>> loaded = new ArrayList<>(STRIPES);
+
+    private Rebuild() {
+      for (int i = 0; i < STRIPES; i++) {
+        loaded.add(new HashMap<>());
+      }
+    }
+
+    public void load(ScheduleEntity schedule) {
+      var slot = ScheduleSlot.of(schedule);
+      if (slot != null) {
+        loaded.get(stripeIndex(slot)).put(slot, schedule.getScheduleid());
+      }
+    }
+
+    /**
+     * すべてのストライプを止めて、読み込んだ行に読んでいる間のコミットと進行中の予約を重ねて差し替える。
+     * 差し替えはメモリの中だけで済むので、止めるのは一瞬。
+     */
+    public void finish() {
+      for (var stripe : stripes) {
+        stripe.lock.lock();
+      }
+      try {
+        for (var committed : journal) {
+          var owners = loaded.get(stripeIndex(committed.slot()));
+          if (committed.released()) {
+            owners.remove(committed.slot(), committed.scheduleId());
+          } else {
+            owners.put(committed.slot(), committed.scheduleId());
+          }
+        }
+        var slots = new ArrayList<ScheduleSlot>();
+        for (int i = 0; i < STRIPES; i++) {
+          var owners = loaded.get(i);
+          stripes[i].inFlight.forEach(owners::putIfAbsent);
+          stripes[i].owners = owners;
+          slots.addAll(owners.keySet());
+        }
+        scheduleAvailability.replaceAll(slots);
+      } finally {
+        journal = null;
+        for (var stripe : stripes) {
+          stripe.lock.unlock();
+        }
+      }
+    }
+
+    public void cancel() {
+      journal = null;
+    }
+  }
+}
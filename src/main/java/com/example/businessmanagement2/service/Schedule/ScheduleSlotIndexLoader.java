@@ -0,0 +1,111 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import com.example.businessmanagement2.repository.routing.RoutingContext;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.event.ChangeType;
+import com.example.businessmanagement2.service.version.ResourceVersions;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 起動時に schedules を Cursor で読み、ScheduleSlotIndex を作る。
+ * 索引は書き込みの重複チェックに使うので、レプリカの遅れを持ち込まないようプライマリから読む。
+ * ユーザーを消したとき（作業予定は ON DELETE CASCADE で消える）と、cache_versions の schedules の行が
+ * 他ノードの書き込みで進んだときは、索引が古くなっているので作り直す。
+ * 気づくのは書き込み側やポーリングのスレッドなので、印だけ付けて作り直しは reloadIfStale で行う。
+ */
+@Slf4j
+@Component
+public class ScheduleSlotIndexLoader implements ApplicationRunner {
+
+  private static final int CATCH_UP_BATCH = 256;
+
+  private final ScheduleService scheduleService;
+
+  private final ScheduleSlotIndex scheduleSlotIndex;
+
+  private final ChangeFeed changeFeed;
+
+  private final AtomicBoolean stale = new AtomicBoolean();
+
+  /**
+   * catchUp は書き込み側のスレッドから呼ばれるので、作り直し中の reload とは別のロックにする。
+   */
+  private final Object sequenceLock = new Object();
+
+  private long lastSequence;
+
+  public ScheduleSlotIndexLoader(ScheduleService scheduleService,
+      ScheduleSlotIndex scheduleSlotIndex, ChangeFeed changeFeed,
+      ResourceVersions resourceVersions) {
+    this.scheduleService = scheduleService;
+    this.scheduleSlotIndex = scheduleSlotIndex;
+    this.changeFeed = changeFeed;
+    this.lastSequence = changeFeed.lastSequence();
+    changeFeed.addListener(this::catchUp);
+    resourceVersions.addOtherNodeChangeListener(ChangeResource.SCHEDULE, () -> stale.set(true));
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    reload();
+    log.info("Loaded {} schedule slots", scheduleSlotIndex.size());
+  }
+
+  @Scheduled(fixedDelayString = "${app.schedule-slots.reload-check-interval:PT1S}")
+  public void reloadIfStale() {
+    if (!stale.getAndSet(false)) {
+      return;
+    }
+    try {
+      reload();
+      log.info("Reloaded {} schedule slots", scheduleSlotIndex.size());
+    } catch (RuntimeException e) {
+      log.warn("Failed to reload schedule slots. Retrying on the next check.", e);
+      stale.set(true);
+    }
+  }
+
+  synchronized void reload() {
+    var rebuild = scheduleSlotIndex.rebuild();
+    try {
+      RoutingContext.onPrimary(() -> {
+        scheduleService.scanScheduleList(rebuild::load);
+        return null;
+      });
+    } catch (RuntimeException e) {
+      rebuild.cancel();
+      throw e;
+    }
+    rebuild.finish();
+  }
+
+  /**
+   * ユーザーの削除で消えた作業予定はイベントにならないので、削除のイベントを見たら作り直す。
+   */
+  private void catchUp() {
+    synchronized (sequenceLock) {
+      while (true) {
+        var slice = changeFeed.readAfter(lastSequence, CATCH_UP_BATCH);
+        if (slice.isMissed()) {
+          stale.set(true);
+        }
+        if (slice.getEvents().isEmpty()) {
+          return;
+        }
+        for (var event : slice.getEvents()) {
+          if (event.getResource() == ChangeResource.USER
+              && event.getType() == ChangeType.DELETED) {
+            stale.set(true);
+          }
+          lastSequence = event.getSequence();
+        }
+      }
+    }
+  }
+}
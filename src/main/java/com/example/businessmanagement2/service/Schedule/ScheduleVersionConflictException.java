@@ -0,0 +1,19 @@
+package com.example.businessmanagement2.service.Schedule;
+
+import lombok.Getter;
+
+@Getter
+public class ScheduleVersionConflictException extends RuntimeException {
+
+  private final long scheduleId;
+
+  private final long currentVersion;
+
+  public ScheduleVersionConflictException(long scheduleId, long expectedVersion,
+      long currentVersion) {
+    super("ScheduleEntity (id = " + scheduleId + ") has been modified. expected version = "
+        + expectedVersion + ", current version = " + currentVersion + ".");
+    this.scheduleId = scheduleId;
+    this.currentVersion = currentVersion;
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.businessmanagement2.service.bulkhead;
+
+/**
+ * DB を使う処理の種類。種類ごとに別のスレッドプールで動かし、重い処理が軽い処理を待たせないようにする。
+ */
+public enum Bulkhead {
+
+  /**
+   * 主キーでの1件取得など、すぐ終わる読み取り。
+   */
+  READ,
+
+  /**
+   * 1件の登録・更新・削除。
+   */
+  WRITE,
+
+  /**
+   * 一覧・検索・一括処理など、件数に比例して重くなる処理。
+   */
+  BULK,
+
+  /**
+   * CSV の書き出し。期間全体を読むので長く続き、BULK に入れると一覧や検索を待たせてしまう。
+   */
+  EXPORT
+
+}
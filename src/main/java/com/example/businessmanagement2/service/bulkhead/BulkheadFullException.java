@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.service.bulkhead;
+
+import lombok.Getter;
+
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+  private final Bulkhead bulkhead;
+
+  public BulkheadFullException(Bulkhead bulkhead, Throwable cause) {
+    super("Bulkhead (" + bulkhead + ") is full. Retry later.", cause);
+    this.bulkhead = bulkhead;
+  }
+}
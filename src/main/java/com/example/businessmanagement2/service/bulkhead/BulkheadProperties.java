@@ -0,0 +1,60 @@
+package com.example.businessmanagement2.service.bulkhead;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+
+  /**
+   * false なら呼び出したスレッドでそのまま実行する。
+   */
+  private boolean enabled = true;
+
+  /**
+   * 満杯やタイムアウトで 503 を返すときの Retry-After。
+   */
+  private Duration retryAfter = Duration.ofSeconds(1);
+
+  private Pool read = new Pool(5, 50, Duration.ofSeconds(2));
+
+  private Pool write = new Pool(3, 20, Duration.ofSeconds(5));
+
+  private Pool bulk = new Pool(2, 4, Duration.ofSeconds(30));
+
+  private Pool export = new Pool(2, 2, Duration.ofSeconds(30));
+
+  public Pool pool(Bulkhead bulkhead) {
+    return switch (bulkhead) {
+      case READ -> read;
+      case WRITE -> write;
+      case BULK -> bulk;
+      case EXPORT -> export;
+    };
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Pool {
+
+    private int poolSize;
+
+    /**
+     * 実行待ちにできる数。これを超えた分はすぐに断る。
+     */
+    private int queueCapacity;
+
+    /**
+     * 投入してから結果が出るまでの上限。待ち時間も含む。
+     */
+    private Duration timeout;
+
+  }
+}
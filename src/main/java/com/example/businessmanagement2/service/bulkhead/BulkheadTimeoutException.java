@@ -0,0 +1,15 @@
+package com.example.businessmanagement2.service.bulkhead;
+
+import java.time.Duration;
+import lombok.Getter;
+
+@Getter
+public class BulkheadTimeoutException extends RuntimeException {
+
+  private final Bulkhead bulkhead;
+
+  public BulkheadTimeoutException(Bulkhead bulkhead, Duration timeout) {
+    super("Bulkhead (" + bulkhead + ") did not complete within " + timeout.toMillis() + " ms.");
+    this.bulkhead = bulkhead;
+  }
+}
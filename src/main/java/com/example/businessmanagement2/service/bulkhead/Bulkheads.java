@@ -0,0 +1,102 @@
+package com.example.businessmanagement2.service.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 処理の種類ごとに大きさを決めたスレッドプール。
+ * 待ち行列が一杯なら待たずに BulkheadFullException、時間内に終わらなければ BulkheadTimeoutException で完了する。
+ * タイムアウトしても実行中の処理は止めず、結果を捨てるだけなので、プールの大きさは DB の接続数に合わせておく。
+ */
+@Component
+public class Bulkheads implements MeterBinder, DisposableBean {
+
+  private final BulkheadProperties properties;
+
+  private final Map<Bulkhead, ThreadPoolTaskExecutor> executors = new EnumMap<>(Bulkhead.class);
+
+  public Bulkheads(BulkheadProperties properties) {
+    this.properties = properties;
+    if (properties.isEnabled()) {
+      for (var bulkhead : Bulkhead.values()) {
+        executors.put(bulkhead, createExecutor(bulkhead, properties.pool(bulkhead)));
+      }
+    }
+  }
+
+  private static ThreadPoolTaskExecutor createExecutor(Bulkhead bulkhead,
+      BulkheadProperties.Pool pool) {
+    var executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(pool.getPoolSize());
+    executor.setMaxPoolSize(pool.getPoolSize());
+    executor.setQueueCapacity(pool.getQueueCapacity());
+    executor.setThreadNamePrefix("bulkhead-" + bulkhead.name().toLowerCase() + "-");
+    executor.setTaskDecorator(new ContextTaskDecorator());
+    executor.initialize();
+    return executor;
+  }
+
+  public <T> CompletableFuture<T> read(Supplier<T> work) {
+    return submit(Bulkhead.READ, work);
+  }
+
+  public <T> CompletableFuture<T> write(Supplier<T> work) {
+    return submit(Bulkhead.WRITE, work);
+  }
+
+  public <T> CompletableFuture<T> bulk(Supplier<T> work) {
+    return submit(Bulkhead.BULK, work);
+  }
+
+  public <T> CompletableFuture<T> export(Supplier<T> work) {
+    return submit(Bulkhead.EXPORT, work);
+  }
+
+  public <T> CompletableFuture<T> submit(Bulkhead bulkhead, Supplier<T> work) {
+    if (!properties.isEnabled()) {
+      return CompletableFuture.completedFuture(work.get());
+    }
+    var timeout = properties.pool(bulkhead).getTimeout();
+    CompletableFuture<T> future;
+    try {
+      future = CompletableFuture.supplyAsync(work, executors.get(bulkhead));
+    } catch (RejectedExecutionException e) {
+      return CompletableFuture.failedFuture(new BulkheadFullException(bulkhead, e));
+    }
+    return future
+        .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .exceptionally(e -> {
+          var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+          if (cause instanceof TimeoutException) {
+            throw new BulkheadTimeoutException(bulkhead, timeout);
+          }
+          throw e instanceof CompletionException completion ? completion
+              : new CompletionException(cause);
+        });
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    executors.forEach((bulkhead, executor) ->
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "bulkhead",
+            Tags.of("bulkhead", bulkhead.name().toLowerCase())).bindTo(registry));
+  }
+
+  @Override
+  public void destroy() {
+    executors.values().forEach(ThreadPoolTaskExecutor::shutdown);
+  }
+}
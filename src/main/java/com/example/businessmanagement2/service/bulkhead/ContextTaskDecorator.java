@@ -0,0 +1,31 @@
+package com.example.businessmanagement2.service.bulkhead;
+
+import com.example.businessmanagement2.repository.metrics.CurrentOperation;
+import com.example.businessmanagement2.repository.metrics.StatementCounter;
+import com.example.businessmanagement2.repository.routing.RoutingContext;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 投入したスレッドの操作名と文の集計、プライマリから読むかどうかを、実行するスレッドに引き継ぐ。
+ */
+class ContextTaskDecorator implements TaskDecorator {
+
+  @Override
+  public Runnable decorate(Runnable runnable) {
+    var operation = CurrentOperation.get();
+    var counts = StatementCounter.current();
+    var pinnedToPrimary = RoutingContext.isPinnedToPrimary();
+    return () -> {
+      CurrentOperation.set(operation);
+      StatementCounter.attach(counts);
+      RoutingContext.set(pinnedToPrimary);
+      try {
+        runnable.run();
+      } finally {
+        RoutingContext.clear();
+        StatementCounter.detach();
+        CurrentOperation.clear();
+      }
+    };
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.businessmanagement2.service.event;
+
+import lombok.Value;
+
+/**
+ * コミットされた1件の変更。data は変更後のエンティティで、削除のときは null。
+ */
+@Value
+public class ChangeEvent {
+
+  long sequence;
+
+  ChangeResource resource;
+
+  ChangeType type;
+
+  long resourceId;
+
+  Object data;
+
+}
@@ -0,0 +1,113 @@
+package com.example.businessmanagement2.service.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * コミットされた変更を固定長のリングバッファに積む。
+ * 書き込み側は積んで購読者に知らせるだけで、送信は待たない。読み遅れた購読者は古いイベントを
+ * 上書きされて取りこぼしを知るだけで、書き込み側やほかの購読者を止めることはない。
+ * イベントIDは起動ごとの接頭辞と連番で、別の起動のIDで再開しようとしたら取りこぼし扱いにする。
+ */
+@Component
+public class ChangeFeed {
+
+  private final ChangeEvent[] ring;
+
+  private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+  private long lastSequence;
+
+  public ChangeFeed(ChangeFeedProperties properties) {
+    this.ring = new ChangeEvent[properties.getBufferSize()];
+  }
+
+  /**
+   * トランザクションの中ならコミットされたときに、外ならすぐに積む。
+   */
+  public void publishAfterCommit(ChangeResource resource, ChangeType type, long resourceId,
+      Object data) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(resource, type, resourceId, data);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(resource, type, resourceId, data);
+      }
+    });
+  }
+
+  private void publish(ChangeResource resource, ChangeType type, long resourceId, Object data) {
+    synchronized (this) {
+      lastSequence++;
+      ring[(int) (lastSequence % ring.length)] = new ChangeEvent(lastSequence, resource, type,
+          resourceId, data);
+    }
+    listeners.forEach(Runnable::run);
+  }
+
+  public synchronized long lastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * afterSequence より後のイベントを古い順に最大 max 件返す。
+   * afterSequence の次のイベントがもう上書きされていたら missed を立て、残っている最古から返す。
+   */
+  public synchronized Slice readAfter(long afterSequence, int max) {
+    var oldest = Math.max(1, lastSequence - ring.length + 1);
+    var missed = afterSequence + 1 < oldest;
+    var from = Math.max(afterSequence + 1, oldest);
+    var events = new ArrayList<ChangeEvent>();
+    for (var sequence = from; sequence <= lastSequence && events.size() < max; sequence++) {
+      events.add(ring[(int) (sequence % ring.length)]);
+    }
+    return new Slice(events, missed);
+  }
+
+  /**
+   * 変更があるたびに呼ばれる。呼び出しは書き込み側のスレッドなので、すぐに戻ること。
+   */
+  public Runnable addListener(Runnable listener) {
+    listeners.add(listener);
+    return () -> listeners.remove(listener);
+  }
+
+  public String eventId(long sequence) {
+    return bootId + "-" + sequence;
+  }
+
+  /**
+   * この起動で発行したイベントIDなら連番を返す。
+   */
+  public OptionalLong parseEventId(String eventId) {
+    if (eventId == null || !eventId.startsWith(bootId + "-")) {
+      return OptionalLong.empty();
+    }
+    try {
+      var sequence = Long.parseLong(eventId.substring(bootId.length() + 1));
+      return sequence >= 0 ? OptionalLong.of(sequence) : OptionalLong.empty();
+    } catch (NumberFormatException e) {
+      return OptionalLong.empty();
+    }
+  }
+
+  @Value
+  public static class Slice {
+
+    List<ChangeEvent> events;
+
+    boolean missed;
+
+  }
+}
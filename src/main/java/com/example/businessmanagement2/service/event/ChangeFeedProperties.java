@@ -0,0 +1,35 @@
+package com.example.businessmanagement2.service.event;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.events")
+public class ChangeFeedProperties {
+
+  /**
+   * 直近の変更をこの件数だけ残す。Last-Event-ID で再開できるのはこの範囲まで。
+   */
+  private int bufferSize = 1024;
+
+  /**
+   * 購読者へ送るスレッドの数。書き込み側のスレッドは送信を待たない。
+   */
+  private int dispatchThreads = 4;
+
+  private int maxSubscribers = 100;
+
+  /**
+   * 変更がなくてもこの間隔でコメント行を送り、切れた接続を見つける。
+   */
+  private Duration heartbeat = Duration.ofSeconds(15);
+
+  /**
+   * 1本の接続を開いておく時間。クライアントは Last-Event-ID を付けてつなぎ直す。
+   */
+  private Duration timeout = Duration.ofMinutes(30);
+
+}
@@ -0,0 +1,9 @@
+package com.example.businessmanagement2.service.event;
+
+public enum ChangeResource {
+
+  SCHEDULE,
+
+  USER
+
+}
@@ -0,0 +1,11 @@
+package com.example.businessmanagement2.service.event;
+
+public enum ChangeType {
+
+  CREATED,
+
+  UPDATED,
+
+  DELETED
+
+}
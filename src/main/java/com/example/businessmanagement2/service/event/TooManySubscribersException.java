@@ -0,0 +1,8 @@
+package com.example.businessmanagement2.service.event;
+
+public class TooManySubscribersException extends RuntimeException {
+
+  public TooManySubscribersException(int maxSubscribers) {
+    super("Change feed already has " + maxSubscribers + " subscribers. Retry later.");
+  }
+}
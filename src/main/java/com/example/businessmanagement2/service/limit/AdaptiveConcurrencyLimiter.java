@@ -0,0 +1,209 @@
+package com.example.businessmanagement2.service.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 処理中のリクエスト数の上限を、遅延の変化から決める（Netflix の concurrency-limits の Gradient2 と同じ考え方）。
+ * 直近の遅延が長期の平均より伸びていれば、DB の前で待ちが増えているとみなして上限を下げ、
+ * 変わらなければ √上限 ずつ広げる。上限を超えた分は待たせずに断るので、混んでいても待ち行列が伸びない。
+ * 優先度の低いリクエストは上限の一部しか使えず、混み始めると先に断られる。
+ */
+@Component
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+  /**
+   * 直近の遅延が長期の平均の半分を切ったら、長期の平均を下げて早く追いつかせる。
+   */
+  private static final double RECOVERY_RATIO = 2.0;
+
+  private final ConcurrencyLimitProperties properties;
+
+  private final LongSupplier nanoClock;
+
+  private final AtomicInteger inflight = new AtomicInteger();
+
+  private final Map<RequestPriority, AtomicLong> rejected = new EnumMap<>(RequestPriority.class);
+
+  private volatile double limit;
+
+  private double longRttNanos;
+
+  private long windows;
+
+  private long windowRttNanos;
+
+  private int windowSamples;
+
+  private int windowMaxInflight;
+
+  @Autowired
+  public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+    this(properties, System::nanoTime);
+  }
+
+  public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties,
+      LongSupplier nanoClock) {
+    this.properties = properties;
+    this.nanoClock = nanoClock;
+    this.limit = properties.getInitialLimit();
+    for (var priority : RequestPriority.values()) {
+      rejected.put(priority, new AtomicLong());
+    }
+  }
+
+  /**
+   * 空きがなければ空を返す。受け付けたら、終わったときに必ず Permit のどれかを呼ぶ。
+   */
+  public Optional<Permit> tryAcquire(RequestPriority priority) {
+    if (!properties.isEnabled()) {
+      return Optional.of(new Permit(0, false));
+    }
+    int allowed = Math.max(1, (int) (limit * properties.share(priority)));
+    while (true) {
+      int current = inflight.get();
+      if (current >= allowed) {
+        rejected.get(priority).incrementAndGet();
+        return Optional.empty();
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        return Optional.of(new Permit(current + 1, true));
+      }
+    }
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInflight() {
+    return inflight.get();
+  }
+
+  public long getRejected(RequestPriority priority) {
+    return rejected.get(priority).get();
+  }
+
+  /**
+   * 1件ごとの遅延はばらつくので、sampleWindow 件の平均を直近の遅延として上限を動かす。
+   */
+  private synchronized void onSample(long rttNanos, int inflightAtStart) {
+    windowRttNanos += rttNanos;
+    windowMaxInflight = Math.max(windowMaxInflight, inflightAtStart);
+    if (++windowSamples < properties.getSampleWindow()) {
+      return;
+    }
+    double shortRttNanos = (double) windowRttNanos / windowSamples;
+    int maxInflight = windowMaxInflight;
+    windowRttNanos = 0;
+    windowSamples = 0;
+    windowMaxInflight = 0;
+
+    windows++;
+    if (windows == 1) {
+      longRttNanos = shortRttNanos;
+    } else {
+      longRttNanos += (shortRttNanos - longRttNanos)
+          / Math.min(windows, properties.getLongWindow());
+    }
+    if (longRttNanos / shortRttNanos > RECOVERY_RATIO) {
+      longRttNanos *= 0.95;
+    }
+    // 上限の半分も使っていないときは、遅延が上限のせいかどうか分からないので動かさない
+    if (maxInflight < limit / 2) {
+      return;
+    }
+    double gradient = Math.max(0.5,
+        Math.min(1.0, properties.getRttTolerance() * longRttNanos / shortRttNanos));
+    double next = limit * gradient + Math.sqrt(limit);
+    next = limit * (1 - properties.getSmoothing()) + next * properties.getSmoothing();
+    limit = clamp(next);
+  }
+
+  private synchronized void onDropped() {
+    limit = clamp(limit * properties.getBackoffRatio());
+  }
+
+  private double clamp(double value) {
+    return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), value));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current adaptive limit of requests in flight")
+        .register(registry);
+    Gauge.builder("concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInflight)
+        .description("Requests currently holding a permit")
+        .register(registry);
+    for (var priority : RequestPriority.values()) {
+      FunctionCounter.builder("concurrency.rejected", rejected.get(priority), AtomicLong::get)
+          .tag("priority", priority.name().toLowerCase())
+          .description("Requests rejected because the limit was reached")
+          .register(registry);
+    }
+  }
+
+  /**
+   * 受け付けた1件分。2回目以降の呼び出しは無視する。
+   */
+  public class Permit {
+
+    private final int inflightAtStart;
+
+    private final boolean counted;
+
+    private final long startNanos = nanoClock.getAsLong();
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(int inflightAtStart, boolean counted) {
+      this.inflightAtStart = inflightAtStart;
+      this.counted = counted;
+    }
+
+    /**
+     * 遅延をサンプルとして使う。
+     */
+    public void onSuccess() {
+      if (release()) {
+        onSample(Math.max(1, nanoClock.getAsLong() - startNanos), inflightAtStart);
+      }
+    }
+
+    /**
+     * 下流が混んでいて断られた。遅延に関係なく上限を下げる。
+     */
+    public void onDropped() {
+      if (release()) {
+        AdaptiveConcurrencyLimiter.this.onDropped();
+      }
+    }
+
+    /**
+     * 失敗など、遅延が混み具合を表さないときは上限を動かさない。
+     */
+    public void onIgnore() {
+      release();
+    }
+
+    private boolean release() {
+      if (!counted || !released.compareAndSet(false, true)) {
+        return false;
+      }
+      inflight.decrementAndGet();
+      return true;
+    }
+  }
+}
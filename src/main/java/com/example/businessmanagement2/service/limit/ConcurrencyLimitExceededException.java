@@ -0,0 +1,15 @@
+package com.example.businessmanagement2.service.limit;
+
+import lombok.Getter;
+
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  private final RequestPriority priority;
+
+  public ConcurrencyLimitExceededException(RequestPriority priority, int limit) {
+    super("Too many requests in flight (limit = " + limit + ", priority = " + priority
+        + "). Retry later.");
+    this.priority = priority;
+  }
+}
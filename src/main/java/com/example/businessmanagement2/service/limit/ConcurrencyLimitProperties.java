@@ -0,0 +1,74 @@
+package com.example.businessmanagement2.service.limit;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+  /**
+   * false なら上限を設けず、遅延の計測もしない。
+   */
+  private boolean enabled = true;
+
+  /**
+   * 上限を超えて 503 を返すときの Retry-After。
+   */
+  private Duration retryAfter = Duration.ofSeconds(1);
+
+  private int initialLimit = 20;
+
+  private int minLimit = 4;
+
+  /**
+   * Tomcat のスレッド数より大きくしても意味がない。
+   */
+  private int maxLimit = 200;
+
+  /**
+   * 直近の遅延が長期の平均のこの倍までなら、混んでいないとみなして上限を広げる。
+   */
+  private double rttTolerance = 1.5;
+
+  /**
+   * この件数の遅延の平均ごとに上限を見直す。
+   */
+  private int sampleWindow = 20;
+
+  /**
+   * 長期の平均に使う、sampleWindow の個数。大きいほど、遅い状態が続いても基準がゆっくりとしか動かない。
+   */
+  private int longWindow = 100;
+
+  /**
+   * 新しい上限を、今の上限とどれだけの割合で混ぜるか。
+   */
+  private double smoothing = 0.2;
+
+  /**
+   * 下流で断られた（503）ときに上限に掛ける値。
+   */
+  private double backoffRatio = 0.9;
+
+  /**
+   * NORMAL が使える、上限に対する割合。HIGH は上限まで使える。
+   */
+  private double normalShare = 0.9;
+
+  /**
+   * LOW が使える、上限に対する割合。
+   */
+  private double lowShare = 0.6;
+
+  double share(RequestPriority priority) {
+    return switch (priority) {
+      case HIGH -> 1.0;
+      case NORMAL -> normalShare;
+      case LOW -> lowShare;
+    };
+  }
+}
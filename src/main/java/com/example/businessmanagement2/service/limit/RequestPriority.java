@@ -0,0 +1,23 @@
+package com.example.businessmanagement2.service.limit;
+
+/**
+ * 同時実行数の上限に近づいたとき、どのリクエストから断るか。LOW から先に断る。
+ */
+public enum RequestPriority {
+
+  /**
+   * 主キーでの1件取得など、画面を開くのに欠かせない軽い読み取り。
+   */
+  HIGH,
+
+  /**
+   * 1件の登録・更新・削除。
+   */
+  NORMAL,
+
+  /**
+   * 一覧・検索・一括処理など、後でやり直しても困らない重い処理。
+   */
+  LOW
+
+}
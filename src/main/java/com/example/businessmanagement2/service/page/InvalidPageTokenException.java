@@ -0,0 +1,14 @@
+package com.example.businessmanagement2.service.page;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidPageTokenException extends RuntimeException {
+
+  private final String token;
+
+  public InvalidPageTokenException(String token) {
+    super("next token (" + token + ") is invalid.");
+    this.token = token;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.businessmanagement2.service.page;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.Value;
+
+/**
+ * キーセット方式で取得した1ページ分の結果。
+ * next は次ページ取得用の不透明なトークンで、最終ページでは null になる。
+ */
+@Value
+public class Page<T> {
+
+  public static final int DEFAULT_LIMIT = 100;
+
+  public static final int MAX_LIMIT = 1000;
+
+  List<T> content;
+
+  String next;
+
+  /**
+   * limit + 1 件まで取得した行からページを組み立てる。
+   * 余分な1件が取れていれば次ページがあるので、最後の要素からトークンを作る。
+   */
+  public static <T> Page<T> of(List<T> rows, int limit, Function<T, String> tokenOf) {
+    if (rows.size() <= limit) {
+      return new Page<>(List.copyOf(rows), null);
+    }
+    var content = List.copyOf(rows.subList(0, limit));
+    return new Page<>(content, tokenOf.apply(content.get(limit - 1)));
+  }
+
+  public static int clampLimit(int limit) {
+    return Math.max(1, Math.min(limit, MAX_LIMIT));
+  }
+}
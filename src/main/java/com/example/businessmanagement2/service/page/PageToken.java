@@ -0,0 +1,36 @@
+package com.example.businessmanagement2.service.page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * キーセットページングのカーソルを不透明なトークンに変換する。
+ * 中身はキー値をカンマで連結して Base64URL にしただけなので、クライアントは解釈しないこと。
+ */
+public final class PageToken {
+
+  private static final String SEPARATOR = ",";
+
+  private PageToken() {
+  }
+
+  public static String encode(String... keys) {
+    var raw = String.join(SEPARATOR, keys);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static String[] decode(String token, int keyCount) {
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidPageTokenException(token);
+    }
+    var keys = raw.split(SEPARATOR, -1);
+    if (keys.length != keyCount) {
+      throw new InvalidPageTokenException(token);
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.businessmanagement2.service.search;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * MySQL の ngram パーサーの FULLTEXT インデックスで引く。
+ * 語を2文字ずつに分けた OR 検索にならないよう、BOOLEAN MODE のフレーズとして渡す。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.search", name = "engine", havingValue = "fulltext",
+    matchIfMissing = true)
+public class FullTextScheduleSearchEngine implements ScheduleSearchEngine {
+
+  private final ScheduleRepository scheduleRepository;
+
+  @Override
+  public List<ScheduleEntity> search(String phrase, int offset, int limit) {
+    // フレーズの中では演算子は効かないが、" だけはフレーズを閉じてしまうので空白にする
+    var quoted = '"' + phrase.replace('"', ' ') + '"';
+    return scheduleRepository.searchFullText(quoted, offset, limit);
+  }
+}
@@ -0,0 +1,248 @@
+package com.example.businessmanagement2.service.search;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import com.example.businessmanagement2.service.event.ChangeEvent;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.event.ChangeType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * FULLTEXT インデックスのない H2 などで使う、メモリ上の 2-gram の転置索引。
+ * 起動時に schedules を読み込み、その後は ChangeFeed のイベントで追いかける。
+ * 追いかけるのは専用のスレッドと search() で、書き込み側のスレッドは起こすだけで索引のロックを待たない。
+ * 検索語の 2-gram の posting を短い順に突き合わせて候補を絞り、本文にフレーズがあるものだけを返す。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.search", name = "engine", havingValue = "memory")
+public class InMemoryScheduleSearchEngine implements ScheduleSearchEngine, ApplicationRunner,
+    DisposableBean {
+
+  private static final int CATCH_UP_BATCH = 256;
+
+  /**
+   * 短い place に出てくる語のほうが、その予定をよく表しているとみなす。
+   */
+  private static final int PLACE_WEIGHT = 2;
+
+  private final ScheduleRepository scheduleRepository;
+
+  private final ChangeFeed changeFeed;
+
+  private final Map<Long, Document> documents = new HashMap<>();
+
+  private final Map<String, Set<Long>> postings = new HashMap<>();
+
+  private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  private final Runnable removeListener;
+
+  private long lastSequence;
+
+  public InMemoryScheduleSearchEngine(ScheduleRepository scheduleRepository,
+      ChangeFeed changeFeed) {
+    this.scheduleRepository = scheduleRepository;
+    this.changeFeed = changeFeed;
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    // 待ち行列に入るのは scheduled が立っている間の1つだけ
+    executor.setQueueCapacity(1);
+    executor.setThreadNamePrefix("search-index-");
+    executor.initialize();
+    this.removeListener = changeFeed.addListener(this::schedule);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    reload();
+    log.info("Indexed {} schedules for search", size());
+  }
+
+  @Override
+  public synchronized List<ScheduleEntity> search(String phrase, int offset, int limit) {
+    catchUp();
+    var lists = new ArrayList<Set<Long>>();
+    for (var gram : ScheduleSearchText.bigrams(phrase)) {
+      var ids = postings.get(gram);
+      if (ids == null) {
+        return List.of();
+      }
+      lists.add(ids);
+    }
+    lists.sort(Comparator.comparingInt(Set::size));
+    var hits = new ArrayList<Hit>();
+    for (var id : lists.get(0)) {
+      if (!lists.stream().allMatch(ids -> ids.contains(id))) {
+        continue;
+      }
+      var document = documents.get(id);
+      var score = PLACE_WEIGHT * ScheduleSearchText.countOccurrences(document.place(), phrase)
+          + ScheduleSearchText.countOccurrences(document.workcontent(), phrase);
+      if (score > 0) {
+        hits.add(new Hit(document.entity(), score));
+      }
+    }
+    hits.sort(Comparator.comparingInt(Hit::score).reversed()
+        .thenComparing(hit -> hit.entity().getScheduleid()));
+    return hits.stream()
+        .skip(offset)
+        .limit(limit)
+        .map(Hit::entity)
+        .toList();
+  }
+
+  public synchronized int size() {
+    return documents.size();
+  }
+
+  @Override
+  public void destroy() {
+    removeListener.run();
+    executor.shutdown();
+  }
+
+  /**
+   * 書き込み側の afterCommit から呼ばれる。索引のロックは取らず、専用のスレッドを起こすだけにする。
+   */
+  private void schedule() {
+    if (!scheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::drain);
+    } catch (RejectedExecutionException e) {
+      // 止めている途中。残りは次の search() が追いかける
+      scheduled.set(false);
+    }
+  }
+
+  /**
+   * 追いかけ終わったあとに積まれた変更を取りこぼさないよう、フラグを戻してから残りを確かめる。
+   */
+  private void drain() {
+    do {
+      try {
+        catchUp();
+      } catch (RuntimeException e) {
+        // 読み直しに失敗したときは、次のイベントか search() でもう一度追いかける
+        log.warn("Failed to catch up the search index", e);
+        scheduled.set(false);
+        return;
+      }
+      scheduled.set(false);
+    } while (changeFeed.lastSequence() > currentSequence() && scheduled.compareAndSet(false, true));
+  }
+
+  private synchronized long currentSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * ChangeFeed から取りこぼしたときは、schedules を読み直して作り直す。
+   */
+  synchronized void reload() {
+    lastSequence = changeFeed.lastSequence();
+    documents.clear();
+    postings.clear();
+    scheduleRepository.findScheduleList().forEach(this::put);
+    catchUp();
+  }
+
+  /**
+   * 専用のスレッドと search() から呼ばれる。取りこぼしたときの読み直しもここで行う。
+   */
+  synchronized void catchUp() {
+    while (true) {
+      var slice = changeFeed.readAfter(lastSequence, CATCH_UP_BATCH);
+      if (slice.isMissed()) {
+        reload();
+        return;
+      }
+      if (slice.getEvents().isEmpty()) {
+        return;
+      }
+      for (var event : slice.getEvents()) {
+        apply(event);
+        lastSequence = event.getSequence();
+      }
+    }
+  }
+
+  private void apply(ChangeEvent event) {
+    if (event.getResource() == ChangeResource.USER) {
+      // ユーザーを消すと作業予定も ON DELETE CASCADE で消えるが、そのイベントは出ない
+      if (event.getType() == ChangeType.DELETED) {
+        documents.values().stream()
+            .filter(document -> document.entity().getUserid() == event.getResourceId())
+            .map(document -> document.entity().getScheduleid())
+            .toList()
+            .forEach(this::remove);
+      }
+      return;
+    }
+    if (event.getType() == ChangeType.DELETED) {
+      remove(event.getResourceId());
+    } else if (event.getData() instanceof ScheduleEntity entity) {
+      put(entity);
+    }
+  }
+
+  private void put(ScheduleEntity entity) {
+    remove(entity.getScheduleid());
+    var document = new Document(entity, ScheduleSearchText.normalize(entity.getPlace()),
+        ScheduleSearchText.normalize(entity.getWorkcontent()));
+    documents.put(entity.getScheduleid(), document);
+    for (var gram : document.grams()) {
+      postings.computeIfAbsent(gram, key -> new HashSet<>()).add(entity.getScheduleid());
+    }
+  }
+
+  private void remove(long scheduleId) {
+    var document = documents.remove(scheduleId);
+    if (document == null) {
+      return;
+    }
+    for (var gram : document.grams()) {
+      var ids = postings.get(gram);
+      ids.remove(scheduleId);
+      if (ids.isEmpty()) {
+        postings.remove(gram);
+      }
+    }
+  }
+
+  private record Document(ScheduleEntity entity, String place, String workcontent) {
+
+    /**
+     * place と work_content をまたぐ 2-gram は作らない。
+     */
+    Set<String> grams() {
+      var grams = new HashSet<>(ScheduleSearchText.bigrams(place));
+      grams.addAll(ScheduleSearchText.bigrams(workcontent));
+      return grams;
+    }
+  }
+
+  private record Hit(ScheduleEntity entity, int score) {
+
+  }
+}
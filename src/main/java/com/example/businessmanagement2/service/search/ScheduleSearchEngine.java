@@ -0,0 +1,16 @@
+package com.example.businessmanagement2.service.search;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import java.util.List;
+
+/**
+ * place と work_content を対象にしたキーワード検索。app.search.engine で実装を選ぶ。
+ */
+public interface ScheduleSearchEngine {
+
+  /**
+   * phrase をそのまま含む作業予定を関連度の高い順に並べ、offset 件飛ばして最大 limit 件返す。
+   * phrase は ScheduleSearchText.normalize 済みで、MIN_QUERY_LENGTH 文字以上あること。
+   */
+  List<ScheduleEntity> search(String phrase, int offset, int limit);
+}
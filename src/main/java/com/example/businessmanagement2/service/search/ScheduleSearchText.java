@@ -0,0 +1,51 @@
+package com.example.businessmanagement2.service.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 検索語と本文の正規化と 2-gram への分割。全角英数と半角カナは NFKC でそろえる。
+ */
+public final class ScheduleSearchText {
+
+  /**
+   * 2-gram の索引なので、1文字では引けない。
+   */
+  public static final int MIN_QUERY_LENGTH = 2;
+
+  public static final int MAX_QUERY_LENGTH = 256;
+
+  private ScheduleSearchText() {
+  }
+
+  public static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return Normalizer.normalize(text, Normalizer.Form.NFKC).strip().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * 正規化済みの text を 2-gram に分ける。1文字だけのときはその1文字を返す。
+   */
+  public static Set<String> bigrams(String text) {
+    var grams = new LinkedHashSet<String>();
+    if (text.length() == 1) {
+      grams.add(text);
+    }
+    for (int i = 0; i + 2 <= text.length(); i++) {
+      grams.add(text.substring(i, i + 2));
+    }
+    return grams;
+  }
+
+  public static int countOccurrences(String text, String phrase) {
+    int count = 0;
+    for (int i = text.indexOf(phrase); i >= 0; i = text.indexOf(phrase, i + 1)) {
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.businessmanagement2.service.stats;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import com.example.businessmanagement2.repository.stats.DailyManpowerEntity;
+import com.example.businessmanagement2.repository.stats.DailyManpowerRepository;
+import com.example.businessmanagement2.repository.stats.DailyManpowerSource;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Value;
+
+/**
+ * schedules の変更前後の行から daily_manpower に足し込む差分を作る。
+ * 同じキーへの差分は1回の upsert にまとめ、デッドロックしないよう主キー順に書く。
+ */
+public class DailyManpowerDeltas {
+
+  private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::getWorkingdate)
+      .thenComparing(Key::getNumberoffloors)
+      .thenComparingInt(Key::getUserid);
+
+  private final Map<Key, int[]> deltas = new TreeMap<>(KEY_ORDER);
+
+  public DailyManpowerDeltas add(ScheduleEntity schedule) {
+    return put(schedule, 1);
+  }
+
+  public DailyManpowerDeltas subtract(ScheduleEntity schedule) {
+    return put(schedule, -1);
+  }
+
+  public DailyManpowerDeltas add(DailyManpowerSource source) {
+    return put(new Key(source.getWorkingdate(), source.getUserid(), source.getNumberoffloors()),
+        PeopleCount.parse(source.getNumberofpeople()) * source.getSchedulecount(),
+        source.getSchedulecount());
+  }
+
+  public boolean isEmpty() {
+    return deltas.values().stream().allMatch(delta -> delta[0] == 0 && delta[1] == 0);
+  }
+
+  /**
+   * 差分を足し込み、作業予定が0件になった行は消す。
+   */
+  public void applyTo(DailyManpowerRepository repository) {
+    deltas.forEach((key, delta) -> {
+      if (delta[0] == 0 && delta[1] == 0) {
+        return;
+      }
+      var entity = new DailyManpowerEntity(key.getWorkingdate(), key.getUserid(),
+          key.getNumberoffloors(), delta[0], delta[1]);
+      repository.addDelta(entity);
+      if (delta[1] < 0) {
+        repository.deleteEmpty(entity);
+      }
+    });
+  }
+
+  /**
+   * schedules から読んだ DATE を WorkingDates で日付に戻す。
+   */
+  private DailyManpowerDeltas put(ScheduleEntity schedule, int sign) {
+    if (schedule == null) {
+      return this;
+    }
+    var workingdate = WorkingDates.toLocalDate(schedule.getWorkingdate());
+    return put(new Key(workingdate, schedule.getUserid(), schedule.getNumberoffloors()),
+        sign * PeopleCount.parse(schedule.getNumberofpeople()), sign);
+  }
+
+  private DailyManpowerDeltas put(Key key, int people, int schedules) {
+    var delta = deltas.computeIfAbsent(key, k -> new int[2]);
+    delta[0] += people;
+    delta[1] += schedules;
+    return this;
+  }
+
+  @Value
+  private static class Key {
+
+    LocalDate workingdate;
+
+    int userid;
+
+    String numberoffloors;
+
+  }
+}
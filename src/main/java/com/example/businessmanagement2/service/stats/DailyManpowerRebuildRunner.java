@@ -0,0 +1,44 @@
+package com.example.businessmanagement2.service.stats;
+
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * --rebuild-daily-manpower を付けて起動すると daily_manpower を作り直して終了する。
+ * --from と --to（yyyy-MM-dd）で期間を、--chunk-days で1トランザクションの日数を指定できる。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DailyManpowerRebuildRunner implements ApplicationRunner {
+
+  static final String OPTION = "rebuild-daily-manpower";
+
+  private final DailyManpowerRebuilder dailyManpowerRebuilder;
+
+  private final ConfigurableApplicationContext context;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!args.containsOption(OPTION)) {
+      return;
+    }
+    var chunkDays = args.containsOption("chunk-days")
+        ? Integer.parseInt(args.getOptionValues("chunk-days").get(0))
+        : DailyManpowerRebuilder.DEFAULT_CHUNK_DAYS;
+    if (args.containsOption("from") && args.containsOption("to")) {
+      dailyManpowerRebuilder.rebuild(LocalDate.parse(args.getOptionValues("from").get(0)),
+          LocalDate.parse(args.getOptionValues("to").get(0)), chunkDays);
+    } else {
+      dailyManpowerRebuilder.rebuildAll(chunkDays);
+    }
+    log.info("daily_manpower rebuild finished");
+    System.exit(SpringApplication.exit(context, () -> 0));
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.businessmanagement2.service.stats;
+
+import com.example.businessmanagement2.repository.stats.DailyManpowerRepository;
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * daily_manpower を schedules から作り直す。長いロックを持たないよう、期間を区切って
+ * 区切りごとに別のトランザクションで入れ替える。
+ */
+@Slf4j
+@Component
+public class DailyManpowerRebuilder {
+
+  public static final int DEFAULT_CHUNK_DAYS = 31;
+
+  private final DailyManpowerRepository dailyManpowerRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  public DailyManpowerRebuilder(DailyManpowerRepository dailyManpowerRepository,
+      PlatformTransactionManager transactionManager) {
+    this.dailyManpowerRepository = dailyManpowerRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * schedules にある最初の作業日から最後の作業日までを作り直す。
+   */
+  public void rebuildAll(int chunkDays) {
+    var first = dailyManpowerRepository.findFirstWorkingDate();
+    var last = dailyManpowerRepository.findLastWorkingDate();
+    if (first.isEmpty() || last.isEmpty()) {
+      log.info("No schedules to aggregate into daily_manpower");
+      return;
+    }
+    rebuild(first.get(), last.get(), chunkDays);
+  }
+
+  public void rebuild(LocalDate from, LocalDate to, int chunkDays) {
+    if (chunkDays <= 0) {
+      throw new IllegalArgumentException("chunkDays must be positive: " + chunkDays);
+    }
+    for (var start = from; !start.isAfter(to); start = start.plusDays(chunkDays)) {
+      var chunkStart = start;
+      var end = start.plusDays(chunkDays - 1L);
+      var chunkEnd = end.isAfter(to) ? to : end;
+      int rows = transactionTemplate.execute(status -> rebuildChunk(chunkStart, chunkEnd));
+      log.info("Rebuilt daily_manpower {}..{} ({} rows)", chunkStart, chunkEnd, rows);
+    }
+  }
+
+  /**
+   * 先に範囲の行を消して次キーロックを取り、並行する書き込みの差分がこの範囲に入らないようにしてから
+   * schedules を集計する。集計はロックを取った後のスナップショットなので、先にコミットされた変更は
+   * 集計に含まれ、後からの変更はこのトランザクションの後に差分として足される。
+   */
+  private int rebuildChunk(LocalDate from, LocalDate to) {
+    dailyManpowerRepository.deleteBetween(from, to);
+    var deltas = new DailyManpowerDeltas();
+    var sources = dailyManpowerRepository.aggregateSchedules(from, to);
+    sources.forEach(deltas::add);
+    deltas.applyTo(dailyManpowerRepository);
+    return sources.size();
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.businessmanagement2.service.stats;
+
+import com.example.businessmanagement2.repository.stats.DailyManpowerEntity;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyManpowerService {
+
+  long MAX_RANGE_DAYS = 366;
+
+  /**
+   * 集計テーブルだけを読み、作業日・階・ユーザーの順で返す。userId は null なら全ユーザー。
+   */
+  List<DailyManpowerEntity> findDaily(LocalDate from, LocalDate to, Integer userId);
+}
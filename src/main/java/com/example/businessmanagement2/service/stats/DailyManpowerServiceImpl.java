@@ -0,0 +1,29 @@
+package com.example.businessmanagement2.service.stats;
+
+import com.example.businessmanagement2.repository.stats.DailyManpowerEntity;
+import com.example.businessmanagement2.repository.stats.DailyManpowerRepository;
+import com.example.businessmanagement2.service.Schedule.InvalidScheduleCriteriaException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class DailyManpowerServiceImpl implements DailyManpowerService {
+
+  private final DailyManpowerRepository dailyManpowerRepository;
+
+  @Override
+  public List<DailyManpowerEntity> findDaily(LocalDate from, LocalDate to, Integer userId) {
+    if (from.isAfter(to)) {
+      throw new InvalidScheduleCriteriaException("to", "to must be on or after from.");
+    }
+    if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+      throw new InvalidScheduleCriteriaException("to",
+          "the range must be at most " + MAX_RANGE_DAYS + " days.");
+    }
+    return dailyManpowerRepository.findDaily(from, to, userId);
+  }
+}
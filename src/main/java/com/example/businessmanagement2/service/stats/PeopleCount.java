@@ -0,0 +1,37 @@
+package com.example.businessmanagement2.service.stats;
+
+/**
+ * number_of_people は '3人' のような自由入力なので、最初に現れる数字の並びを人数として読む。
+ */
+public final class PeopleCount {
+
+  private static final int MAX_DIGITS = 6;
+
+  private PeopleCount() {
+  }
+
+  /**
+   * 全角数字も読む。数字がなければ0人とする。
+   */
+  public static int parse(String numberofpeople) {
+    if (numberofpeople == null) {
+      return 0;
+    }
+    int value = 0;
+    int digits = 0;
+    for (int i = 0; i < numberofpeople.length(); i++) {
+      int digit = Character.digit(numberofpeople.charAt(i), 10);
+      if (digit < 0) {
+        if (digits > 0) {
+          break;
+        }
+        continue;
+      }
+      if (++digits > MAX_DIGITS) {
+        break;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+}
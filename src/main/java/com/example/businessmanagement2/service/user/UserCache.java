@@ -0,0 +1,187 @@
+package com.example.businessmanagement2.service.user;
+
+import com.example.businessmanagement2.repository.cacheversion.CacheVersionRepository;
+import com.example.businessmanagement2.repository.routing.RoutingContext;
+import com.example.businessmanagement2.repository.user.UserEntity;
+import com.example.businessmanagement2.service.page.Page;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * UserRepository の前に置く読み取りキャッシュ。
+ * 書き込みは cache_versions の users 行のバージョンを上げ、各ノードはそれをポーリングして
+ * 変化していたら手元のキャッシュを捨てる。確認が maxStaleness 以上途絶えたらキャッシュを使わない。
+ */
+@Slf4j
+@Component
+public class UserCache {
+
+  static final String CACHE_NAME = "users";
+
+  private static final Object USER_LIST_KEY = "findUserList";
+
+  private final CacheVersionRepository cacheVersionRepository;
+
+  private final Cache<Long, UserEntity> users;
+
+  private final Cache<Object, Object> lists;
+
+  private final long maxStalenessNanos;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final AtomicLong seenVersion = new AtomicLong(-1);
+
+  private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+
+  private volatile long lastVerifiedNanos;
+
+  private volatile boolean verified;
+
+  public UserCache(CacheVersionRepository cacheVersionRepository,
+      UserCacheProperties properties) {
+    this.cacheVersionRepository = cacheVersionRepository;
+    this.users = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getTimeToLive())
+        .recordStats()
+        .build();
+    this.lists = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumListEntries())
+        .expireAfterWrite(properties.getTimeToLive())
+        .recordStats()
+        .build();
+    this.maxStalenessNanos = properties.getMaxStaleness().toNanos();
+  }
+
+  public Optional<UserEntity> findById(long userId, LongFunction<Optional<UserEntity>> loader) {
+    return Optional.ofNullable(getOrLoad(users, userId, () -> loader.apply(userId).orElse(null)));
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<UserEntity> findUserList(Supplier<List<UserEntity>> loader) {
+    return (List<UserEntity>) getOrLoad(lists, USER_LIST_KEY, () -> List.copyOf(loader.get()));
+  }
+
+  @SuppressWarnings("unchecked")
+  public Page<UserEntity> findUserPage(String next, int limit, Supplier<Page<UserEntity>> loader) {
+    return (Page<UserEntity>) getOrLoad(lists, new PageKey(next, limit), loader::get);
+  }
+
+  /**
+   * 書き込みと同じトランザクションでバージョン行を上げ、コミット後に手元のキャッシュを捨てる。
+   */
+  public void invalidateAfterWrite(Long userId) {
+    cacheVersionRepository.increment(CACHE_NAME);
+    afterCommit(() -> {
+      generation.incrementAndGet();
+      if (userId != null) {
+        users.invalidate(userId);
+      }
+      lists.invalidateAll();
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${app.cache.users.poll-interval:PT5S}")
+  public void pollVersion() {
+    try {
+      long current = cacheVersionRepository.findVersion(CACHE_NAME).orElse(0L);
+      if (seenVersion.getAndSet(current) != current) {
+        invalidateAll();
+      }
+      lastVerifiedNanos = System.nanoTime();
+      verified = true;
+    } catch (RuntimeException e) {
+      log.warn("Failed to poll cache version of {}. Local cache is discarded.", CACHE_NAME, e);
+      verified = false;
+      invalidateAll();
+    }
+  }
+
+  /**
+   * 他ノードの書き込みに気づいて、またはポーリングに失敗して手元のキャッシュを全部捨てたあとに呼ぶ。
+   */
+  public void addInvalidationListener(Runnable listener) {
+    invalidationListeners.add(listener);
+  }
+
+  public CacheStats userStats() {
+    return users.stats();
+  }
+
+  public CacheStats listStats() {
+    return lists.stats();
+  }
+
+  public long userSize() {
+    return users.estimatedSize();
+  }
+
+  public long listSize() {
+    return lists.estimatedSize();
+  }
+
+  private void invalidateAll() {
+    generation.incrementAndGet();
+    users.invalidateAll();
+    lists.invalidateAll();
+    invalidationListeners.forEach(Runnable::run);
+  }
+
+  private <K, V> V getOrLoad(Cache<K, V> cache, K key, Supplier<V> loader) {
+    if (!isFresh()) {
+      return loader.get();
+    }
+    var cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    long generationBeforeLoad = generation.get();
+    // 遅れているレプリカの値を載せると次の無効化まで古いまま残るので、キャッシュに載せる値はプライマリから読む
+    var loaded = RoutingContext.onPrimary(loader);
+    // 読み込み中に無効化が走っていたら古い値かもしれないので載せない。
+    // 未コミットの書き込みを含むトランザクション内で読んだ値も載せない。
+    if (loaded != null && generation.get() == generationBeforeLoad && !inWritableTransaction()) {
+      cache.put(key, loaded);
+    }
+    return loaded;
+  }
+
+  private boolean isFresh() {
+    return verified && System.nanoTime() - lastVerifiedNanos < maxStalenessNanos;
+  }
+
+  private static boolean inWritableTransaction() {
+    return TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private record PageKey(String next, int limit) {
+
+  }
+}
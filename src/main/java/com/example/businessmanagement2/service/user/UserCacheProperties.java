@@ -0,0 +1,25 @@
+package com.example.businessmanagement2.service.user;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.users")
+public class UserCacheProperties {
+
+  private long maximumSize = 10_000;
+
+  private long maximumListEntries = 100;
+
+  private Duration timeToLive = Duration.ofMinutes(10);
+
+  /**
+   * 最後にバージョン行を確認してからこの時間を過ぎたらキャッシュを使わない。
+   * 他ノードの更新が見えないまま返す期間の上限になるので、ポーリング間隔より長くしておく。
+   */
+  private Duration maxStaleness = Duration.ofSeconds(15);
+
+}
@@ -1,6 +1,7 @@
 package com.example.businessmanagement2.service.user;
 
 import com.example.businessmanagement2.repository.user.UserEntity;
+import com.example.businessmanagement2.service.page.Page;
 import java.util.List;
 
 public interface UserService {
@@ -9,10 +10,24 @@ public interface UserService {
 
   List<UserEntity> findUserList();
 
+  Page<UserEntity> findUserPage(String next, int limit);
+
   UserEntity create(String companyname, String username);
 
-  UserEntity update(Long userId, String companyname, String username);
+  default UserEntity update(Long userId, String companyname, String username) {
+    return update(userId, null, companyname, username);
+  }
+
+  /**
+   * expectedVersion が null のときはバージョンを確認せずに更新する。
+   * 戻り値の version は expectedVersion を指定したときだけ分かり、指定しないときは null になる。
+   */
+  UserEntity update(Long userId, Long expectedVersion, String companyname, String username);
+
+  default void delete(Long userId) {
+    delete(userId, null);
+  }
 
-  void delete(Long userId);
+  void delete(Long userId, Long expectedVersion);
 
 }
@@ -2,9 +2,17 @@ package com.example.businessmanagement2.service.user;
 
 import com.example.businessmanagement2.repository.user.UserEntity;
 import com.example.businessmanagement2.repository.user.UserRepository;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.event.ChangeType;
+import com.example.businessmanagement2.service.page.InvalidPageTokenException;
+import com.example.businessmanagement2.service.page.Page;
+import com.example.businessmanagement2.service.page.PageToken;
+import com.example.businessmanagement2.service.version.ResourceVersions;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Service
@@ -13,34 +21,107 @@ public class UserServiceImpl implements UserService {
 
   private final UserRepository userRepository;
 
+  private final UserCache userCache;
 
+  private final ChangeFeed changeFeed;
+
+  private final ResourceVersions resourceVersions;
+
+  @Transactional(readOnly = true)
   public UserEntity findById(Long userId) {
-    return userRepository.findById(userId)
+    return userCache.findById(userId, userRepository::findById)
         .orElseThrow(() -> new UserEntityNotFoundException(userId));
   }
 
+  @Transactional(readOnly = true)
   public List<UserEntity> findUserList() {
-    return userRepository.findUserList();
+    return userCache.findUserList(userRepository::findUserList);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<UserEntity> findUserPage(String next, int limit) {
+    var size = Page.clampLimit(limit);
+    return userCache.findUserPage(next, size, () -> {
+      var rows = userRepository.findUserPage(afterUserId(next), size + 1);
+      return Page.of(rows, size, last -> PageToken.encode(String.valueOf(last.getUserid())));
+    });
   }
 
+  private static Long afterUserId(String next) {
+    if (next == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(PageToken.decode(next, 1)[0]);
+    } catch (NumberFormatException e) {
+      throw new InvalidPageTokenException(next);
+    }
+  }
+
+  @Transactional
   public UserEntity create(String companyname, String username) {
     var entity = new UserEntity(null, companyname, username);
     userRepository.create(entity);
-    return new UserEntity(entity.getUserid(),entity.getCompanyname(),entity.getUsername());
+    userCache.invalidateAfterWrite(null);
+    var created = new UserEntity(entity.getUserid(),entity.getCompanyname(),entity.getUsername());
+    changeFeed.publishAfterCommit(ChangeResource.USER, ChangeType.CREATED, created.getUserid(),
+        created);
+    resourceVersions.changedAfterCommit(ChangeResource.USER, created.getUserid(), null);
+    return created;
   }
 
   @Override
-  public UserEntity update(Long userId, String companyname, String username) {
-    userRepository.findById(userId)
-        .orElseThrow(() -> new UserEntityNotFoundException(userId));
-    userRepository.update(new UserEntity(userId, companyname, username));
-    return findById(userId);
+  @Transactional
+  public UserEntity update(Long userId, Long expectedVersion, String companyname,
+      String username) {
+    int rows = expectedVersion == null
+        ? userRepository.update(new UserEntity(userId, companyname, username))
+        : userRepository.updateWithVersion(
+            new UserEntity(userId, companyname, username, expectedVersion));
+    if (rows == 0) {
+      throw notFoundOrConflict(userId, expectedVersion);
+    }
+    userCache.invalidateAfterWrite(userId);
+    // If-Match がなければ更新前のバージョンが分からないので、更新した行のロックを持ったまま読み直す
+    var version = expectedVersion != null
+        ? expectedVersion + 1
+        : userRepository.findVersion(userId).orElseThrow(
+            () -> new UserEntityNotFoundException(userId));
+    var result = new UserEntity(userId, companyname, username, version);
+    changeFeed.publishAfterCommit(ChangeResource.USER, ChangeType.UPDATED, userId, result);
+    resourceVersions.changedAfterCommit(ChangeResource.USER, userId, result.getVersion());
+    return result;
   }
 
   @Override
-  public void delete(Long userId) {
-    userRepository.findById(userId)
-        .orElseThrow(() -> new UserEntityNotFoundException(userId));
-    userRepository.delete(userId);
+  @Transactional
+  public void delete(Long userId, Long expectedVersion) {
+    int deleted = expectedVersion == null
+        ? userRepository.delete(userId)
+        : userRepository.deleteWithVersion(userId, expectedVersion);
+    if (deleted == 0) {
+      throw notFoundOrConflict(userId, expectedVersion);
+    }
+    userCache.invalidateAfterWrite(userId);
+    changeFeed.publishAfterCommit(ChangeResource.USER, ChangeType.DELETED, userId, null);
+    resourceVersions.changedAfterCommit(ChangeResource.USER, userId, null);
+    // 作業予定も ON DELETE CASCADE で消えるが、どれが消えたかは分からない
+    resourceVersions.forgetAllAfterCommit(ChangeResource.SCHEDULE);
+    resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE);
+  }
+
+  /**
+   * 条件付き更新が0件だったときだけ現在のバージョンを読み、存在しないのか競合したのかを見分ける。
+   */
+  private RuntimeException notFoundOrConflict(Long userId, Long expectedVersion) {
+    if (expectedVersion == null) {
+      return new UserEntityNotFoundException(userId);
+    }
+    return userRepository.findVersion(userId)
+        .<RuntimeException>map(
+            currentVersion -> new UserVersionConflictException(userId, expectedVersion,
+                currentVersion))
+        .orElseGet(() -> new UserEntityNotFoundException(userId));
   }
 }
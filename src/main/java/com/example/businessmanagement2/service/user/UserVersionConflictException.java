@@ -0,0 +1,18 @@
+package com.example.businessmanagement2.service.user;
+
+import lombok.Getter;
+
+@Getter
+public class UserVersionConflictException extends RuntimeException {
+
+  private final long userId;
+
+  private final long currentVersion;
+
+  public UserVersionConflictException(long userId, long expectedVersion, long currentVersion) {
+    super("UserEntity (id = " + userId + ") has been modified. expected version = "
+        + expectedVersion + ", current version = " + currentVersion + ".");
+    this.userId = userId;
+    this.currentVersion = currentVersion;
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.businessmanagement2.service.userschedule;
+
+import com.example.businessmanagement2.repository.userschedule.UserSchedule;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface UserScheduleService {
+
+  int MAX_USER_IDS = 100;
+
+  /**
+   * ユーザーと、期間内の作業予定を作業日順に返す。from と to は null なら制限しない。
+   */
+  UserSchedule findById(Long userId, LocalDate from, LocalDate to);
+
+  /**
+   * 複数ユーザー分をまとめて1回のクエリで返す。存在しないIDは結果に含めない。
+   */
+  List<UserSchedule> findByIds(List<Long> userIds, LocalDate from, LocalDate to);
+}
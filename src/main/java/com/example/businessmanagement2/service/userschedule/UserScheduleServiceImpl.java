@@ -0,0 +1,45 @@
+package com.example.businessmanagement2.service.userschedule;
+
+import com.example.businessmanagement2.repository.userschedule.UserSchedule;
+import com.example.businessmanagement2.repository.userschedule.UserScheduleRepository;
+import com.example.businessmanagement2.service.Schedule.InvalidScheduleCriteriaException;
+import com.example.businessmanagement2.service.user.UserEntityNotFoundException;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class UserScheduleServiceImpl implements UserScheduleService {
+
+  private final UserScheduleRepository userScheduleRepository;
+
+  @Override
+  public UserSchedule findById(Long userId, LocalDate from, LocalDate to) {
+    validateRange(from, to);
+    return userScheduleRepository.findById(userId, from, to)
+        .orElseThrow(() -> new UserEntityNotFoundException(userId));
+  }
+
+  @Override
+  public List<UserSchedule> findByIds(List<Long> userIds, LocalDate from, LocalDate to) {
+    validateRange(from, to);
+    var distinctIds = new LinkedHashSet<>(userIds);
+    if (distinctIds.isEmpty()) {
+      throw new InvalidScheduleCriteriaException("ids", "ids must not be empty.");
+    }
+    if (distinctIds.size() > MAX_USER_IDS) {
+      throw new InvalidScheduleCriteriaException("ids",
+          "ids must be at most " + MAX_USER_IDS + ".");
+    }
+    return userScheduleRepository.findByIds(distinctIds, from, to);
+  }
+
+  private static void validateRange(LocalDate from, LocalDate to) {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new InvalidScheduleCriteriaException("to", "to must be on or after from.");
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.businessmanagement2.service.version;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.resource-versions")
+public class ResourceVersionProperties {
+
+  /**
+   * 最後に cache_versions を確認してからこの時間を過ぎたら、覚えているバージョンで 304 を返さない。
+   */
+  private Duration maxStaleness = Duration.ofSeconds(15);
+
+}
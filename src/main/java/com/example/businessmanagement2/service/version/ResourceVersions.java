@@ -0,0 +1,223 @@
+package com.example.businessmanagement2.service.version;
+
+import com.example.businessmanagement2.repository.cacheversion.CacheVersionRepository;
+import com.example.businessmanagement2.repository.routing.RoutingContext;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.user.UserCache;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 行ごとの最新のバージョンと、表ごとの変更の世代をメモリに持ち、DB を読まずに If-None-Match に答えるためのもの。
+ * 自ノードの書き込みはコミット後に反映し、他ノードの書き込みは cache_versions の表ごとの行をポーリングして
+ * 変わっていたらその表の分を忘れる。確認が maxStaleness 以上途絶えたら何も知らないものとして振る舞う。
+ */
+@Slf4j
+@Component
+public class ResourceVersions {
+
+  private static final Map<ChangeResource, String> CACHE_NAMES = Map.of(
+      ChangeResource.USER, "users",
+      ChangeResource.SCHEDULE, "schedules");
+
+  private final CacheVersionRepository cacheVersionRepository;
+
+  private final long maxStalenessNanos;
+
+  private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+  private final Map<ChangeResource, Table> tables = new EnumMap<>(ChangeResource.class);
+
+  private volatile long lastVerifiedNanos;
+
+  private volatile boolean verified;
+
+  public ResourceVersions(CacheVersionRepository cacheVersionRepository, UserCache userCache,
+      ResourceVersionProperties properties) {
+    this.cacheVersionRepository = cacheVersionRepository;
+    this.maxStalenessNanos = properties.getMaxStaleness().toNanos();
+    for (var resource : ChangeResource.values()) {
+      tables.put(resource, new Table());
+    }
+    // ユーザーは UserCache から読むので、こちらが先に他ノードの書き込みに気づいても、
+    // UserCache が捨てるまでに覚えた古いバージョンはそこで忘れ直す
+    userCache.addInvalidationListener(() -> tables.get(ChangeResource.USER).forgetAll());
+  }
+
+  private static String cacheName(ChangeResource resource) {
+    return CACHE_NAMES.get(resource);
+  }
+
+  /**
+   * 覚えている行のバージョン。知らないとき、確認が途絶えているときは空。
+   */
+  public OptionalLong find(ChangeResource resource, long id) {
+    if (!isFresh()) {
+      return OptionalLong.empty();
+    }
+    var version = tables.get(resource).rows.get(id);
+    return version != null ? OptionalLong.of(version) : OptionalLong.empty();
+  }
+
+  /**
+   * 読む前に同じスレッドで取っておき、remember に渡す。
+   */
+  public long beginRead(ChangeResource resource) {
+    RoutingContext.resetReadFromReplica();
+    return tables.get(resource).generation.get();
+  }
+
+  /**
+   * 読んでいる間に変更があったとき、遅れているかもしれないレプリカから読んだとき、
+   * 未コミットの書き込みを含むトランザクションの中で読んだときは覚えない。
+   */
+  public void remember(ChangeResource resource, long id, Long version, long generationBeforeRead) {
+    if (version == null || RoutingContext.hasReadFromReplica() || inWritableTransaction()) {
+      return;
+    }
+    var table = tables.get(resource);
+    synchronized (table) {
+      if (table.generation.get() == generationBeforeRead) {
+        table.rows.put(id, version);
+      }
+    }
+  }
+
+  /**
+   * 表全体の世代を表す強いエンティティタグ。一覧の ETag に使う。確認が途絶えているときは空。
+   * 世代はノードごとの連番なので、起動ごとに変わる値を前に付けて別のノードや前回の起動の値と衝突させない。
+   */
+  public Optional<String> tableTag(ChangeResource resource) {
+    if (!isFresh()) {
+      return Optional.empty();
+    }
+    return Optional.of("\"" + bootId + "-" + resource.name().toLowerCase() + "-"
+        + tables.get(resource).generation.get() + "\"");
+  }
+
+  /**
+   * 書き込みと同じトランザクションで呼び、cache_versions の表の行を上げて他ノードに知らせる。
+   * users の行は UserCache が上げるので、users 以外の表で使う。1トランザクションに1回でよい。
+   */
+  public void notifyOtherNodes(ChangeResource resource) {
+    notifyOtherNodes(resource, cacheVersionRepository);
+  }
+
+  /**
+   * BATCH のセッションで書いているトランザクションでは、そのセッションのマッパーを渡す。
+   */
+  public void notifyOtherNodes(ChangeResource resource, CacheVersionRepository repository) {
+    repository.increment(cacheName(resource));
+    afterCommit(() -> tables.get(resource).ownIncrements.incrementAndGet());
+  }
+
+  /**
+   * ポーリングで、表の行が自ノードの notifyOtherNodes で上げた分より進んでいたときに呼ばれる。
+   * ポーリングのスレッドで呼ぶので、すぐに戻ること。
+   * コミットの直後でまだ自ノードの分を数えていないときは、他ノードの書き込みとして余分に呼ぶことがある。
+   */
+  public void addOtherNodeChangeListener(ChangeResource resource, Runnable listener) {
+    tables.get(resource).otherNodeListeners.add(listener);
+  }
+
+  /**
+   * コミットされたら行のバージョンを差し替える。version が null（削除や、新しいバージョンが分からないとき）なら忘れる。
+   */
+  public void changedAfterCommit(ChangeResource resource, long id, Long version) {
+    afterCommit(() -> {
+      var table = tables.get(resource);
+      synchronized (table) {
+        table.generation.incrementAndGet();
+        if (version == null) {
+          table.rows.remove(id);
+        } else {
+          table.rows.put(id, version);
+        }
+      }
+    });
+  }
+
+  /**
+   * 外部キーの ON DELETE CASCADE のように、どの行が変わったか分からない書き込みのあとに使う。
+   */
+  public void forgetAllAfterCommit(ChangeResource resource) {
+    afterCommit(() -> tables.get(resource).forgetAll());
+  }
+
+  @Scheduled(fixedDelayString = "${app.resource-versions.poll-interval:PT5S}")
+  public void pollVersions() {
+    try {
+      for (var entry : tables.entrySet()) {
+        long current = cacheVersionRepository.findVersion(cacheName(entry.getKey())).orElse(0L);
+        var table = entry.getValue();
+        var previous = table.seenVersion.getAndSet(current);
+        var own = table.ownIncrements.getAndSet(0);
+        if (previous != current) {
+          table.forgetAll();
+          if (previous >= 0 && current - previous > own) {
+            table.otherNodeListeners.forEach(Runnable::run);
+          }
+        }
+      }
+      lastVerifiedNanos = System.nanoTime();
+      verified = true;
+    } catch (RuntimeException e) {
+      log.warn("Failed to poll resource versions. Conditional requests go to the database.", e);
+      verified = false;
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static boolean inWritableTransaction() {
+    return TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private boolean isFresh() {
+    return verified && System.nanoTime() - lastVerifiedNanos < maxStalenessNanos;
+  }
+
+  private static class Table {
+
+    final Map<Long, Long> rows = new ConcurrentHashMap<>();
+
+    final AtomicLong generation = new AtomicLong();
+
+    final AtomicLong seenVersion = new AtomicLong(-1);
+
+    /**
+     * 前回のポーリングから、自ノードがコミットした notifyOtherNodes の回数。
+     */
+    final AtomicLong ownIncrements = new AtomicLong();
+
+    final List<Runnable> otherNodeListeners = new CopyOnWriteArrayList<>();
+
+    synchronized void forgetAll() {
+      generation.incrementAndGet();
+      rows.clear();
+    }
+  }
+}
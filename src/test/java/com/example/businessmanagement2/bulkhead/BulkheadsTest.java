@@ -0,0 +1,91 @@
+package com.example.businessmanagement2.bulkhead;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.businessmanagement2.service.bulkhead.BulkheadFullException;
+import com.example.businessmanagement2.service.bulkhead.BulkheadProperties;
+import com.example.businessmanagement2.service.bulkhead.BulkheadTimeoutException;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import com.example.businessmanagement2.service.user.UserEntityNotFoundException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+
+public class BulkheadsTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private Bulkheads bulkheads;
+
+  private Bulkheads create(int poolSize, int queueCapacity, Duration timeout) {
+    var properties = new BulkheadProperties();
+    properties.setBulk(new BulkheadProperties.Pool(poolSize, queueCapacity, timeout));
+    bulkheads = new Bulkheads(properties);
+    return bulkheads;
+  }
+
+  private String block() {
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "done";
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    bulkheads.destroy();
+  }
+
+  @Test
+  void 別スレッドで実行した結果が返ること() throws Exception {
+    var bulkheads = create(1, 1, Duration.ofSeconds(1));
+    var caller = Thread.currentThread().getName();
+
+    var worker = bulkheads.bulk(() -> Thread.currentThread().getName()).get();
+
+    assertThat(worker).startsWith("bulkhead-bulk-").isNotEqualTo(caller);
+  }
+
+  @Test
+  void 待ち行列が一杯のときは待たずにBulkheadFullExceptionで完了すること() {
+    var bulkheads = create(1, 1, Duration.ofSeconds(5));
+    bulkheads.bulk(this::block);
+    bulkheads.bulk(this::block);
+
+    var rejected = bulkheads.bulk(this::block);
+
+    assertThat(rejected).isCompletedExceptionally();
+    assertThatThrownBy(rejected::get).hasCauseInstanceOf(BulkheadFullException.class);
+  }
+
+  @Test
+  void 時間内に終わらないときはBulkheadTimeoutExceptionで完了すること() {
+    var bulkheads = create(1, 1, Duration.ofMillis(50));
+
+    var future = bulkheads.bulk(this::block);
+
+    assertThatThrownBy(future::get)
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(BulkheadTimeoutException.class);
+  }
+
+  @Test
+  void 処理の例外はそのまま返ること() {
+    var bulkheads = create(1, 1, Duration.ofSeconds(1));
+
+    var future = bulkheads.bulk(() -> {
+      throw new UserEntityNotFoundException(99L);
+    });
+
+    assertThatThrownBy(future::get).hasCauseInstanceOf(UserEntityNotFoundException.class);
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.businessmanagement2.event;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.service.event.ChangeEvent;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeFeedProperties;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.event.ChangeType;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+public class ChangeFeedTest {
+
+  private ChangeFeed create(int bufferSize) {
+    var properties = new ChangeFeedProperties();
+    properties.setBufferSize(bufferSize);
+    return new ChangeFeed(properties);
+  }
+
+  @Test
+  void 指定した位置より後の変更が古い順に取得できること() {
+    var feed = create(8);
+    feed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.CREATED, 1L, null);
+    feed.publishAfterCommit(ChangeResource.USER, ChangeType.UPDATED, 2L, null);
+    feed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.DELETED, 1L, null);
+
+    var slice = feed.readAfter(1, 10);
+
+    assertThat(slice.isMissed()).isFalse();
+    assertThat(slice.getEvents())
+        .extracting(ChangeEvent::getSequence)
+        .containsExactly(2L, 3L);
+    assertThat(slice.getEvents().get(0).getResource()).isEqualTo(ChangeResource.USER);
+  }
+
+  @Test
+  void バッファから押し出された変更から読もうとすると取りこぼしが分かること() {
+    var feed = create(4);
+    for (long id = 1; id <= 10; id++) {
+      feed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.CREATED, id, null);
+    }
+
+    var slice = feed.readAfter(2, 10);
+
+    assertThat(slice.isMissed()).isTrue();
+    assertThat(slice.getEvents())
+        .extracting(ChangeEvent::getSequence)
+        .containsExactly(7L, 8L, 9L, 10L);
+  }
+
+  @Test
+  void トランザクションの中の変更はコミットされるまで積まれないこと() {
+    var feed = create(8);
+    var notified = new AtomicInteger();
+    feed.addListener(notified::incrementAndGet);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      feed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.CREATED, 1L, null);
+      assertThat(feed.lastSequence()).isZero();
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertThat(feed.lastSequence()).isEqualTo(1L);
+    assertThat(notified).hasValue(1);
+  }
+
+  @Test
+  void 発行したイベントIDから連番が読み取れること() {
+    var feed = create(8);
+
+    assertThat(feed.parseEventId(feed.eventId(42))).hasValue(42L);
+    assertThat(feed.parseEventId("other-42")).isEmpty();
+    assertThat(feed.parseEventId(feed.eventId(0) + "x")).isEmpty();
+  }
+}
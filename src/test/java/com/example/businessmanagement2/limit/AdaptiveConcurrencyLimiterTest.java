@@ -0,0 +1,92 @@
+package com.example.businessmanagement2.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.service.limit.AdaptiveConcurrencyLimiter;
+import com.example.businessmanagement2.service.limit.AdaptiveConcurrencyLimiter.Permit;
+import com.example.businessmanagement2.service.limit.ConcurrencyLimitProperties;
+import com.example.businessmanagement2.service.limit.RequestPriority;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+  private AdaptiveConcurrencyLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    properties.setInitialLimit(10);
+    properties.setSampleWindow(1);
+    // 1件ずつ上限を動かすので、長期の平均が1周の間に追いついてしまわないよう長くする
+    properties.setLongWindow(1000);
+    limiter = new AdaptiveConcurrencyLimiter(properties, clock::get);
+  }
+
+  /**
+   * 上限いっぱいまで受け付け、rttMillis 経ってから全部成功で返す。
+   */
+  private void runRound(long rttMillis) {
+    var permits = new ArrayList<Permit>();
+    var permit = limiter.tryAcquire(RequestPriority.HIGH);
+    while (permit.isPresent()) {
+      permits.add(permit.get());
+      permit = limiter.tryAcquire(RequestPriority.HIGH);
+    }
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+    permits.forEach(Permit::onSuccess);
+  }
+
+  @Test
+  void 優先度の低いリクエストは上限の一部までしか受け付けないこと() {
+    for (int i = 0; i < 6; i++) {
+      assertThat(limiter.tryAcquire(RequestPriority.LOW)).isPresent();
+    }
+
+    assertThat(limiter.tryAcquire(RequestPriority.LOW)).isEmpty();
+    assertThat(limiter.tryAcquire(RequestPriority.NORMAL)).isPresent();
+    assertThat(limiter.tryAcquire(RequestPriority.HIGH)).isPresent();
+    assertThat(limiter.getRejected(RequestPriority.LOW)).isEqualTo(1);
+    assertThat(limiter.getInflight()).isEqualTo(8);
+  }
+
+  @Test
+  void 遅延が変わらないときは上限を広げ伸びたときは下げること() {
+    for (int i = 0; i < 10; i++) {
+      runRound(10);
+    }
+    int grown = limiter.getLimit();
+
+    for (int i = 0; i < 10; i++) {
+      runRound(40);
+    }
+
+    assertThat(grown).isGreaterThan(10);
+    assertThat(limiter.getLimit()).isLessThan(grown);
+    assertThat(limiter.getInflight()).isZero();
+  }
+
+  @Test
+  void 下流で断られたときは上限を下げること() {
+    limiter.tryAcquire(RequestPriority.HIGH).orElseThrow().onDropped();
+
+    assertThat(limiter.getLimit()).isEqualTo(9);
+  }
+
+  @Test
+  void 同じ許可を何度返しても処理中の数は一度しか減らないこと() {
+    limiter.tryAcquire(RequestPriority.HIGH);
+    var permit = limiter.tryAcquire(RequestPriority.HIGH).orElseThrow();
+
+    permit.onSuccess();
+    permit.onIgnore();
+
+    assertThat(limiter.getInflight()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.businessmanagement2.metrics;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.example.businessmanagement2.repository.metrics.CurrentOperation;
+import com.example.businessmanagement2.repository.metrics.StatementMetricsInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.util.List;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+
+public class StatementMetricsInterceptorTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final StatementMetricsInterceptor interceptor =
+      new StatementMetricsInterceptor(meterRegistry);
+
+  private final Executor executor = mock(Executor.class);
+
+  private static MappedStatement mappedStatement(String id, SqlCommandType type) {
+    return new MappedStatement.Builder(new Configuration(), id, mock(SqlSource.class), type)
+        .build();
+  }
+
+  private static Invocation query(Executor executor, MappedStatement ms) throws Exception {
+    var method = Executor.class.getMethod("query", MappedStatement.class, Object.class,
+        RowBounds.class, ResultHandler.class);
+    return new Invocation(executor, method,
+        new Object[]{ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER});
+  }
+
+  @AfterEach
+  void tearDown() {
+    CurrentOperation.clear();
+  }
+
+  @Test
+  void 文のIDをマッパー名とメソッド名にすること() {
+    assertThat(StatementMetricsInterceptor.statementName(
+        "com.example.businessmanagement2.repository.user.UserRepository.findById"))
+        .isEqualTo("UserRepository.findById");
+  }
+
+  @Test
+  void 検索の実行時間と件数が操作名付きで記録されること() throws Throwable {
+    var ms = mappedStatement(
+        "com.example.businessmanagement2.repository.user.UserRepository.findUserList",
+        SqlCommandType.SELECT);
+    given(executor.query(any(), any(), any(), any())).willReturn(List.of("a", "b", "c"));
+    CurrentOperation.set("UserController.findUserList");
+
+    interceptor.intercept(query(executor, ms));
+
+    var timer = meterRegistry.get(StatementMetricsInterceptor.TIMER_NAME)
+        .tag("statement", "UserRepository.findUserList")
+        .tag("operation", "UserController.findUserList")
+        .tag("outcome", "success")
+        .timer();
+    assertThat(timer.count()).isEqualTo(1);
+    var rows = meterRegistry.get(StatementMetricsInterceptor.ROWS_NAME)
+        .tag("statement", "UserRepository.findUserList")
+        .summary();
+    assertThat(rows.totalAmount()).isEqualTo(3);
+  }
+
+  @Test
+  void 例外のときはerrorとして記録されること() throws Throwable {
+    var ms = mappedStatement(
+        "com.example.businessmanagement2.repository.user.UserRepository.findById",
+        SqlCommandType.SELECT);
+    given(executor.query(any(), any(), any(), any())).willThrow(new SQLException("boom"));
+
+    assertThatThrownBy(() -> interceptor.intercept(query(executor, ms)))
+        .hasRootCauseInstanceOf(SQLException.class);
+
+    var timer = meterRegistry.get(StatementMetricsInterceptor.TIMER_NAME)
+        .tag("statement", "UserRepository.findById")
+        .tag("operation", CurrentOperation.NONE)
+        .tag("outcome", "error")
+        .timer();
+    assertThat(timer.count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.businessmanagement2.metrics;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.businessmanagement2.repository.metrics.StatementCounter;
+import com.example.businessmanagement2.repository.metrics.StatementOffenders;
+import com.example.businessmanagement2.repository.metrics.StatementProfileProperties;
+import com.example.businessmanagement2.restcontroller.metrics.RepeatedStatementException;
+import com.example.businessmanagement2.restcontroller.metrics.StatementProfileFilter;
+import javax.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+
+public class StatementProfileFilterTest {
+
+  private final StatementProfileProperties properties = new StatementProfileProperties();
+
+  private final StatementOffenders statementOffenders = new StatementOffenders(properties);
+
+  private final StatementProfileFilter filter =
+      new StatementProfileFilter(properties, statementOffenders);
+
+  private static FilterChain executing(String statement, int times) {
+    return (request, response) -> {
+      for (int i = 0; i < times; i++) {
+        StatementCounter.increment(statement);
+      }
+    };
+  }
+
+  @Test
+  void 同じ文が閾値以下のときは記録しないこと() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("GET", "/users"), new MockHttpServletResponse(),
+        executing("UserRepository.findById", properties.getRepeatThreshold()));
+
+    assertThat(statementOffenders.worstRepeated()).isEmpty();
+  }
+
+  @Test
+  void 同じ文が閾値を超えて実行されたときN加1の疑いとして記録されること() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("GET", "/users"), new MockHttpServletResponse(),
+        executing("UserRepository.findById", 25));
+
+    assertThat(statementOffenders.worstRepeated())
+        .singleElement()
+        .satisfies(repeated -> {
+          assertThat(repeated.getRequest()).isEqualTo("GET /users");
+          assertThat(repeated.getStatement()).isEqualTo("UserRepository.findById");
+          assertThat(repeated.getMaxExecutions()).isEqualTo(25);
+        });
+  }
+
+  @Test
+  void テストモードのときN加1の疑いがあるリクエストは例外になること() {
+    properties.setFailOnRepeat(true);
+
+    assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/users"),
+        new MockHttpServletResponse(), executing("UserRepository.findById", 25)))
+        .isInstanceOf(RepeatedStatementException.class);
+  }
+}
@@ -0,0 +1,154 @@
+package com.example.businessmanagement2.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.repository.routing.DataSourceRole;
+import com.example.businessmanagement2.repository.routing.DataSourceRoutingProperties;
+import com.example.businessmanagement2.repository.routing.ReplicaHealthMonitor;
+import com.example.businessmanagement2.repository.routing.ReplicaRoutingDataSource;
+import com.example.businessmanagement2.repository.routing.RoutingContext;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 2つの H2 をプライマリとレプリカに見立て、どちらから読んだかを marker 表の値で確かめる。
+ */
+class ReplicaRoutingDataSourceTest {
+
+  private final DataSource primary = new DriverManagerDataSource(
+      "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", "");
+
+  private final DataSource replica = new DriverManagerDataSource(
+      "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+  private ReplicaHealthMonitor monitor;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private TransactionTemplate readOnly;
+
+  private TransactionTemplate readWrite;
+
+  @BeforeEach
+  void setUp() {
+    for (var entry : Map.of(primary, "primary", replica, "replica").entrySet()) {
+      var jdbc = new JdbcTemplate(entry.getKey());
+      jdbc.execute("create table marker (name varchar(16))");
+      jdbc.update("insert into marker values (?)", entry.getValue());
+      jdbc.execute(
+          "create table replica_heartbeat (node_id varchar(255) primary key, beat bigint)");
+    }
+    var properties = new DataSourceRoutingProperties();
+    properties.setNodeId("node-a");
+    monitor = new ReplicaHealthMonitor(primary, replica, properties);
+    var routing = new ReplicaRoutingDataSource(monitor);
+    routing.setTargetDataSources(Map.of(
+        DataSourceRole.PRIMARY, primary,
+        DataSourceRole.REPLICA, replica));
+    routing.setDefaultTargetDataSource(primary);
+    routing.afterPropertiesSet();
+    var dataSource = new LazyConnectionDataSourceProxy(routing);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    var transactionManager = new DataSourceTransactionManager(dataSource);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readWrite = new TransactionTemplate(transactionManager);
+  }
+
+  @AfterEach
+  void tearDown() {
+    RoutingContext.clear();
+    new JdbcTemplate(primary).execute("drop all objects");
+    new JdbcTemplate(replica).execute("drop all objects");
+  }
+
+  private String readIn(TransactionTemplate template) {
+    return template.execute(
+        status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+  }
+
+  /**
+   * プライマリに書いた beat をレプリカに書き写して、レプリケーションが追いついた状態にする。
+   */
+  private void replicate() {
+    var beats = new JdbcTemplate(primary)
+        .queryForList("select node_id, beat from replica_heartbeat");
+    var jdbc = new JdbcTemplate(replica);
+    jdbc.update("delete from replica_heartbeat");
+    beats.forEach(row -> jdbc.update("insert into replica_heartbeat values (?, ?)",
+        row.get("node_id"), row.get("beat")));
+  }
+
+  @Test
+  void レプリカが追いついているとき読み取り専用トランザクションはレプリカから読むこと() {
+    monitor.check();
+    replicate();
+    monitor.check();
+
+    assertThat(monitor.isReplicaUsable()).isTrue();
+    assertThat(readIn(readOnly)).isEqualTo("replica");
+    assertThat(readIn(readWrite)).isEqualTo("primary");
+  }
+
+  @Test
+  void 一度も確かめていないときはプライマリから読むこと() {
+    assertThat(monitor.isReplicaUsable()).isFalse();
+    assertThat(readIn(readOnly)).isEqualTo("primary");
+  }
+
+  @Test
+  void 書き込み直後のクライアントはプライマリから読むこと() {
+    monitor.check();
+    replicate();
+    monitor.check();
+
+    var name = RoutingContext.onPrimary(() -> readIn(readOnly));
+
+    assertThat(name).isEqualTo("primary");
+    assertThat(readIn(readOnly)).isEqualTo("replica");
+  }
+
+  @Test
+  void レプリカが遅れているときはプライマリから読むこと() {
+    monitor.check();
+    new JdbcTemplate(replica).update("insert into replica_heartbeat values ('node-a', ?)",
+        System.currentTimeMillis() - 60_000);
+    monitor.check();
+
+    assertThat(monitor.isReplicaUsable()).isFalse();
+    assertThat(monitor.getLagMillis()).isGreaterThanOrEqualTo(60_000);
+    assertThat(readIn(readOnly)).isEqualTo("primary");
+  }
+
+  @Test
+  void レプリカに接続できないときはプライマリから読むこと() {
+    monitor.check();
+    replicate();
+    monitor.check();
+    new JdbcTemplate(replica).execute("drop table replica_heartbeat");
+
+    monitor.check();
+
+    assertThat(monitor.isReplicaUsable()).isFalse();
+    assertThat(readIn(readOnly)).isEqualTo("primary");
+  }
+
+  @Test
+  void ほかのノードの時刻がレプリカに届いていても自分の時刻が届くまではプライマリから読むこと() {
+    monitor.check();
+    new JdbcTemplate(replica).update("insert into replica_heartbeat values ('node-b', ?)",
+        System.currentTimeMillis() + 60_000);
+    monitor.check();
+
+    assertThat(monitor.isReplicaUsable()).isFalse();
+    assertThat(readIn(readOnly)).isEqualTo("primary");
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.businessmanagement2.schedule;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.service.Schedule.ScheduleAvailability;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlot;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlotIndex;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+public class ScheduleAvailabilityTest {
+
+  private final ScheduleAvailability availability = new ScheduleAvailability();
+
+  private final ScheduleSlotIndex index = new ScheduleSlotIndex(availability);
+
+  @BeforeEach
+  void begin() {
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void clear() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  private void complete(int status) {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.afterCompletion(status));
+    TransactionSynchronizationManager.clearSynchronization();
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  private void book(long scheduleId, LocalDate date) {
+    index.claim().reserve(new ScheduleSlot(date, "4階", "トイレ"), scheduleId);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+  }
+
+  @Test
+  void 作業予定の入っている日を除いた日が返ること() {
+    book(1L, LocalDate.of(2022, 12, 6));
+    book(2L, LocalDate.of(2022, 12, 8));
+
+    assertThat(availability.findFreeDays("トイレ", "4階", LocalDate.of(2022, 12, 5),
+        LocalDate.of(2022, 12, 9)))
+        .containsExactly(LocalDate.of(2022, 12, 5), LocalDate.of(2022, 12, 7),
+            LocalDate.of(2022, 12, 9));
+  }
+
+  @Test
+  void 数か月にまたがる期間でも作業予定の入っている日だけが除かれること() {
+    book(1L, LocalDate.of(2022, 10, 1));
+    book(2L, LocalDate.of(2023, 3, 31));
+
+    var freeDays = availability.findFreeDays("トイレ", "4階", LocalDate.of(2022, 9, 1),
+        LocalDate.of(2023, 4, 30));
+
+    assertThat(freeDays).hasSize(242 - 2)
+        .doesNotContain(LocalDate.of(2022, 10, 1), LocalDate.of(2023, 3, 31))
+        .startsWith(LocalDate.of(2022, 9, 1))
+        .endsWith(LocalDate.of(2023, 4, 30));
+  }
+
+  @Test
+  void 作業予定のない場所と階はすべての日が空いていること() {
+    book(1L, LocalDate.of(2022, 12, 6));
+
+    assertThat(availability.findFreeDays("トイレ", "3階", LocalDate.of(2022, 12, 5),
+        LocalDate.of(2022, 12, 7))).hasSize(3);
+  }
+
+  @Test
+  void 作業予定を削除すると日が空くこと() {
+    book(1L, LocalDate.of(2022, 12, 6));
+    index.claim().release(new ScheduleSlot(LocalDate.of(2022, 12, 6), "4階", "トイレ"), 1L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertThat(availability.findFreeDays("トイレ", "4階", LocalDate.of(2022, 12, 6),
+        LocalDate.of(2022, 12, 6))).containsExactly(LocalDate.of(2022, 12, 6));
+  }
+
+  @Test
+  void ロールバックされた登録の日は空いたままであること() {
+    index.claim().reserve(new ScheduleSlot(LocalDate.of(2022, 12, 6), "4階", "トイレ"), null);
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    assertThat(availability.findFreeDays("トイレ", "4階", LocalDate.of(2022, 12, 6),
+        LocalDate.of(2022, 12, 6))).containsExactly(LocalDate.of(2022, 12, 6));
+  }
+
+  @Test
+  void 索引を作り直すとDBにない作業予定の日が空くこと() {
+    book(1L, LocalDate.of(2022, 12, 6));
+    book(2L, LocalDate.of(2022, 12, 7));
+
+    index.rebuild().finish();
+
+    assertThat(availability.findFreeDays("トイレ", "4階", LocalDate.of(2022, 12, 6),
+        LocalDate.of(2022, 12, 7)))
+        .containsExactly(LocalDate.of(2022, 12, 6), LocalDate.of(2022, 12, 7));
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.businessmanagement2.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleCsvExporter;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleExportAbortedException;
+import com.example.businessmanagement2.service.Schedule.InvalidScheduleCriteriaException;
+import com.example.businessmanagement2.service.Schedule.ScheduleService;
+import com.example.businessmanagement2.service.bulkhead.BulkheadFullException;
+import com.example.businessmanagement2.service.bulkhead.BulkheadProperties;
+import com.example.businessmanagement2.service.bulkhead.Bulkheads;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import org.springframework.dao.QueryTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleCsvExporterTest {
+
+  @Mock
+  private ScheduleService scheduleService;
+
+  private ScheduleCsvExporter scheduleCsvExporter;
+
+  @BeforeEach
+  void setUp() {
+    var properties = new BulkheadProperties();
+    properties.setEnabled(false);
+    scheduleCsvExporter = new ScheduleCsvExporter(scheduleService, new Bulkheads(properties));
+  }
+
+  @Test
+  void 期間を週ごとに読んで日付順にBOM付きのCSVを書き出すこと() throws Exception {
+    doAnswer(invocation -> {
+      LocalDate from = invocation.getArgument(0);
+      Consumer<ScheduleEntity> action = invocation.getArgument(2);
+      action.accept(new ScheduleEntity(from.getDayOfMonth() + 0L, 1, Date.valueOf(from), "4階",
+          "トイレ", "墨出し, \"養生\"\n片付け", "3人"));
+      return null;
+    }).when(scheduleService).scanScheduleList(any(), any(), any());
+    var out = new ByteArrayOutputStream();
+
+    scheduleCsvExporter.export(LocalDate.of(2022, 12, 1), LocalDate.of(2022, 12, 10), out);
+
+    verify(scheduleService).scanScheduleList(any(LocalDate.class),
+        eq(LocalDate.of(2022, 12, 7)), any());
+    verify(scheduleService).scanScheduleList(
+        eq(LocalDate.of(2022, 12, 8)),
+        eq(LocalDate.of(2022, 12, 10)), any());
+    var bytes = out.toByteArray();
+    assertThat(bytes).startsWith(0xEF, 0xBB, 0xBF);
+    assertThat(new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8)).isEqualTo(
+        "scheduleid,userid,workingdate,numberoffloors,place,workcontent,numberofpeople\r\n"
+            + "1,1,2022-12-01,4階,トイレ,\"墨出し, \"\"養生\"\"\n片付け\",3人\r\n"
+            + "8,1,2022-12-08,4階,トイレ,\"墨出し, \"\"養生\"\"\n片付け\",3人\r\n");
+  }
+
+  @Test
+  void 開始日が終了日より後のときは例外になること() {
+    assertThatThrownBy(() -> scheduleCsvExporter.export(LocalDate.of(2022, 12, 10),
+        LocalDate.of(2022, 12, 1), new ByteArrayOutputStream()))
+        .isInstanceOf(InvalidScheduleCriteriaException.class);
+  }
+
+  @Test
+  void 書き始めたあとに読み取りが失敗したときは途中で打ち切ったことが分かる例外になること() {
+    doAnswer(invocation -> {
+      if (invocation.getArgument(0).equals(LocalDate.of(2022, 12, 15))) {
+        throw new QueryTimeoutException("timeout");
+      }
+      return null;
+    }).when(scheduleService).scanScheduleList(any(), any(), any());
+    var out = new ByteArrayOutputStream();
+
+    assertThatThrownBy(() -> scheduleCsvExporter.export(LocalDate.of(2022, 12, 1),
+        LocalDate.of(2022, 12, 21), out))
+        .isInstanceOf(ScheduleExportAbortedException.class)
+        .hasCauseInstanceOf(QueryTimeoutException.class);
+    assertThat(out.toByteArray()).startsWith(0xEF, 0xBB, 0xBF);
+  }
+
+  @Test
+  void 書き出し中にもう1本要求されたときは断ること() throws Exception {
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await();
+      return null;
+    }).when(scheduleService).scanScheduleList(any(), any(), any());
+    var first = CompletableFuture.runAsync(() -> {
+      try {
+        scheduleCsvExporter.export(LocalDate.of(2022, 12, 1), LocalDate.of(2022, 12, 1),
+            new ByteArrayOutputStream());
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    started.await();
+    try {
+      assertThatThrownBy(() -> scheduleCsvExporter.export(LocalDate.of(2022, 12, 1),
+          LocalDate.of(2022, 12, 1), new ByteArrayOutputStream()))
+          .isInstanceOf(BulkheadFullException.class);
+    } finally {
+      release.countDown();
+      first.get();
+    }
+  }
+}
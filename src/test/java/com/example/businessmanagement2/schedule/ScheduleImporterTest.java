@@ -0,0 +1,217 @@
+package com.example.businessmanagement2.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.restcontroller.schedule.InvalidScheduleImportException;
+import com.example.businessmanagement2.restcontroller.schedule.ScheduleImporter;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchCommand;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchItemException;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchOperation;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchResult;
+import com.example.businessmanagement2.service.Schedule.ScheduleBatchStatus;
+import com.example.businessmanagement2.service.Schedule.ScheduleService;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlot;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlotConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import javax.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleImporterTest {
+
+  private static final String HEADER =
+      "userid,workingdate,numberoffloors,place,workcontent,numberofpeople\n";
+
+  private static final ScheduleSlot SLOT = new ScheduleSlot(LocalDate.of(2099, 4, 1), "3", "A");
+
+  @Mock
+  private ScheduleService scheduleService;
+
+  /**
+   * アプリと同じく、ScheduleForm をコンストラクタ引数の名前で組み立てられるようにする。
+   */
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+      .modulesToInstall(new ParameterNamesModule())
+      .build();
+
+  private ScheduleImporter scheduleImporter;
+
+  @BeforeEach
+  void setUp() {
+    scheduleImporter = new ScheduleImporter(scheduleService,
+        Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ScheduleBatchCommand> importCsv(String csv, ByteArrayOutputStream out)
+      throws Exception {
+    var captor = ArgumentCaptor.forClass(List.class);
+    when(scheduleService.executeBatch(captor.capture())).thenAnswer(invocation -> {
+      List<ScheduleBatchCommand> commands = invocation.getArgument(0);
+      return commands.stream()
+          .map(command -> new ScheduleBatchResult(command.getIndex(), command.getOperation(),
+              ScheduleBatchStatus.CREATED, null, null))
+          .toList();
+    });
+    scheduleImporter.importSchedules(scheduleImporter.csvReader(new StringReader(csv)), out);
+    return captor.getAllValues().stream()
+        .flatMap(commands -> ((List<ScheduleBatchCommand>) commands).stream())
+        .toList();
+  }
+
+  @Test
+  void クォートで囲んだ値のカンマと改行とエスケープを読めること() throws Exception {
+    var out = new ByteArrayOutputStream();
+    var commands = importCsv("\uFEFF" + HEADER
+        + "1,2099-04-01,3,A,\"配線工事, \"\"第1期\"\"\n2日目\",2\r\n", out);
+
+    assertThat(commands).hasSize(1);
+    ScheduleEntity entity = commands.get(0).getEntity();
+    assertThat(entity.getUserid()).isEqualTo(1);
+    assertThat(entity.getPlace()).isEqualTo("A");
+    assertThat(entity.getWorkcontent()).isEqualTo("配線工事, \"第1期\"\n2日目");
+    assertThat(out.toString(StandardCharsets.UTF_8))
+        .endsWith("{\"records\":1,\"imported\":1,\"failed\":0,\"done\":true}");
+  }
+
+  @Test
+  void 不正な行はエラーとして返し残りの行を登録すること() throws Exception {
+    var out = new ByteArrayOutputStream();
+    var commands = importCsv(HEADER
+        + "x,2099-04-01,3,A,配線工事,2\n"
+        + "1,2099/04/02,3,A,,2\n"
+        + "1,2099/04/03,3,A,配線工事,2\n", out);
+
+    assertThat(commands).hasSize(1);
+    var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(objectMapper.readTree(lines[0]).get("line").asLong()).isEqualTo(2);
+    assertThat(objectMapper.readTree(lines[0]).get("status").asText()).isEqualTo("invalid");
+    assertThat(objectMapper.readTree(lines[1]).get("line").asLong()).isEqualTo(3);
+    assertThat(objectMapper.readTree(lines[lines.length - 1]).get("failed").asLong())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void 必要な列が足りないときは書き出す前に例外になること() {
+    assertThatThrownBy(() -> scheduleImporter.csvReader(
+        new StringReader("userid,workingdate,place\n1,2099-04-01,A\n")))
+        .isInstanceOf(InvalidScheduleImportException.class)
+        .hasMessageContaining("numberoffloors");
+  }
+
+  @Test
+  void 要素ごとに弾かれた行だけを失敗として返すこと() throws Exception {
+    when(scheduleService.executeBatch(anyList())).thenReturn(List.of(
+        new ScheduleBatchResult(0, ScheduleBatchOperation.CREATE, ScheduleBatchStatus.CREATED,
+            10L, null),
+        new ScheduleBatchResult(1, ScheduleBatchOperation.CREATE,
+            ScheduleBatchStatus.USER_NOT_FOUND, null, "User 9 does not exist."),
+        new ScheduleBatchResult(2, ScheduleBatchOperation.CREATE, ScheduleBatchStatus.CONFLICT,
+            null, "Slot is already used.")));
+    var out = new ByteArrayOutputStream();
+
+    var progress = scheduleImporter.importSchedules(scheduleImporter.csvReader(new StringReader(
+        HEADER
+            + "1,2099-04-01,3,A,配線工事,2\n"
+            + "9,2099-04-02,3,A,配線工事,2\n"
+            + "1,2099-04-01,3,A,配線工事,2\n")), out);
+
+    assertThat(progress.getImported()).isEqualTo(1);
+    assertThat(progress.getFailed()).isEqualTo(2);
+    verify(scheduleService, never()).create(anyInt(), any(), any(), any(), any(), any());
+    var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(objectMapper.readTree(lines[0]).get("line").asLong()).isEqualTo(3);
+    assertThat(objectMapper.readTree(lines[0]).get("status").asText())
+        .isEqualTo("user_not_found");
+    assertThat(objectMapper.readTree(lines[0]).at("/invalidParams/0/name").asText())
+        .isEqualTo("userid");
+    assertThat(objectMapper.readTree(lines[1]).get("line").asLong()).isEqualTo(4);
+    assertThat(objectMapper.readTree(lines[1]).get("status").asText()).isEqualTo("conflict");
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void チャンクがDBの制約に引っかかったときは原因の行だけ外して残りをまとめて登録し直すこと()
+      throws Exception {
+    var captor = ArgumentCaptor.forClass(List.class);
+    when(scheduleService.executeBatch(captor.capture()))
+        .thenThrow(new ScheduleBatchItemException(1, ScheduleBatchStatus.USER_NOT_FOUND,
+            new RuntimeException("foreign key")))
+        .thenReturn(List.of(new ScheduleBatchResult(0, ScheduleBatchOperation.CREATE,
+            ScheduleBatchStatus.CREATED, 10L, null)));
+    var out = new ByteArrayOutputStream();
+
+    var progress = scheduleImporter.importSchedules(scheduleImporter.csvReader(new StringReader(
+        HEADER
+            + "1,2099-04-01,3,A,配線工事,2\n"
+            + "9,2099-04-02,3,A,配線工事,2\n")), out);
+
+    assertThat(progress.getImported()).isEqualTo(1);
+    assertThat(progress.getFailed()).isEqualTo(1);
+    verify(scheduleService, never()).create(anyInt(), any(), any(), any(), any(), any());
+    assertThat(((List<ScheduleBatchCommand>) captor.getAllValues().get(1)))
+        .extracting(ScheduleBatchCommand::getIndex)
+        .containsExactly(0);
+    var firstLine = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).split("\n")[0]);
+    assertThat(firstLine.get("line").asLong()).isEqualTo(3);
+    assertThat(firstLine.get("status").asText()).isEqualTo("user_not_found");
+  }
+
+  @Test
+  void 原因の行が分からないときは1件ずつ登録して競合した行を返すこと() throws Exception {
+    when(scheduleService.executeBatch(anyList()))
+        .thenThrow(new DataIntegrityViolationException("not null"));
+    when(scheduleService.create(eq(1), any(), any(), any(), any(), any()))
+        .thenReturn(null);
+    when(scheduleService.create(eq(2), any(), any(), any(), any(), any()))
+        .thenThrow(new ScheduleSlotConflictException(SLOT));
+    var out = new ByteArrayOutputStream();
+
+    var progress = scheduleImporter.importSchedules(scheduleImporter.ndjsonReader(new StringReader(
+        "{\"userid\":1,\"workingdate\":\"2099-04-01\",\"numberoffloors\":\"3\",\"place\":\"A\","
+            + "\"workcontent\":\"配線工事\",\"numberofpeople\":\"2\"}\n"
+            + "\n"
+            + "{\"userid\":2,\"workingdate\":\"2099-04-01\",\"numberoffloors\":\"3\",\"place\":\"A\","
+            + "\"workcontent\":\"配線工事\",\"numberofpeople\":\"2\"}\n")), out);
+
+    assertThat(progress.getImported()).isEqualTo(1);
+    assertThat(progress.getFailed()).isEqualTo(1);
+    verify(scheduleService, times(2)).create(anyInt(), any(), any(), any(), any(), any());
+    var firstLine = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).split("\n")[0]);
+    assertThat(firstLine.get("line").asLong()).isEqualTo(3);
+    assertThat(firstLine.get("status").asText()).isEqualTo("conflict");
+  }
+
+  @Test
+  void 空のNDJSONは登録せずに完了すること() throws Exception {
+    var progress = scheduleImporter.importSchedules(
+        scheduleImporter.ndjsonReader(new StringReader("")), new ByteArrayOutputStream());
+
+    assertThat(progress.isDone()).isTrue();
+    assertThat(progress.getRecords()).isZero();
+    verify(scheduleService, never()).executeBatch(anyList());
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.businessmanagement2.schedule;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleCriteria;
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.spring.api.DBRider;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.transaction.annotation.Transactional;
+
+
+@DBRider
+@MybatisTest
+@DataSet(value = "datasets/schedules.yml")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ScheduleRepositoryTest {
+
+  @Autowired
+  ScheduleRepository scheduleRepository;
+
+  @Test
+  @Transactional
+  void 条件を指定しないときすべての作業予定が日付順に取得できること() {
+    List<ScheduleEntity> schedules = scheduleRepository.searchSchedules(
+        ScheduleCriteria.none(), null, null, 10);
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(1L, 2L, 3L, 4L);
+  }
+
+  @Test
+  @Transactional
+  void 期間を指定したとき両端の日付を含む作業予定が取得できること() {
+    var criteria = new ScheduleCriteria(LocalDate.of(2022, 12, 7), LocalDate.of(2022, 12, 10),
+        null, null, null);
+    List<ScheduleEntity> schedules = scheduleRepository.searchSchedules(criteria, null, null, 10);
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(2L, 3L);
+  }
+
+  @Test
+  @Transactional
+  void 期間とユーザーを指定したときそのユーザーの作業予定だけが取得できること() {
+    var criteria = new ScheduleCriteria(LocalDate.of(2022, 12, 1), LocalDate.of(2022, 12, 31),
+        1, null, null);
+    List<ScheduleEntity> schedules = scheduleRepository.searchSchedules(criteria, null, null, 10);
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(1L, 4L);
+  }
+
+  @Test
+  @Transactional
+  void 場所と階を指定したとき一致する作業予定が取得できること() {
+    var criteria = new ScheduleCriteria(null, null, null, "和室", "3階");
+    List<ScheduleEntity> schedules = scheduleRepository.searchSchedules(criteria, null, null, 10);
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(2L, 3L);
+  }
+
+  @Test
+  @Transactional
+  void 項目を指定したときその列だけを読みほかは空になること() {
+    var criteria = new ScheduleCriteria(null, null, null, "和室", "3階");
+    List<ScheduleEntity> schedules = scheduleRepository.searchSchedules(criteria, null, null, 10,
+        Set.of("id", "workingdate", "place"));
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid, ScheduleEntity::getPlace,
+            ScheduleEntity::getUserid, ScheduleEntity::getWorkcontent, ScheduleEntity::getVersion)
+        .containsExactly(tuple(2L, "和室", 0, null, null), tuple(3L, "和室", 0, null, null));
+    assertThat(schedules).allSatisfy(schedule -> assertThat(schedule.getWorkingdate()).isNotNull());
+  }
+
+  @Test
+  @Transactional
+  void 条件を指定したまま続きのページが取得できること() {
+    var criteria = new ScheduleCriteria(null, null, 2, null, null);
+    List<ScheduleEntity> schedules = scheduleRepository.searchSchedules(
+        criteria, LocalDate.of(2022, 12, 7), 2L, 10);
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(3L);
+  }
+
+  @Test
+  @Transactional
+  void 期間を指定して両端の日付を含む作業予定が日付順に読めること() throws Exception {
+    var schedules = new ArrayList<ScheduleEntity>();
+    try (var cursor = scheduleRepository.scanScheduleRange(LocalDate.of(2022, 12, 6),
+        LocalDate.of(2022, 12, 10))) {
+      cursor.forEach(schedules::add);
+    }
+    assertThat(schedules)
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  @Transactional
+  void バージョンが一致するときだけ更新されバージョンが上がること() {
+    var stale = new ScheduleEntity(2L, 2, Date.valueOf("2022-12-08"), "3階", "和室",
+        "配線", "5人", 1L);
+    assertThat(scheduleRepository.updateWithVersion(stale)).isZero();
+
+    var current = new ScheduleEntity(2L, 2, Date.valueOf("2022-12-08"), "3階", "和室",
+        "配線", "5人", 0L);
+    assertThat(scheduleRepository.updateWithVersion(current)).isEqualTo(1);
+    assertThat(scheduleRepository.findVersion(2L)).contains(1L);
+  }
+
+  @Test
+  @Transactional
+  void バージョンが一致しないときは削除されないこと() {
+    assertThat(scheduleRepository.deleteWithVersion(3L, 1L)).isZero();
+    assertThat(scheduleRepository.findById(3L)).isPresent();
+
+    assertThat(scheduleRepository.deleteWithVersion(3L, 0L)).isEqualTo(1);
+    assertThat(scheduleRepository.findVersion(3L)).isEmpty();
+  }
+}
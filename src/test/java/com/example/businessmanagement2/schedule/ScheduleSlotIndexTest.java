@@ -0,0 +1,157 @@
+package com.example.businessmanagement2.schedule;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.service.Schedule.ScheduleAvailability;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlot;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlotConflictException;
+import com.example.businessmanagement2.service.Schedule.ScheduleSlotIndex;
+import java.sql.Date;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+public class ScheduleSlotIndexTest {
+
+  private static final ScheduleSlot TOILET = new ScheduleSlot(LocalDate.of(2022, 12, 6), "4階",
+      "トイレ");
+
+  private static final ScheduleSlot JAPANESE_ROOM = new ScheduleSlot(LocalDate.of(2022, 12, 6),
+      "4階", "和室");
+
+  private final ScheduleSlotIndex index = new ScheduleSlotIndex(new ScheduleAvailability());
+
+  @BeforeEach
+  void begin() {
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void clear() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private void complete(int status) {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.afterCompletion(status));
+    TransactionSynchronizationManager.clearSynchronization();
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @Test
+  void 新規登録がコミットされると振られたIDでスロットが押さえられること() {
+    var claim = index.claim();
+    claim.reserve(TOILET, null);
+    claim.assign(TOILET, 1L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertThat(index.findOwner(TOILET)).contains(1L);
+  }
+
+  @Test
+  void 別の作業予定が使っているスロットを押さえようとすると例外になること() {
+    index.claim().reserve(TOILET, 1L);
+
+    assertThatThrownBy(() -> index.claim().reserve(TOILET, 2L))
+        .isInstanceOf(ScheduleSlotConflictException.class);
+    assertThatThrownBy(() -> index.claim().reserve(TOILET, null))
+        .isInstanceOf(ScheduleSlotConflictException.class);
+  }
+
+  @Test
+  void 同じ作業予定なら使っているスロットをもう一度押さえられること() {
+    index.claim().reserve(TOILET, 1L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    index.claim().reserve(TOILET, 1L);
+
+    assertThat(index.findOwner(TOILET)).contains(1L);
+  }
+
+  @Test
+  void ロールバックされると押さえたスロットが空くこと() {
+    index.claim().reserve(TOILET, null);
+    index.claim().reserve(JAPANESE_ROOM, 2L);
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    assertThat(index.findOwner(TOILET)).isEmpty();
+    assertThat(index.findOwner(JAPANESE_ROOM)).isEmpty();
+  }
+
+  @Test
+  void 場所を変える更新がコミットされると元のスロットが空くこと() {
+    index.claim().reserve(TOILET, 1L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    var claim = index.claim();
+    claim.reserve(JAPANESE_ROOM, 1L);
+    claim.release(TOILET, 1L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertThat(index.findOwner(TOILET)).isEmpty();
+    assertThat(index.findOwner(JAPANESE_ROOM)).contains(1L);
+  }
+
+  @Test
+  void トランザクションの外では押さえられないこと() {
+    TransactionSynchronizationManager.clearSynchronization();
+
+    assertThatThrownBy(index::claim).isInstanceOf(IllegalStateException.class);
+  }
+
+  private static ScheduleEntity schedule(long scheduleId, ScheduleSlot slot) {
+    return new ScheduleEntity(scheduleId, 1, Date.valueOf(slot.getWorkingdate()),
+        slot.getNumberoffloors(), slot.getPlace(), "配線", "2人");
+  }
+
+  @Test
+  void 作り直すとDBにない作業予定のスロットが空くこと() {
+    index.claim().reserve(TOILET, 1L);
+    index.claim().reserve(JAPANESE_ROOM, 2L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    var rebuild = index.rebuild();
+    rebuild.load(schedule(2L, JAPANESE_ROOM));
+    rebuild.finish();
+
+    assertThat(index.findOwner(TOILET)).isEmpty();
+    assertThat(index.findOwner(JAPANESE_ROOM)).contains(2L);
+  }
+
+  @Test
+  void 読み込み中にコミットされた変更は作り直したあとも残ること() {
+    var rebuild = index.rebuild();
+    rebuild.load(schedule(1L, TOILET));
+    var claim = index.claim();
+    claim.reserve(JAPANESE_ROOM, null);
+    claim.assign(JAPANESE_ROOM, 2L);
+    claim.release(TOILET, 1L);
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    rebuild.finish();
+
+    assertThat(index.findOwner(TOILET)).isEmpty();
+    assertThat(index.findOwner(JAPANESE_ROOM)).contains(2L);
+  }
+
+  @Test
+  void 作り直してもコミット前の予約は残りロールバックで空くこと() {
+    index.claim().reserve(TOILET, null);
+
+    index.rebuild().finish();
+
+    assertThat(index.findOwner(TOILET)).contains(0L);
+    assertThatThrownBy(() -> index.claim().reserve(TOILET, 2L))
+        .isInstanceOf(ScheduleSlotConflictException.class);
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+    assertThat(index.findOwner(TOILET)).isEmpty();
+  }
+}
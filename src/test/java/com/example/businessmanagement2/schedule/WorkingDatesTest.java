@@ -0,0 +1,37 @@
+package com.example.businessmanagement2.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.repository.schedule.WorkingDates;
+import java.time.LocalDate;
+import java.util.TimeZone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WorkingDatesTest {
+
+  private static final LocalDate DAY = LocalDate.of(2099, 4, 1);
+
+  private final TimeZone original = TimeZone.getDefault();
+
+  @AfterEach
+  void restore() {
+    TimeZone.setDefault(original);
+  }
+
+  @Test
+  void UTCより西のタイムゾーンでも日付がずれないこと() {
+    TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+
+    assertThat(WorkingDates.toLocalDate(WorkingDates.toDate(DAY))).isEqualTo(DAY);
+    assertThat(WorkingDates.toLocalDate(java.sql.Date.valueOf(DAY))).isEqualTo(DAY);
+  }
+
+  @Test
+  void UTCより東のタイムゾーンでも日付がずれないこと() {
+    TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+
+    assertThat(WorkingDates.toLocalDate(WorkingDates.toDate(DAY))).isEqualTo(DAY);
+    assertThat(WorkingDates.toLocalDate(java.sql.Date.valueOf(DAY))).isEqualTo(DAY);
+  }
+}
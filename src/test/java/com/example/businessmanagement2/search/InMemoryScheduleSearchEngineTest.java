@@ -0,0 +1,132 @@
+package com.example.businessmanagement2.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.schedule.ScheduleRepository;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.event.ChangeFeedProperties;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.event.ChangeType;
+import com.example.businessmanagement2.service.search.InMemoryScheduleSearchEngine;
+import com.example.businessmanagement2.service.search.ScheduleSearchText;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryScheduleSearchEngineTest {
+
+  @Mock
+  private ScheduleRepository scheduleRepository;
+
+  private final ChangeFeed changeFeed = new ChangeFeed(new ChangeFeedProperties());
+
+  private InMemoryScheduleSearchEngine engine;
+
+  private static ScheduleEntity schedule(long id, int userId, String place, String workcontent) {
+    return new ScheduleEntity(id, userId, Date.valueOf(LocalDate.of(2022, 12, 6)), "4階", place,
+        workcontent, "3人");
+  }
+
+  @BeforeEach
+  void setUp() {
+    when(scheduleRepository.findScheduleList()).thenReturn(List.of(
+        schedule(1, 1, "トイレ", "墨出し"),
+        schedule(2, 2, "和室", "配線"),
+        schedule(3, 2, "トイレ２", "配線、トイレの配管"),
+        schedule(4, 1, "洋室", "ＢＯＸ取り付け"),
+        schedule(5, 1, "イレブン", "トイ搬入")));
+    engine = new InMemoryScheduleSearchEngine(scheduleRepository, changeFeed);
+    engine.run(null);
+  }
+
+  @AfterEach
+  void tearDown() {
+    engine.destroy();
+  }
+
+  private List<Long> search(String keyword, int offset, int limit) {
+    return engine.search(ScheduleSearchText.normalize(keyword), offset, limit).stream()
+        .map(ScheduleEntity::getScheduleid)
+        .toList();
+  }
+
+  @Test
+  void 場所と作業内容の両方から検索でき出現が多いものが先に並ぶこと() {
+    assertThat(search("トイレ", 0, 10)).containsExactly(3L, 1L);
+  }
+
+  @Test
+  void 二文字ずつの断片が別々の箇所にあるだけの予定は一致しないこと() {
+    assertThat(search("トイレ", 0, 10)).doesNotContain(5L);
+  }
+
+  @Test
+  void 全角と半角の違いを無視して検索できること() {
+    assertThat(search("box", 0, 10)).containsExactly(4L);
+  }
+
+  @Test
+  void 読み飛ばす件数と件数の上限で絞り込めること() {
+    assertThat(search("トイレ", 1, 10)).containsExactly(1L);
+    assertThat(search("トイレ", 0, 1)).containsExactly(3L);
+  }
+
+  @Test
+  void 変更通知を受けて索引を更新すること() {
+    changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.UPDATED, 2,
+        schedule(2, 2, "和室", "配管"));
+    changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.CREATED, 6,
+        schedule(6, 2, "廊下", "配線"));
+    changeFeed.publishAfterCommit(ChangeResource.SCHEDULE, ChangeType.DELETED, 3, null);
+
+    assertThat(search("配線", 0, 10)).containsExactly(6L);
+    assertThat(search("配管", 0, 10)).containsExactly(2L);
+  }
+
+  @Test
+  void ユーザーが削除されたときはそのユーザーの予定を索引から外すこと() {
+    changeFeed.publishAfterCommit(ChangeResource.USER, ChangeType.DELETED, 1, null);
+
+    assertThat(search("トイレ", 0, 10)).containsExactly(3L);
+    assertThat(engine.size()).isEqualTo(2);
+  }
+
+  @Test
+  void 索引のロックを持たれていても変更の通知は待たされないこと() throws Exception {
+    var locked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var holder = CompletableFuture.runAsync(() -> {
+      synchronized (engine) {
+        locked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    locked.await();
+    try {
+      CompletableFuture.runAsync(() -> changeFeed.publishAfterCommit(ChangeResource.SCHEDULE,
+              ChangeType.CREATED, 6, schedule(6, 2, "廊下", "配線")))
+          .get(5, TimeUnit.SECONDS);
+    } finally {
+      release.countDown();
+      holder.get();
+    }
+
+    assertThat(search("廊下", 0, 10)).containsExactly(6L);
+  }
+}
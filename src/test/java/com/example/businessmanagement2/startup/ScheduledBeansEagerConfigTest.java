@@ -0,0 +1,28 @@
+package com.example.businessmanagement2.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.restcontroller.startup.ScheduledBeansEagerConfig;
+import com.example.businessmanagement2.restcontroller.user.UserController;
+import com.example.businessmanagement2.service.user.UserCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+class ScheduledBeansEagerConfigTest {
+
+  private final LazyInitializationExcludeFilter filter =
+      ScheduledBeansEagerConfig.scheduledBeansExcludeFilter();
+
+  @Test
+  void 定期実行のメソッドを持つBeanは遅延初期化しないこと() {
+    assertThat(filter.isExcluded("userCache", new RootBeanDefinition(UserCache.class),
+        UserCache.class)).isTrue();
+  }
+
+  @Test
+  void 定期実行のメソッドを持たないBeanは遅延初期化してよいこと() {
+    assertThat(filter.isExcluded("userController", new RootBeanDefinition(UserController.class),
+        UserController.class)).isFalse();
+  }
+}
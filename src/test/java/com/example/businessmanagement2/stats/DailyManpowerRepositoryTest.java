@@ -0,0 +1,88 @@
+package com.example.businessmanagement2.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.stats.DailyManpowerEntity;
+import com.example.businessmanagement2.repository.stats.DailyManpowerRepository;
+import com.example.businessmanagement2.service.stats.DailyManpowerDeltas;
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.spring.api.DBRider;
+import java.sql.Date;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.transaction.annotation.Transactional;
+
+@DBRider
+@MybatisTest
+@DataSet(value = "datasets/schedules.yml")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional
+public class DailyManpowerRepositoryTest {
+
+  private static final LocalDate FROM = LocalDate.of(2022, 12, 1);
+
+  private static final LocalDate TO = LocalDate.of(2022, 12, 31);
+
+  @Autowired
+  DailyManpowerRepository dailyManpowerRepository;
+
+  @BeforeEach
+  void rebuild() {
+    dailyManpowerRepository.deleteBetween(FROM, TO);
+    var deltas = new DailyManpowerDeltas();
+    dailyManpowerRepository.aggregateSchedules(FROM, TO).forEach(deltas::add);
+    deltas.applyTo(dailyManpowerRepository);
+  }
+
+  @Test
+  void 作業予定から作り直した集計が日付と階の順に取得できること() {
+    assertThat(dailyManpowerRepository.findDaily(FROM, TO, null))
+        .extracting(DailyManpowerEntity::getWorkingdate, DailyManpowerEntity::getUserid,
+            DailyManpowerEntity::getNumberoffloors, DailyManpowerEntity::getTotalpeople,
+            DailyManpowerEntity::getSchedulecount)
+        .containsExactly(
+            tuple(LocalDate.of(2022, 12, 6), 1, "4階", 3, 1),
+            tuple(LocalDate.of(2022, 12, 7), 2, "3階", 5, 1),
+            tuple(LocalDate.of(2022, 12, 10), 2, "3階", 2, 1),
+            tuple(LocalDate.of(2022, 12, 20), 1, "4階", 4, 1));
+  }
+
+  @Test
+  void ユーザーを指定したときそのユーザーの集計だけが取得できること() {
+    assertThat(dailyManpowerRepository.findDaily(FROM, TO, 2))
+        .extracting(DailyManpowerEntity::getWorkingdate)
+        .containsExactly(LocalDate.of(2022, 12, 7), LocalDate.of(2022, 12, 10));
+  }
+
+  @Test
+  void 同じ日と階への作業予定の追加が人数と件数に足し込まれること() {
+    new DailyManpowerDeltas()
+        .add(new ScheduleEntity(5L, 1, Date.valueOf("2022-12-06"), "4階", "洋室", "配線", "２人"))
+        .applyTo(dailyManpowerRepository);
+
+    assertThat(dailyManpowerRepository.findDaily(LocalDate.of(2022, 12, 6),
+        LocalDate.of(2022, 12, 6), 1))
+        .extracting(DailyManpowerEntity::getTotalpeople, DailyManpowerEntity::getSchedulecount)
+        .containsExactly(tuple(5, 2));
+  }
+
+  @Test
+  void 作業予定の日付を変えたとき元の日の行が消えて新しい日に移ること() {
+    var before = new ScheduleEntity(3L, 2, Date.valueOf("2022-12-10"), "3階", "和室",
+        "BOX取り付け", "2人");
+    var after = new ScheduleEntity(3L, 2, Date.valueOf("2022-12-11"), "3階", "和室",
+        "BOX取り付け", "2人");
+    new DailyManpowerDeltas().subtract(before).add(after).applyTo(dailyManpowerRepository);
+
+    assertThat(dailyManpowerRepository.findDaily(LocalDate.of(2022, 12, 10),
+        LocalDate.of(2022, 12, 11), null))
+        .extracting(DailyManpowerEntity::getWorkingdate, DailyManpowerEntity::getTotalpeople)
+        .containsExactly(tuple(LocalDate.of(2022, 12, 11), 2));
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.businessmanagement2.user;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.businessmanagement2.repository.cacheversion.CacheVersionRepository;
+import com.example.businessmanagement2.repository.user.UserEntity;
+import com.example.businessmanagement2.repository.user.UserRepository;
+import com.example.businessmanagement2.service.user.UserCache;
+import com.example.businessmanagement2.service.user.UserCacheProperties;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTest {
+
+  @Mock
+  private CacheVersionRepository cacheVersionRepository;
+
+  @Mock
+  private UserRepository userRepository;
+
+  private UserCache userCache;
+
+  @BeforeEach
+  void setUp() {
+    userCache = new UserCache(cacheVersionRepository, new UserCacheProperties());
+  }
+
+  @Test
+  public void バージョン確認後は2回目以降の取得でDBに問い合わせないこと() {
+    given(cacheVersionRepository.findVersion("users")).willReturn(Optional.of(0L));
+    given(userRepository.findById(1L))
+        .willReturn(Optional.of(new UserEntity(1L, "○○○会社", "瀬川")));
+    userCache.pollVersion();
+
+    userCache.findById(1L, userRepository::findById);
+    Optional<UserEntity> actual = userCache.findById(1L, userRepository::findById);
+
+    assertThat(actual).hasValue(new UserEntity(1L, "○○○会社", "瀬川"));
+    verify(userRepository, times(1)).findById(1L);
+    assertThat(userCache.userStats().hitCount()).isEqualTo(1);
+    assertThat(userCache.userStats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void 書き込み後はキャッシュが破棄されDBから読み直すこと() {
+    given(cacheVersionRepository.findVersion("users")).willReturn(Optional.of(0L));
+    given(userRepository.findById(1L))
+        .willReturn(Optional.of(new UserEntity(1L, "○○○会社", "瀬川")));
+    userCache.pollVersion();
+
+    userCache.findById(1L, userRepository::findById);
+    userCache.invalidateAfterWrite(1L);
+    userCache.findById(1L, userRepository::findById);
+
+    verify(cacheVersionRepository).increment("users");
+    verify(userRepository, times(2)).findById(1L);
+  }
+
+  @Test
+  public void 他ノードでバージョンが上がったときキャッシュが破棄されること() {
+    given(cacheVersionRepository.findVersion("users"))
+        .willReturn(Optional.of(0L))
+        .willReturn(Optional.of(1L));
+    given(userRepository.findById(1L))
+        .willReturn(Optional.of(new UserEntity(1L, "○○○会社", "瀬川")));
+    userCache.pollVersion();
+    userCache.findById(1L, userRepository::findById);
+
+    userCache.pollVersion();
+    userCache.findById(1L, userRepository::findById);
+
+    verify(userRepository, times(2)).findById(1L);
+  }
+
+  @Test
+  public void バージョンを確認できていないときはキャッシュを使わないこと() {
+    var properties = new UserCacheProperties();
+    properties.setMaxStaleness(Duration.ZERO);
+    userCache = new UserCache(cacheVersionRepository, properties);
+    given(cacheVersionRepository.findVersion("users")).willReturn(Optional.of(0L));
+    given(userRepository.findById(1L))
+        .willReturn(Optional.of(new UserEntity(1L, "○○○会社", "瀬川")));
+    userCache.pollVersion();
+
+    userCache.findById(1L, userRepository::findById);
+    userCache.findById(1L, userRepository::findById);
+
+    verify(userRepository, times(2)).findById(1L);
+  }
+}
@@ -46,6 +46,18 @@ public class UserRepositoryTest {
     assertThat(users).isEmpty();
   }
 
+  @Test
+  @Transactional
+  void 件数を指定してユーザーIDの順にページ単位で取得できること() {
+    List<UserEntity> firstPage = userRepository.findUserPage(null, 1);
+    assertThat(firstPage).containsExactly(new UserEntity(1L, "○○○会社", "瀬川"));
+
+    List<UserEntity> secondPage = userRepository.findUserPage(1L, 1);
+    assertThat(secondPage).containsExactly(new UserEntity(2L, "△△△会社", "瀬川2"));
+
+    assertThat(userRepository.findUserPage(2L, 1)).isEmpty();
+  }
+
   @Test
   @Transactional
   void 存在するユーザのIDを指定してユーザーが取得できること() {
@@ -69,7 +81,7 @@ public class UserRepositoryTest {
   public void キーに紐づく1件の更新が出来ること() {
     userRepository.update(new UserEntity(1L, "xxx会社", "瀬川3"));
     Optional<UserEntity> user = userRepository.findById(1L);
-    assertThat(user).hasValue(new UserEntity(1L, "xxx会社", "瀬川3"));
+    assertThat(user).hasValue(new UserEntity(1L, "xxx会社", "瀬川3", 1L));
   }
 
 
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.example.businessmanagement2.restcontroller.user.UserForm;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.github.database.rider.core.api.dataset.DataSet;
 import com.github.database.rider.spring.api.DBRider;
 import java.nio.charset.StandardCharsets;
@@ -18,6 +19,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +28,10 @@ import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 
-@SpringBootTest
+@SpringBootTest(properties = {
+    "app.sql.profile.fail-on-repeat=true",
+    // テストのトランザクションの中で処理されるよう、Bulkheads のスレッドを使わずに実行する
+    "app.bulkhead.enabled=false"})
 @DataSet(value = "datasets/users.yml")
 @AutoConfigureMockMvc
 @DBRider
@@ -35,17 +41,29 @@ public class UserRestApiIntegrationTest {
   @Autowired
   MockMvc mockMvc;
 
+  /**
+   * CompletableFuture を返すハンドラーは非同期になるので、結果を待ってからディスパッチし直す。
+   */
+  private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+    var actions = mockMvc.perform(requestBuilder);
+    var result = actions.andReturn();
+    if (result.getRequest().isAsyncStarted()) {
+      return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+    }
+    return actions;
+  }
+
   @Test
   @Transactional
   void ユーザーが全件取得に成功すると200で内容を返すこと() throws Exception {
-    mockMvc.perform(MockMvcRequestBuilders.get("/users"))
+    perform(MockMvcRequestBuilders.get("/users"))
         .andExpect(MockMvcResultMatchers.status().is(200));
   }
 
   @Test
   @Transactional
   void ユーザーが全件取得できること() throws Exception {
-    String response = mockMvc.perform(MockMvcRequestBuilders.get("/users"))
+    String response = perform(MockMvcRequestBuilders.get("/users"))
         .andExpect(MockMvcResultMatchers.status().isOk())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
 
@@ -67,10 +85,54 @@ public class UserRestApiIntegrationTest {
         """, response, JSONCompareMode.STRICT);
   }
 
+  @Test
+  @Transactional
+  void fieldsを指定したとき指定した項目だけを返すこと() throws Exception {
+    String response = perform(MockMvcRequestBuilders.get("/users").param("fields", "id,username"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    JSONAssert.assertEquals("""
+        {
+            "results": [
+                {"id": 1, "username": "瀬川"},
+                {"id": 2, "username": "瀬川2"}
+            ]
+        }
+        """, response, JSONCompareMode.STRICT);
+  }
+
+  @Test
+  @Transactional
+  void fieldsに存在しない項目を指定したとき400を返すこと() throws Exception {
+    perform(MockMvcRequestBuilders.get("/users").param("fields", "id,password"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  @Transactional
+  void AcceptにCBORを指定したとき同じ内容をCBORで返すこと() throws Exception {
+    byte[] response = perform(MockMvcRequestBuilders.get("/users")
+            .accept("application/cbor"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.content().contentType("application/cbor"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    var tree = new ObjectMapper(new CBORFactory()).readTree(response);
+    JSONAssert.assertEquals("""
+        {
+            "results": [
+                {"id": 1, "companyname": "○○○会社", "username": "瀬川"},
+                {"id": 2, "companyname": "△△△会社", "username": "瀬川2"}
+            ]
+        }
+        """, new ObjectMapper().writeValueAsString(tree), JSONCompareMode.STRICT);
+  }
+
   @Test
   @Transactional
   void 存在するユーザのIDを指定したとき正常にユーザーが返されること() throws Exception {
-    String response = mockMvc.perform(MockMvcRequestBuilders.get("/users/2"))
+    String response = perform(MockMvcRequestBuilders.get("/users/2"))
         .andExpect(MockMvcResultMatchers.status().isOk())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
 
@@ -86,7 +148,7 @@ public class UserRestApiIntegrationTest {
   @Test
   @Transactional
   void 存在しないユーザーのidにアクセスしたときにと404が返ること() throws Exception {
-    mockMvc.perform(MockMvcRequestBuilders.get("/users/99"))
+    perform(MockMvcRequestBuilders.get("/users/99"))
         .andExpect(MockMvcResultMatchers.status().is(404));
   }
 
@@ -94,7 +156,7 @@ public class UserRestApiIntegrationTest {
   @Test
   @Transactional
   void 検索時に該当するIDのユーザーがいないときエラーメッセージが返ること() throws Exception {
-    String response = mockMvc.perform(MockMvcRequestBuilders.get("/users/99"))
+    String response = perform(MockMvcRequestBuilders.get("/users/99"))
         .andExpect(MockMvcResultMatchers.status().isNotFound())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
 
@@ -114,7 +176,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.post("/users")
+    String response = perform(MockMvcRequestBuilders.post("/users")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().is(201))
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -140,7 +202,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.post("/users")
+    String response = perform(MockMvcRequestBuilders.post("/users")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().isBadRequest())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -176,7 +238,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.post("/users")
+    String response = perform(MockMvcRequestBuilders.post("/users")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().isBadRequest())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -206,7 +268,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+    String response = perform(MockMvcRequestBuilders.patch("/users/1")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().is(200))
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -229,7 +291,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.patch("/users/99")
+    String response = perform(MockMvcRequestBuilders.patch("/users/99")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().isNotFound())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -253,7 +315,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+    String response = perform(MockMvcRequestBuilders.patch("/users/1")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().isBadRequest())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -291,7 +353,7 @@ public class UserRestApiIntegrationTest {
     ObjectMapper objectMapper = new ObjectMapper();
     String json = objectMapper.writeValueAsString(uf);
 
-    String response = mockMvc.perform(MockMvcRequestBuilders.patch("/users/1")
+    String response = perform(MockMvcRequestBuilders.patch("/users/1")
             .contentType(MediaType.APPLICATION_JSON).content(json))
         .andExpect(MockMvcResultMatchers.status().isBadRequest())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
@@ -313,7 +375,7 @@ public class UserRestApiIntegrationTest {
   @Test
   @Transactional
   void 指定したデーターを1件削除できること() throws Exception {
-    mockMvc.perform(MockMvcRequestBuilders.delete("/users/1"))
+    perform(MockMvcRequestBuilders.delete("/users/1"))
         .andExpect(MockMvcResultMatchers.status().isNoContent())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
   }
@@ -321,7 +383,7 @@ public class UserRestApiIntegrationTest {
   @Test
   @Transactional
   void 削除時に該当するIDのユーザーがいないときエラーメッセージが返ること() throws Exception {
-    String response = mockMvc.perform(MockMvcRequestBuilders.delete("/users/99"))
+    String response = perform(MockMvcRequestBuilders.delete("/users/99"))
         .andExpect(MockMvcResultMatchers.status().isNotFound())
         .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
 
@@ -332,4 +394,66 @@ public class UserRestApiIntegrationTest {
         }
         """, response, JSONCompareMode.STRICT);
   }
+
+  @Test
+  @Transactional
+  void ユーザー取得時にバージョンがETagとして返ること() throws Exception {
+    perform(MockMvcRequestBuilders.get("/users/1"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"0\""));
+  }
+
+  @Test
+  @Transactional
+  void IfNoneMatchがETagと一致するとき本文なしの304が返ること() throws Exception {
+    var response = perform(MockMvcRequestBuilders.get("/users/1")
+            .header("If-None-Match", "W/\"9\", \"0\""))
+        .andExpect(MockMvcResultMatchers.status().isNotModified())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"0\""))
+        .andReturn().getResponse();
+
+    assertEquals("", response.getContentAsString());
+  }
+
+  @Test
+  @Transactional
+  void 更新時にIfMatchのバージョンが一致しないとき412と現在のETagが返ること() throws Exception {
+    String json = new ObjectMapper().writeValueAsString(new UserForm("XX会社", "瀬川3"));
+
+    String response = perform(MockMvcRequestBuilders.patch("/users/1")
+            .header("If-Match", "\"5\"")
+            .contentType(MediaType.APPLICATION_JSON).content(json))
+        .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"0\""))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    JSONAssert.assertEquals("""
+        {
+        "title": "Precondition Failed",
+        "detail": "UserEntity (id = 1) has been modified. expected version = 5, current version = 0."
+        }
+        """, response, JSONCompareMode.STRICT);
+  }
+
+  @Test
+  @Transactional
+  void IfMatchのバージョンが一致するとき更新後の内容と新しいETagが返ること() throws Exception {
+    String json = new ObjectMapper().writeValueAsString(new UserForm("XX会社", "瀬川3"));
+
+    String response = perform(MockMvcRequestBuilders.patch("/users/1")
+            .header("If-Match", "\"0\"")
+            .header("Prefer", "return=representation")
+            .contentType(MediaType.APPLICATION_JSON).content(json))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1\""))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    JSONAssert.assertEquals("""
+        {
+        "id": 1,
+        "companyname": "XX会社",
+        "username": "瀬川3"
+        }
+        """, response, JSONCompareMode.STRICT);
+  }
 }
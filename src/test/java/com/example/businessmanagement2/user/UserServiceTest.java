@@ -4,14 +4,24 @@ package com.example.businessmanagement2.user;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.businessmanagement2.repository.cacheversion.CacheVersionRepository;
 import com.example.businessmanagement2.repository.user.UserEntity;
 import com.example.businessmanagement2.repository.user.UserRepository;
+import com.example.businessmanagement2.service.event.ChangeFeed;
+import com.example.businessmanagement2.service.page.InvalidPageTokenException;
+import com.example.businessmanagement2.service.page.Page;
+import com.example.businessmanagement2.service.user.UserCache;
+import com.example.businessmanagement2.service.user.UserCacheProperties;
 import com.example.businessmanagement2.service.user.UserEntityNotFoundException;
 import com.example.businessmanagement2.service.user.UserServiceImpl;
+import com.example.businessmanagement2.service.user.UserVersionConflictException;
+import com.example.businessmanagement2.service.version.ResourceVersions;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -19,7 +29,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +43,16 @@ public class UserServiceTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private ChangeFeed changeFeed;
+
+  @Mock
+  private ResourceVersions resourceVersions;
+
+  @Spy
+  private UserCache userCache = new UserCache(mock(CacheVersionRepository.class),
+      new UserCacheProperties());
+
   @Test
   public void すべてのユーザーを全件取得してそのまま返すこと() {
     List<UserEntity> UserEntity = new ArrayList<>();
@@ -41,6 +63,29 @@ public class UserServiceTest {
     assertThat(actual).hasSize(2);
   }
 
+  @Test
+  public void 件数より多くのユーザーがいるとき次ページのトークンで続きが取得できること() {
+    UserEntity first = new UserEntity(1L, "○○○会社", "瀬川");
+    UserEntity second = new UserEntity(2L, "△△△会社", "瀬川2");
+    given(userRepository.findUserPage(null, 2)).willReturn(List.of(first, second));
+    given(userRepository.findUserPage(1L, 2)).willReturn(List.of(second));
+
+    Page<UserEntity> firstPage = userServiceImpl.findUserPage(null, 1);
+    assertThat(firstPage.getContent()).containsExactly(first);
+    assertThat(firstPage.getNext()).isNotNull();
+
+    Page<UserEntity> secondPage = userServiceImpl.findUserPage(firstPage.getNext(), 1);
+    assertThat(secondPage.getContent()).containsExactly(second);
+    assertThat(secondPage.getNext()).isNull();
+  }
+
+  @Test
+  public void 不正なページトークンを指定したときInvalidPageTokenExceptionとなること() {
+    assertThatThrownBy(() -> {
+      userServiceImpl.findUserPage("not-a-token", 10);
+    }).isInstanceOf(InvalidPageTokenException.class);
+  }
+
   @Test
   public void 存在するユーザのIDを指定したとき正常にユーザーが返されること() {
     doReturn(Optional.of(new UserEntity(1L, "○○○会社", "瀬川")))
@@ -61,45 +106,77 @@ public class UserServiceTest {
   @Test
   public void ユーザーを新規登録できること() {
     UserEntity newUe = new UserEntity(null, "xxx会社", "瀬川3");
-    userServiceImpl.create(newUe.getCompanyname(), newUe.getUsername());
-    verify(userRepository).create(newUe);
+    // MyBatis が useGeneratedKeys で採番した ID を書き戻すのを真似る
+    doAnswer(invocation -> {
+      UserEntity created = invocation.getArgument(0);
+      ReflectionTestUtils.setField(created, "userid", 4L);
+      return null;
+    }).when(userRepository).create(newUe);
+    UserEntity actual = userServiceImpl.create(newUe.getCompanyname(), newUe.getUsername());
+    verify(userRepository).create(new UserEntity(4L, "xxx会社", "瀬川3"));
+    assertThat(actual.getUserid()).isEqualTo(4L);
   }
 
   @Test
   public void 指定したIDのユーザーを更新できること() {
-    UserEntity ue = new UserEntity(1L, "○○○会社", "瀬川");
     UserEntity newUe = new UserEntity(1L, "xxx会社", "瀬川3");
-    given(userRepository.findById(ue.getUserid())).willReturn(Optional.of(ue));
-    userServiceImpl.update(ue.getUserid(), newUe.getCompanyname(), newUe.getUsername());
+    given(userRepository.update(newUe)).willReturn(1);
+    given(userRepository.findVersion(1L)).willReturn(Optional.of(4L));
+    UserEntity actual =
+        userServiceImpl.update(newUe.getUserid(), newUe.getCompanyname(), newUe.getUsername());
     verify(userRepository).update(newUe);
+    assertThat(actual).isEqualTo(new UserEntity(1L, "xxx会社", "瀬川3", 4L));
   }
 
   @Test
   public void 更新時に該当するIDのユーザーがいないときUserEntityNotFoundExceptionとなること() {
-    UserEntity ue = new UserEntity(1L, "○○○会社", "瀬川");
-    UserEntity newUe = new UserEntity(1L, "xxx会社", "瀬川3");
-    given(userRepository.findById(ue.getUserid())).willReturn(Optional.of(ue));
-    userServiceImpl.update(ue.getUserid(), newUe.getCompanyname(), newUe.getUsername());
+    UserEntity newUe = new UserEntity(99L, "xxx会社", "瀬川3");
+    given(userRepository.update(newUe)).willReturn(0);
     assertThatThrownBy(() -> {
-      userServiceImpl.findById(99L);
+      userServiceImpl.update(99L, newUe.getCompanyname(), newUe.getUsername());
     }).isInstanceOf(UserEntityNotFoundException.class);
   }
 
+  @Test
+  public void バージョンを指定して更新したとき更新後のバージョンが返されること() {
+    UserEntity newUe = new UserEntity(1L, "xxx会社", "瀬川3", 2L);
+    given(userRepository.updateWithVersion(newUe)).willReturn(1);
+    UserEntity actual = userServiceImpl.update(1L, 2L, "xxx会社", "瀬川3");
+    assertThat(actual).isEqualTo(new UserEntity(1L, "xxx会社", "瀬川3", 3L));
+  }
+
+  @Test
+  public void 更新時にバージョンが一致しないときUserVersionConflictExceptionとなること() {
+    UserEntity newUe = new UserEntity(1L, "xxx会社", "瀬川3", 2L);
+    given(userRepository.updateWithVersion(newUe)).willReturn(0);
+    given(userRepository.findVersion(1L)).willReturn(Optional.of(5L));
+    assertThatThrownBy(() -> {
+      userServiceImpl.update(1L, 2L, "xxx会社", "瀬川3");
+    }).isInstanceOf(UserVersionConflictException.class)
+        .hasFieldOrPropertyWithValue("currentVersion", 5L);
+  }
+
   @Test
   public void 指定したデーターを1件削除できること() {
-    UserEntity ue = new UserEntity(1L, "○○○会社", "瀬川");
-    given(userRepository.findById(ue.getUserid())).willReturn(Optional.of(ue));
-    userServiceImpl.delete(ue.getUserid());
-    verify(userRepository).delete(ue.getUserid());
+    given(userRepository.delete(1L)).willReturn(1);
+    userServiceImpl.delete(1L);
+    verify(userRepository).delete(1L);
   }
 
   @Test
   public void 削除時に該当するIDのユーザーがいないときUserEntityNotFoundExceptionとなること() {
-    UserEntity ue = new UserEntity(1L, "○○○会社", "瀬川");
-    given(userRepository.findById(ue.getUserid())).willReturn(Optional.of(ue));
-    userServiceImpl.delete(ue.getUserid());
+    given(userRepository.delete(99L)).willReturn(0);
+    assertThatThrownBy(() -> {
+      userServiceImpl.delete(99L);
+    }).isInstanceOf(UserEntityNotFoundException.class);
+  }
+
+  @Test
+  public void バージョンを指定した削除で該当するIDのユーザーがいないときUserEntityNotFoundExceptionとなること() {
+    given(userRepository.deleteWithVersion(99L, 0L)).willReturn(0);
+    given(userRepository.findVersion(99L)).willReturn(Optional.empty());
     assertThatThrownBy(() -> {
-      userServiceImpl.findById(99L);
+      userServiceImpl.delete(99L, 0L);
     }).isInstanceOf(UserEntityNotFoundException.class);
   }
 }
@@ -0,0 +1,71 @@
+package com.example.businessmanagement2.userschedule;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.businessmanagement2.repository.schedule.ScheduleEntity;
+import com.example.businessmanagement2.repository.userschedule.UserSchedule;
+import com.example.businessmanagement2.repository.userschedule.UserScheduleRepository;
+import com.github.database.rider.core.api.dataset.DataSet;
+import com.github.database.rider.spring.api.DBRider;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.transaction.annotation.Transactional;
+
+
+@DBRider
+@MybatisTest
+@DataSet(value = "datasets/schedules.yml")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class UserScheduleRepositoryTest {
+
+  @Autowired
+  UserScheduleRepository userScheduleRepository;
+
+  @Test
+  @Transactional
+  void ユーザーとその作業予定が1件にまとめて取得できること() {
+    Optional<UserSchedule> actual = userScheduleRepository.findById(1L, null, null);
+    assertThat(actual).isPresent();
+    assertThat(actual.get().getCompanyname()).isEqualTo("○○○会社");
+    assertThat(actual.get().getSchedules())
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(1L, 4L);
+  }
+
+  @Test
+  @Transactional
+  void 期間内に作業予定がないときも空の作業予定でユーザーが取得できること() {
+    Optional<UserSchedule> actual = userScheduleRepository.findById(1L,
+        LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31));
+    assertThat(actual).isPresent();
+    assertThat(actual.get().getSchedules()).isEmpty();
+  }
+
+  @Test
+  @Transactional
+  void 存在しないユーザーのときは空が返ること() {
+    assertThat(userScheduleRepository.findById(99L, null, null)).isEmpty();
+  }
+
+  @Test
+  @Transactional
+  void 複数ユーザーの作業予定が期間で絞り込んでまとめて取得できること() {
+    List<UserSchedule> actual = userScheduleRepository.findByIds(List.of(1L, 2L, 99L),
+        LocalDate.of(2022, 12, 7), LocalDate.of(2022, 12, 31));
+    assertThat(actual)
+        .extracting(UserSchedule::getUserid)
+        .containsExactly(1L, 2L);
+    assertThat(actual.get(0).getSchedules())
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(4L);
+    assertThat(actual.get(1).getSchedules())
+        .extracting(ScheduleEntity::getScheduleid)
+        .containsExactly(2L, 3L);
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.businessmanagement2.version;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import com.example.businessmanagement2.repository.cacheversion.CacheVersionRepository;
+import com.example.businessmanagement2.service.event.ChangeResource;
+import com.example.businessmanagement2.service.user.UserCache;
+import com.example.businessmanagement2.service.user.UserCacheProperties;
+import com.example.businessmanagement2.service.version.ResourceVersionProperties;
+import com.example.businessmanagement2.service.version.ResourceVersions;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceVersionsTest {
+
+  @Mock
+  private CacheVersionRepository cacheVersionRepository;
+
+  private UserCache userCache;
+
+  private ResourceVersions resourceVersions;
+
+  @BeforeEach
+  void setUp() {
+    userCache = new UserCache(cacheVersionRepository, new UserCacheProperties());
+    resourceVersions = new ResourceVersions(cacheVersionRepository, userCache,
+        new ResourceVersionProperties());
+  }
+
+  private void givenVersions(long users, long schedules) {
+    given(cacheVersionRepository.findVersion("users")).willReturn(Optional.of(users));
+    given(cacheVersionRepository.findVersion("schedules")).willReturn(Optional.of(schedules));
+  }
+
+  @Test
+  void 読んだバージョンを覚えてDBを読まずに答えられること() {
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+
+    var generation = resourceVersions.beginRead(ChangeResource.SCHEDULE);
+    resourceVersions.remember(ChangeResource.SCHEDULE, 1, 3L, generation);
+
+    assertThat(resourceVersions.find(ChangeResource.SCHEDULE, 1)).isEqualTo(OptionalLong.of(3));
+    assertThat(resourceVersions.find(ChangeResource.SCHEDULE, 2)).isEmpty();
+    assertThat(resourceVersions.find(ChangeResource.USER, 1)).isEmpty();
+  }
+
+  @Test
+  void 読んでいる間に変更があったときは読んだバージョンを覚えないこと() {
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+
+    var generation = resourceVersions.beginRead(ChangeResource.SCHEDULE);
+    resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, 1, 4L);
+    resourceVersions.remember(ChangeResource.SCHEDULE, 1, 3L, generation);
+
+    assertThat(resourceVersions.find(ChangeResource.SCHEDULE, 1)).isEqualTo(OptionalLong.of(4));
+  }
+
+  @Test
+  void 変更があると表のETagが変わること() {
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+    var before = resourceVersions.tableTag(ChangeResource.USER);
+
+    resourceVersions.changedAfterCommit(ChangeResource.USER, 1, null);
+
+    assertThat(before).isPresent();
+    assertThat(resourceVersions.tableTag(ChangeResource.USER)).isPresent().isNotEqualTo(before);
+  }
+
+  @Test
+  void 他ノードで表のバージョンが上がったときはその表の分だけ忘れること() {
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+    resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, 1, 3L);
+    resourceVersions.changedAfterCommit(ChangeResource.USER, 1, 2L);
+
+    givenVersions(0, 1);
+    resourceVersions.pollVersions();
+
+    assertThat(resourceVersions.find(ChangeResource.SCHEDULE, 1)).isEmpty();
+    assertThat(resourceVersions.find(ChangeResource.USER, 1)).isEqualTo(OptionalLong.of(2));
+  }
+
+  @Test
+  void ユーザーのキャッシュが捨てられたときはユーザーのバージョンも忘れること() {
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+    userCache.pollVersion();
+    resourceVersions.changedAfterCommit(ChangeResource.USER, 1, 2L);
+
+    given(cacheVersionRepository.findVersion("users")).willReturn(Optional.of(1L));
+    userCache.pollVersion();
+
+    assertThat(resourceVersions.find(ChangeResource.USER, 1)).isEmpty();
+  }
+
+  @Test
+  void バージョンを確認できていないときは何も答えないこと() {
+    var properties = new ResourceVersionProperties();
+    properties.setMaxStaleness(Duration.ZERO);
+    resourceVersions = new ResourceVersions(cacheVersionRepository, userCache, properties);
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+    resourceVersions.changedAfterCommit(ChangeResource.SCHEDULE, 1, 3L);
+
+    assertThat(resourceVersions.find(ChangeResource.SCHEDULE, 1)).isEmpty();
+    assertThat(resourceVersions.tableTag(ChangeResource.SCHEDULE)).isEmpty();
+  }
+
+  @Test
+  void 自ノードが上げた分より表のバージョンが進んだときだけ他ノードの変更として知らせること() {
+    var notified = new AtomicInteger();
+    resourceVersions.addOtherNodeChangeListener(ChangeResource.SCHEDULE,
+        notified::incrementAndGet);
+    givenVersions(0, 0);
+    resourceVersions.pollVersions();
+
+    resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE);
+    givenVersions(0, 1);
+    resourceVersions.pollVersions();
+    assertThat(notified).hasValue(0);
+
+    resourceVersions.notifyOtherNodes(ChangeResource.SCHEDULE);
+    givenVersions(0, 3);
+    resourceVersions.pollVersions();
+    assertThat(notified).hasValue(1);
+  }
+}